@@ -2,6 +2,7 @@ package nro.ahwuocdz;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntFunction;
 
 import nro.models.map.Zone;
 import nro.models.mob.Mob;
@@ -119,20 +120,24 @@ public class DungeonInstance {
 
     private void startWaveCountdown() {
         Service.getInstance().sendThongBao(owner, "Chuẩn bị cho Wave " + currentWave + "!");
-        new Thread(() -> {
-            try {
-                for (int i = COUNTDOWN_SECONDS; i > 0; i--) {
-                    Service.getInstance().sendThongBao(owner, "Wave " + currentWave + " bắt đầu trong: " + i + " giây");
-                    Thread.sleep(COUNTDOWN_INTERVAL);
-                }
-                if (isActive) {
-                    requiredKillsThisWave = BASE_KILLS_REQUIRED + (currentWave - 1) * KILLS_INCREASE_PER_WAVE;
-                    executeWaveStart();
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        countdown(COUNTDOWN_SECONDS, i -> "Wave " + currentWave + " bắt đầu trong: " + i + " giây", () -> {
+            if (isActive) {
+                requiredKillsThisWave = BASE_KILLS_REQUIRED + (currentWave - 1) * KILLS_INCREASE_PER_WAVE;
+                executeWaveStart();
             }
-        }).start();
+        });
+    }
+
+    /**
+     * Sends one notice per interval from seconds down to 1, then runs done
+     */
+    private void countdown(int seconds, IntFunction<String> text, Runnable done) {
+        if (seconds <= 0) {
+            done.run();
+            return;
+        }
+        Service.getInstance().sendThongBao(owner, text.apply(seconds));
+        Util.setTimeout(() -> countdown(seconds - 1, text, done), COUNTDOWN_INTERVAL, "dia cung countdown");
     }
 
     private void executeWaveStart() {
@@ -213,19 +218,11 @@ public class DungeonInstance {
         Service.getInstance().sendThongBao(owner, "Wave " + currentWave + " hoàn thành!");
         totalKillsThisWave = 0;
 
-        new Thread(() -> {
-            try {
-                for (int i = COUNTDOWN_SECONDS; i > 0; i--) {
-                    Service.getInstance().sendThongBao(owner, "Wave tiếp theo trong: " + i + " giây");
-                    Thread.sleep(COUNTDOWN_INTERVAL);
-                }
-                if (isActive && owner != null && owner.zone != null) {
-                    startNextWave();
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        countdown(COUNTDOWN_SECONDS, i -> "Wave tiếp theo trong: " + i + " giây", () -> {
+            if (isActive && owner != null && owner.zone != null) {
+                startNextWave();
             }
-        }).start();
+        });
     }
 
     private void startNextWave() {
@@ -284,18 +281,13 @@ public class DungeonInstance {
                 owner.zone.mobs.removeIf(mob -> mob.name != null && mob.name.contains("Wave"));
             }
 
-            new Thread(() -> {
-                try {
-                    Thread.sleep(KICK_DELAY_SECONDS * 1000);
-                    if (owner != null) {
-                        DungeonManage.gI().removePlayerCompletely(owner);
-                        ChangeMapService.gI().changeMapBySpaceShip(owner, KICK_MAP_ID, KICK_ZONE_ID, KICK_X);
-                        Service.getInstance().sendThongBao(owner, "Bạn đã bị đưa ra khỏi dungeon!");
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
+            Util.setTimeout(() -> {
+                if (owner != null) {
+                    DungeonManage.gI().removePlayerCompletely(owner);
+                    ChangeMapService.gI().changeMapBySpaceShip(owner, KICK_MAP_ID, KICK_ZONE_ID, KICK_X);
+                    Service.getInstance().sendThongBao(owner, "Bạn đã bị đưa ra khỏi dungeon!");
                 }
-            }).start();
+            }, KICK_DELAY_SECONDS * 1000, "dia cung kick");
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -14,6 +14,7 @@ import nro.services.func.ChangeMapService;
 import nro.services.MapService;
 import nro.services.Service;
 import nro.utils.TimeUtil;
+import nro.utils.Util;
 
 public class DungeonManage {
 
@@ -369,22 +370,17 @@ public class DungeonManage {
         }
 
         final boolean skipDecrementAttempts = usedItem;
-        new Thread(() -> {
-            try {
-                Thread.sleep(1000);
-                if (player.zone != null && player.zone.map.mapId == MAP_ID) {
-                    DungeonInstance dungeonInstance = createDungeonInstance(player, skipDecrementAttempts);
-                    if (dungeonInstance != null) {
-                        Service.getInstance().sendThongBao(player, "Chào mừng đến với Địa Cung!");
-                    } else {
-                        Service.getInstance().sendThongBao(player, "Địa Cung đang quá tải!");
-                        ChangeMapService.gI().changeMapBySpaceShip(player, KICK_MAP_ID, KICK_ZONE_ID, KICK_X);
-                    }
+        Util.setTimeout(() -> {
+            if (player.zone != null && player.zone.map.mapId == MAP_ID) {
+                DungeonInstance dungeonInstance = createDungeonInstance(player, skipDecrementAttempts);
+                if (dungeonInstance != null) {
+                    Service.getInstance().sendThongBao(player, "Chào mừng đến với Địa Cung!");
+                } else {
+                    Service.getInstance().sendThongBao(player, "Địa Cung đang quá tải!");
+                    ChangeMapService.gI().changeMapBySpaceShip(player, KICK_MAP_ID, KICK_ZONE_ID, KICK_X);
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
             }
-        }).start();
+        }, 1000, "dia cung enter");
     }
 
     public int getActiveZoneCount() {
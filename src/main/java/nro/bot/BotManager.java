@@ -163,8 +163,7 @@ public class BotManager {
         if (zone != null) {
             bot.location.x = x;
             bot.location.y = y;
-            MapService.gI().goToMap(bot, zone);
-            zone.load_Me_To_Another(bot);
+            MapService.gI().goToMap(bot, zone, () -> bot.zone.load_Me_To_Another(bot));
             System.out.println("[BotManager] Spawned " + bot.name + " (gender " + bot.gender + ") at map " + zone.map.mapId + " zone " + zone.zoneId + " (" + zone.getPlayers().size() + " players)");
         } else {
             System.err.println("[BotManager] Failed to find zone for map " + mapId);
@@ -234,17 +233,15 @@ public class BotManager {
         };
         
         if (shouldHavePet) {
-            new Thread(() -> {
-                try {
-                    Thread.sleep(2000);
-                    bot.createBotPet();
-                    // Start auto fusion after pet is created
-                    Thread.sleep(1500); // Wait for pet to fully initialize
+            Util.setTimeout(() -> {
+                bot.createBotPet();
+                // Start auto fusion after pet is created
+                Util.setTimeout(() -> { // Wait for pet to fully initialize
                     if (BotConfig.BOT_AUTO_FUSION && bot.hasPet()) {
                         bot.startAutoFusion();
                     }
-                } catch (Exception e) {}
-            }).start();
+                }, 1500, "bot fusion");
+            }, 2000, "bot pet");
         }
 
         return bot;
@@ -405,21 +405,7 @@ public class Bot extends Player {
             return null;
         }
 
-        Mob nearestMob = null;
-        int nearestDistance = Integer.MAX_VALUE;
-
-        synchronized (zone.mobs) {
-            for (Mob mob : zone.mobs) {
-                if (mob != null && !mob.isDie()) {
-                    int distance = Util.getDistance(this, mob);
-                    if (distance < nearestDistance) {
-                        nearestDistance = distance;
-                        nearestMob = mob;
-                    }
-                }
-            }
-        }
-        return nearestMob;
+        return zone.findNearestMob(this.location.x, this.location.y, Integer.MAX_VALUE, mob -> !mob.isDie());
     }
 
 
@@ -510,8 +496,7 @@ public class Bot extends Player {
                 }
                 this.location.x = goX;
                 this.location.y = goY;
-                MapService.gI().goToMap(this, zoneJoin);
-                zoneJoin.load_Me_To_Another(this);
+                MapService.gI().goToMap(this, zoneJoin, () -> this.zone.load_Me_To_Another(this));
                 botStatus = HUNTING;
                 huntingStartTime = System.currentTimeMillis();
                 huntingDuration = Util.nextInt(BotConfig.HUNTING_DURATION_MIN, BotConfig.HUNTING_DURATION_MAX);
@@ -745,8 +730,7 @@ public class Bot extends Player {
                 } catch (Exception ex) {
                     this.location.y = targetBoss.location.y; // Fallback to boss Y
                 }
-                MapService.gI().goToMap(this, bossZone);
-                bossZone.load_Me_To_Another(this);
+                MapService.gI().goToMap(this, bossZone, () -> bossZone.load_Me_To_Another(this));
             } else {
                 botStatus = HUNTING;
                 huntingStartTime = System.currentTimeMillis();
@@ -986,17 +970,18 @@ public class Bot extends Player {
                 // Teleport to NPC position
                 this.location.x = targetNpc.cx + Util.nextInt(-30, 30);
                 this.location.y = targetNpc.cy;
-                MapService.gI().goToMap(this, zoneJoin);
-                zoneJoin.load_Me_To_Another(this);
-                
-                // Send outfit update to players in new zone
-                Service.getInstance().Send_Caitrang(this);
-                
-                // Equip random title
-                equipRandomTitle();
-                
-                // Equip random flag bag
-                equipRandomFlagBag();
+                MapService.gI().goToMap(this, zoneJoin, () -> {
+                    zoneJoin.load_Me_To_Another(this);
+                    
+                    // Send outfit update to players in new zone
+                    Service.getInstance().Send_Caitrang(this);
+                    
+                    // Equip random title
+                    equipRandomTitle();
+                    
+                    // Equip random flag bag
+                    equipRandomFlagBag();
+                });
                 
             } else {
                 botStatus = HUNTING;
@@ -1048,11 +1033,12 @@ public class Bot extends Player {
                 this.location.y = groundY;
             }
             
-            MapService.gI().goToMap(this, zoneJoin);
-            zoneJoin.load_Me_To_Another(this);
-            
-            // Send outfit update
-            Service.getInstance().Send_Caitrang(this);
+            MapService.gI().goToMap(this, zoneJoin, () -> {
+                zoneJoin.load_Me_To_Another(this);
+                
+                // Send outfit update
+                Service.getInstance().Send_Caitrang(this);
+            });
             
             // Set AFK duration
             afkStartTime = System.currentTimeMillis();
@@ -1205,8 +1191,7 @@ public class Bot extends Player {
         
         // Switch to less populated zone if difference is significant
         if (bestZone != null && (zone.getPlayers().size() - minPlayers) >= BotConfig.ZONE_SWITCH_MIN_DIFF) {
-            MapService.gI().goToMap(this, bestZone);
-            bestZone.load_Me_To_Another(this);
+            MapService.gI().goToMap(this, bestZone, () -> this.zone.load_Me_To_Another(this));
             lastTimeZoneSwitch = System.currentTimeMillis();
         }
     }
@@ -1521,9 +1506,10 @@ public class Bot extends Player {
                 this.location.x = targetNpc.cx + Util.nextInt(-30, 30);
                 int groundY = bestZone.map.yPhysicInTop(this.location.x, 0);
                 this.location.y = groundY > 0 ? groundY : targetNpc.cy;
-                MapService.gI().goToMap(this, bestZone);
-                bestZone.load_Me_To_Another(this);
-                Service.getInstance().Send_Caitrang(this);
+                MapService.gI().goToMap(this, bestZone, () -> {
+                    bestZone.load_Me_To_Another(this);
+                    Service.getInstance().Send_Caitrang(this);
+                });
             }
         } else {
             // Fallback
@@ -1593,8 +1579,7 @@ public class Bot extends Player {
             }
             
             // Switch zone
-            MapService.gI().goToMap(this, newZone);
-            newZone.load_Me_To_Another(this);
+            MapService.gI().goToMap(this, newZone, () -> newZone.load_Me_To_Another(this));
         }
     }
     
@@ -1856,15 +1841,6 @@ public class Bot extends Player {
             PetService.gI().createPet(this, petType);
             hasPet = true;
             
-            // Wait for pet to be created then set name
-            new Thread(() -> {
-                try {
-                    Thread.sleep(1500); // Wait for PetService to finish
-                } catch (Exception e) {
-                    // Ignore
-                }
-            }).start();
-            
         } catch (Exception e) {
         }
     }
@@ -0,0 +1,204 @@
+package nro.jdbc;
+
+import nro.jdbc.daos.PlayerDAO;
+import nro.jdbc.daos.PlayerSnapshot;
+import nro.utils.Log;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PlayerSaveQueue - write-behind persistence for player rows
+ *
+ * Callers hand over a snapshot and return immediately. Snapshots are spread
+ * over the workers by player id, so every save of one player goes through the
+ * same worker in order, and a newer snapshot absorbs one still waiting.
+ * Workers write what has piled up as batched transactions.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public class PlayerSaveQueue {
+
+    private static final int WORKERS = 2;
+    private static final int MAX_BATCH = 100;
+    private static final long FLUSH_INTERVAL = 1000;
+
+    private static final PlayerSaveQueue i = new PlayerSaveQueue(WORKERS, FLUSH_INTERVAL, PlayerSaveQueue::writeToDatabase);
+
+    public static PlayerSaveQueue gI() {
+        return i;
+    }
+
+    /**
+     * Writes one batch of snapshots, throws when nothing was written
+     */
+    interface BatchWriter {
+
+        void write(List<PlayerSnapshot> batch) throws Exception;
+    }
+
+    private final Worker[] workers;
+    private final long flushInterval;
+    private final BatchWriter writer;
+    private volatile boolean running = true;
+
+    PlayerSaveQueue(int workerCount, long flushInterval, BatchWriter writer) {
+        this.flushInterval = flushInterval;
+        this.writer = writer;
+        this.workers = new Worker[workerCount];
+        for (int j = 0; j < workerCount; j++) {
+            this.workers[j] = new Worker();
+            Thread thread = new Thread(this.workers[j], "PlayerSaveQueue-" + j);
+            thread.setDaemon(true);
+            this.workers[j].thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Queues a snapshot for writing, replacing an older one of the same player
+     */
+    public void submit(PlayerSnapshot snapshot) {
+        if (snapshot == null || snapshot.isEmpty()) {
+            return;
+        }
+        Worker worker = workerOf(snapshot.getPlayerId());
+        if (!running) {
+            worker.write(List.of(snapshot));
+            return;
+        }
+        worker.pending.merge(snapshot.getPlayerId(), snapshot, (older, newer) -> newer.merge(older));
+        if (worker.pending.size() >= MAX_BATCH) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    /**
+     * Writes the pending snapshot of an account right away, called before its
+     * player is loaded again so the login never reads a stale row
+     */
+    public void flushAccount(int accountId) {
+        for (Worker worker : workers) {
+            synchronized (worker) {
+                for (Map.Entry<Long, PlayerSnapshot> entry : worker.pending.entrySet()) {
+                    if (entry.getValue().getAccountId() != accountId) {
+                        continue;
+                    }
+                    PlayerSnapshot snapshot = worker.take(entry.getKey(), entry.getValue());
+                    if (snapshot != null && !worker.write(List.of(snapshot))) {
+                        worker.requeue(snapshot);
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Worker worker : workers) {
+            size += worker.pending.size();
+        }
+        return size;
+    }
+
+    /**
+     * Stops the workers and writes everything still pending on the caller
+     */
+    public void shutdown() {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+            try {
+                worker.thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker.drain();
+        }
+        Log.success("Đã lưu xong dữ liệu người chơi đang chờ");
+    }
+
+    private Worker workerOf(long playerId) {
+        return workers[(int) Math.floorMod(playerId, (long) workers.length)];
+    }
+
+    private static void writeToDatabase(List<PlayerSnapshot> batch) throws Exception {
+        try (Connection con = DBService.gI().getConnectionForSaveData()) {
+            PlayerDAO.writeSnapshots(con, batch);
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        private final Map<Long, PlayerSnapshot> pending = new ConcurrentHashMap<>();
+        private Thread thread;
+
+        @Override
+        public void run() {
+            while (running) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(flushInterval));
+                drain();
+            }
+        }
+
+        synchronized void drain() {
+            while (!pending.isEmpty()) {
+                List<PlayerSnapshot> batch = new ArrayList<>(Math.min(pending.size(), MAX_BATCH));
+                for (Map.Entry<Long, PlayerSnapshot> entry : pending.entrySet()) {
+                    if (batch.size() >= MAX_BATCH) {
+                        break;
+                    }
+                    PlayerSnapshot snapshot = take(entry.getKey(), entry.getValue());
+                    if (snapshot != null) {
+                        batch.add(snapshot);
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                if (!write(batch)) {
+                    for (PlayerSnapshot snapshot : batch) {
+                        requeue(snapshot);
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Removes the snapshot of a player only if it is still the one seen.
+         * A submit may have merged a newer one in since: that one already
+         * holds the columns of the seen one, so it is read again and taken
+         * instead of being dropped with a remove by key.
+         */
+        PlayerSnapshot take(Long playerId, PlayerSnapshot seen) {
+            PlayerSnapshot snapshot = seen;
+            while (snapshot != null && !pending.remove(playerId, snapshot)) {
+                snapshot = pending.get(playerId);
+            }
+            return snapshot;
+        }
+
+        /**
+         * Puts back a snapshot that failed to write, under a newer one if any
+         */
+        void requeue(PlayerSnapshot snapshot) {
+            pending.merge(snapshot.getPlayerId(), snapshot, (newer, older) -> newer.merge(older));
+        }
+
+        synchronized boolean write(List<PlayerSnapshot> batch) {
+            try {
+                writer.write(batch);
+                return true;
+            } catch (Exception e) {
+                Log.error(PlayerSaveQueue.class, e, "Lỗi save " + batch.size() + " player");
+                return false;
+            }
+        }
+    }
+}
@@ -2,11 +2,12 @@ package nro.jdbc.daos;
 
 import nro.consts.ConstAchive;
 import nro.jdbc.DBService;
+import nro.jdbc.PlayerSaveQueue;
 import nro.models.player.*;
 import nro.server.Client;
+import nro.server.LoginPipeline;
 import nro.server.Manager;
 import nro.server.io.Session;
-import nro.server.model.AntiLogin;
 import nro.services.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -23,19 +24,18 @@ import java.util.List;
  */
 public class GodGK {
 
+    /**
+     * Reads and parses the player of a session, called by the login workers
+     * of LoginPipeline; null when the account has no character yet
+     */
     public static Player loadPlayer(Session session) {
-        return loadPlayerDirect(session);
-    }
-
-    private static Player loadPlayerDirect(Session session) {
-        long startTime = System.currentTimeMillis();
-
-        try {
-            Connection connection = DBService.gI().getConnectionForLogin();
-            PreparedStatement ps = connection.prepareStatement("select * from player where account_id = ? limit 1");
+        // ban save con dang cho phai ghi truoc khi doc lai
+        PlayerSaveQueue.gI().flushAccount(session.userId);
+        try (Connection connection = DBService.gI().getConnectionForLogin();
+             PreparedStatement ps = connection.prepareStatement("select "
+                     + PlayerLoader.selectColumns(Manager.SERVER) + " from player where account_id = ? limit 1")) {
             ps.setInt(1, session.userId);
-            ResultSet rs = ps.executeQuery();
-            try {
+            try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     int plHp = 200000000;
                     int plMp = 200000000;
@@ -130,37 +130,12 @@ public class GodGK {
                     // Set session player
                     session.player = player;
 
-                    // Update timestamps
-                    PreparedStatement ps2 = connection
-                            .prepareStatement("update account set last_time_login = ?, ip_address = ? where id = ?");
-                    ps2.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
-                    ps2.setString(2, session.ipAddress);
-                    ps2.setInt(3, session.userId);
-                    ps2.executeUpdate();
-                    ps2.close();
-
-                    PreparedStatement ps3 = connection
-                            .prepareStatement("update player set lastimelogin = ? where account_id = ?");
-                    ps3.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
-                    ps3.setInt(2, session.userId);
-                    ps3.executeUpdate();
-                    ps3.close();
-
-                    PreparedStatement ps4 = connection
-                            .prepareStatement("update player set tongnap = ? where account_id = ?");
-                    ps4.setInt(1, session.tongnap);
-                    ps4.setInt(2, session.userId);
-                    ps4.executeUpdate();
-                    ps4.close();
-
-                    long totalTime = System.currentTimeMillis() - startTime;
-                    System.out.println("[Direct] ===== TOTAL TIME: " + totalTime + "ms =====");
+                    // thoi gian dang nhap, ip va tong nap ghi theo lo
+                    player.lastimelogin = new Timestamp(System.currentTimeMillis());
+                    LoginPipeline.gI().stamp(session, player.lastimelogin);
 
                     return player;
                 }
-            } finally {
-                rs.close();
-                ps.close();
             }
         } catch (Exception ex) {
             ex.printStackTrace();
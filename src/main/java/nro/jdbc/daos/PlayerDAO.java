@@ -12,6 +12,7 @@ import nro.models.skill.Skill;
 import nro.models.task.Achivement;
 import nro.models.task.AchivementTemplate;
 import nro.server.Manager;
+import nro.server.io.Session;
 import nro.services.MapService;
 import nro.utils.Log;
 import nro.utils.Util;
@@ -24,7 +25,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Level;
 import nro.services.InventoryService;
 
@@ -357,9 +363,26 @@ public class PlayerDAO {
     }
 
     public static void updatePlayer(Player player, Connection connection) {
-        if (player.isDisposed() || player.isSaving()) {
+        PlayerSnapshot snapshot = snapshot(player, updateTimeLogout);
+        if (snapshot == null) {
             return;
         }
+        try {
+            writeSnapshots(connection, Collections.singletonList(snapshot));
+        } catch (SQLException e) {
+            player.lastSaved = null;
+            Log.error(PlayerDAO.class, e, "Lỗi save player " + player.name);
+        }
+    }
+
+    /**
+     * Serializes everything the player row needs on the calling thread, so the
+     * result can be written later by another thread after the player is gone
+     */
+    public static PlayerSnapshot snapshot(Player player, boolean updateTimeLogout) {
+        if (player.isDisposed() || player.isSaving()) {
+            return null;
+        }
         player.setSaving(true);
         try {
             int n1s = 0;
@@ -434,39 +457,11 @@ public class PlayerDAO {
                     String magicTree = dataMagicTree.toJSONString();
 
                     // data body
-                    JSONArray dataBody = new JSONArray();
-                    for (Item item : player.inventory.itemsBody) {
-                        JSONObject dataItem = new JSONObject();
-                        if (item.isNotNullItem()) {
-                            JSONArray options = new JSONArray();
-                            dataItem.put("temp_id", item.template.id);
-                            dataItem.put("quantity", item.quantity);
-                            dataItem.put("create_time", item.createTime);
-                            for (ItemOption io : item.itemOptions) {
-                                JSONArray option = new JSONArray();
-                                option.add(io.optionTemplate.id);
-                                option.add(io.param);
-                                options.add(option);
-                            }
-                            dataItem.put("option", options);
-                        } else {
-                            JSONArray options = new JSONArray();
-                            dataItem.put("temp_id", -1);
-                            dataItem.put("quantity", 0);
-                            dataItem.put("create_time", 0);
-                            dataItem.put("option", options);
-                        }
-                        dataBody.add(dataItem);
-                    }
-
-                    String itemsBody = dataBody.toJSONString();
+                    String itemsBody = PlayerDataCodec.encodeItems(player.inventory.itemsBody);
 
                     // data bag
-                    JSONArray dataBag = new JSONArray();
                     for (Item item : player.inventory.itemsBag) {
-                        JSONObject dataItem = new JSONObject();
                         if (item.isNotNullItem()) {
-                            JSONArray options = new JSONArray();
                             switch (item.template.id) {
                                 case 14:
                                     n1s += item.quantity;
@@ -481,34 +476,13 @@ public class PlayerDAO {
                                     tv += item.quantity;
                                     break;
                             }
-                            dataItem.put("temp_id", item.template.id);
-                            dataItem.put("quantity", item.quantity);
-                            dataItem.put("create_time", item.createTime);
-
-                            for (ItemOption io : item.itemOptions) {
-                                JSONArray option = new JSONArray();
-                                option.add(io.optionTemplate.id);
-                                option.add(io.param);
-                                options.add(option);
-                            }
-                            dataItem.put("option", options);
-                        } else {
-                            JSONArray options = new JSONArray();
-                            dataItem.put("temp_id", -1);
-                            dataItem.put("quantity", 0);
-                            dataItem.put("create_time", 0);
-                            dataItem.put("option", options);
                         }
-                        dataBag.add(dataItem);
                     }
-                    String itemsBag = dataBag.toJSONString();
+                    String itemsBag = PlayerDataCodec.encodeItems(player.inventory.itemsBag);
 
                     // data box
-                    JSONArray dataBox = new JSONArray();
                     for (Item item : player.inventory.itemsBox) {
-                        JSONObject dataItem = new JSONObject();
                         if (item.isNotNullItem()) {
-                            JSONArray options = new JSONArray();
                             switch (item.template.id) {
                                 case 14:
                                     n1s += item.quantity;
@@ -523,54 +497,12 @@ public class PlayerDAO {
                                     tv += item.quantity;
                                     break;
                             }
-                            dataItem.put("temp_id", item.template.id);
-                            dataItem.put("quantity", item.quantity);
-                            dataItem.put("create_time", item.createTime);
-
-                            for (ItemOption io : item.itemOptions) {
-                                JSONArray option = new JSONArray();
-                                option.add(io.optionTemplate.id);
-                                option.add(io.param);
-                                options.add(option);
-                            }
-                            dataItem.put("option", options);
-                        } else {
-                            JSONArray options = new JSONArray();
-                            dataItem.put("temp_id", -1);
-                            dataItem.put("quantity", 0);
-                            dataItem.put("create_time", 0);
-                            dataItem.put("option", options);
                         }
-                        dataBox.add(dataItem);
                     }
-                    String itemsBox = dataBox.toJSONString();
+                    String itemsBox = PlayerDataCodec.encodeItems(player.inventory.itemsBox);
 
                     // data box crack ball
-                    JSONArray dataCrackBall = new JSONArray();
-                    for (Item item : player.inventory.itemsBoxCrackBall) {
-                        JSONObject dataItem = new JSONObject();
-                        if (item.isNotNullItem()) {
-                            dataItem.put("temp_id", item.template.id);
-                            dataItem.put("quantity", item.quantity);
-                            dataItem.put("create_time", item.createTime);
-                            JSONArray options = new JSONArray();
-                            for (ItemOption io : item.itemOptions) {
-                                JSONArray option = new JSONArray();
-                                option.add(io.optionTemplate.id);
-                                option.add(io.param);
-                                options.add(option);
-                            }
-                            dataItem.put("option", options);
-                        } else {
-                            JSONArray options = new JSONArray();
-                            dataItem.put("temp_id", -1);
-                            dataItem.put("quantity", 0);
-                            dataItem.put("create_time", 0);
-                            dataItem.put("option", options);
-                        }
-                        dataCrackBall.add(dataItem);
-                    }
-                    String itemsBoxLuckyRound = dataCrackBall.toJSONString();
+                    String itemsBoxLuckyRound = PlayerDataCodec.encodeItems(player.inventory.itemsBoxCrackBall);
 
                     // data bạn bè
                     JSONArray dataFriends = new JSONArray();
@@ -823,21 +755,7 @@ public class PlayerDAO {
                     String charm = dataCharms.toJSONString();
 
                     // data skill
-                    JSONArray dataSkills = new JSONArray();
-                    for (Skill skill : player.playerSkill.skills) {
-                        // if (skill.skillId != -1) {
-                        JSONArray dataskill = new JSONArray();
-                        dataskill.add(skill.template.id);
-                        dataskill.add(skill.lastTimeUseThisSkill);
-                        dataskill.add(skill.point);
-                        // } else {
-                        // dataObject.put("temp_id", -1);
-                        // dataObject.put("point", 0);
-                        // dataObject.put("last_time_use", 0);
-                        // }
-                        dataSkills.add(dataskill);
-                    }
-                    String skills = dataSkills.toJSONString();
+                    String skills = PlayerDataCodec.encodeSkills(player.playerSkill.skills);
 
                     JSONArray dataSkillShortcut = new JSONArray();
                     // data skill shortcut
@@ -918,30 +836,7 @@ public class PlayerDAO {
                         jPetPoint.put("accumulated_exp", player.pet.accumulatedExp);
                         petPoint = jPetPoint.toJSONString();
 
-                        for (Item item : player.pet.inventory.itemsBody) {
-                            JSONObject dataItem = new JSONObject();
-                            if (item.isNotNullItem()) {
-                                dataItem.put("temp_id", item.template.id);
-                                dataItem.put("quantity", item.quantity);
-                                dataItem.put("create_time", item.createTime);
-                                JSONArray options = new JSONArray();
-                                for (ItemOption io : item.itemOptions) {
-                                    JSONArray option = new JSONArray();
-                                    option.add(io.optionTemplate.id);
-                                    option.add(io.param);
-                                    options.add(option);
-                                }
-                                dataItem.put("option", options);
-                            } else {
-                                JSONArray options = new JSONArray();
-                                dataItem.put("temp_id", -1);
-                                dataItem.put("quantity", 0);
-                                dataItem.put("create_time", 0);
-                                dataItem.put("option", options);
-                            }
-                            jPetBody.add(dataItem);
-                        }
-                        petBody = jPetBody.toJSONString();
+                        petBody = PlayerDataCodec.encodeItems(player.pet.inventory.itemsBody);
 
                         for (Skill s : player.pet.playerSkill.skills) {
                             JSONArray pskill = new JSONArray();
@@ -967,85 +862,71 @@ public class PlayerDAO {
                     }
                     String blackBall = dataBlackBall.toJSONString();
                     Gson gson = new Gson();
-                    PreparedStatement ps = null;
-                    try {
-                        ps = connection.prepareStatement("UPDATE player SET head = ?, have_tennis_space_ship = ?,"
-                                + "clan_id_sv" + Manager.SERVER
-                                + " = ?, data_inventory = ?, data_location = ?, data_point = ?, data_magic_tree = ?,"
-                                + "items_body = ?, items_bag = ?, items_box = ?, items_box_lucky_round = ?, friends = ?,"
-                                + "enemies = ?, data_intrinsic = ?, data_item_time = ?, data_task = ?, data_mabu_egg = ?,"
-                                + "pet_info = ?, pet_point = ?, pet_body = ?, pet_skill = ?, power = ?, pet_power = ?, "
-                                + "data_black_ball = ?, data_side_task = ?, data_charm = ?, skills = ?, skills_shortcut = ?,"
-                                + "thoi_vang = ?, 1sao = ?, 2sao = ?, 3sao = ?, collection_book = ?, event_point = ?, firstTimeLogin = ?,"
-                                + "challenge = ?, sk_tet = ?, buy_limit = ?, moc_nap = ?, achivements = ?, reward_limit = ?, dhtime = ?, dhtime2 = ?, dhtime3 = ?, dhtime4 = ?, dhtime5 = ? ,killWhis = ?, MaBaoVe = ?, levelKillWhis = ?,timeKillWhis = ?,checkNhanQua = ?  WHERE id = ?");
-
-                        ps.setShort(1, player.head);
-                        ps.setBoolean(2, player.haveTennisSpaceShip);
-                        ps.setShort(3, (short) (player.clan != null ? player.clan.id : -1));
-                        ps.setString(4, inventory);
-                        ps.setString(5, location);
-                        ps.setString(6, point);
-                        ps.setString(7, magicTree);
-                        ps.setString(8, itemsBody);
-                        ps.setString(9, itemsBag);
-                        ps.setString(10, itemsBox);
-                        ps.setString(11, itemsBoxLuckyRound);
-                        ps.setString(12, friend);
-                        ps.setString(13, enemy);
-                        ps.setString(14, intrinsic);
-                        ps.setString(15, itemTime);
-                        ps.setString(16, task);
-                        ps.setString(17, mabuEgg);
-                        ps.setString(18, petInfo);
-                        ps.setString(19, petPoint);
-                        ps.setString(20, petBody);
-                        ps.setString(21, petSkill);
-                        ps.setLong(22, player.nPoint.power);
-                        ps.setLong(23, player.pet != null ? player.pet.nPoint.power : 0);
-                        ps.setString(24, blackBall);
-                        ps.setString(25, sideTask);
-                        ps.setString(26, charm);
-                        ps.setString(27, skills);
-                        ps.setString(28, skillShortcut);
-                        ps.setInt(29, tv);
-                        ps.setInt(30, n1s);
-                        ps.setInt(31, n2s);
-                        ps.setInt(32, n3s);
-                        ps.setString(33, gson.toJson(player.getCollectionBook().getCards()));
-                        ps.setInt(34, player.event.getEventPoint());
-                        ps.setString(35, Util.toDateString(player.firstTimeLogin));
-                        ps.setString(36, challenge);
-                        ps.setString(37, skTet);
-                        ps.setString(38, buyLimit);
-                        ps.setInt(39, player.event.getMocNapDaNhan());
-                        ps.setString(40, achive);
-                        ps.setString(41, rwLimit);
-                        ps.setString(42, dhtime);
-                        ps.setString(43, dhtime2);
-                        ps.setString(44, dhtime3);
-                        ps.setString(45, dhtime4);
-                        ps.setString(46, dhtime5);
-                        ps.setString(47, killWhis);
-                        ps.setString(48, MaBaoVe);
-                        ps.setInt(49, player.levelKillWhisDone);
-                        ps.setLong(50, player.timeKillWhis);
-                        ps.setString(51, checkNhanQua);
-                        ps.setInt(52, (int) player.id);
-                        ps.executeUpdate();
-                        if (updateTimeLogout) {
-                            AccountDAO.updateAccoutLogout(player.getSession());
-                        }
-                    } catch (SQLException e) {
-                        e.printStackTrace();
-                    } finally {
-                        try {
-                            if (ps != null) {
-                                ps.close();
-                            }
-                        } catch (SQLException e) {
-                            e.printStackTrace();
+                    Object[] values = new Object[PlayerSnapshot.COLUMNS];
+                    values[0] = player.head;
+                    values[1] = player.haveTennisSpaceShip;
+                    values[2] = (short) (player.clan != null ? player.clan.id : -1);
+                    values[3] = inventory;
+                    values[4] = location;
+                    values[5] = point;
+                    values[6] = magicTree;
+                    values[7] = itemsBody;
+                    values[8] = itemsBag;
+                    values[9] = itemsBox;
+                    values[10] = itemsBoxLuckyRound;
+                    values[11] = friend;
+                    values[12] = enemy;
+                    values[13] = intrinsic;
+                    values[14] = itemTime;
+                    values[15] = task;
+                    values[16] = mabuEgg;
+                    values[17] = petInfo;
+                    values[18] = petPoint;
+                    values[19] = petBody;
+                    values[20] = petSkill;
+                    values[21] = player.nPoint.power;
+                    values[22] = player.pet != null ? player.pet.nPoint.power : 0;
+                    values[23] = blackBall;
+                    values[24] = sideTask;
+                    values[25] = charm;
+                    values[26] = skills;
+                    values[27] = skillShortcut;
+                    values[28] = tv;
+                    values[29] = n1s;
+                    values[30] = n2s;
+                    values[31] = n3s;
+                    values[32] = gson.toJson(player.getCollectionBook().getCards());
+                    values[33] = player.event.getEventPoint();
+                    values[34] = Util.toDateString(player.firstTimeLogin);
+                    values[35] = challenge;
+                    values[36] = skTet;
+                    values[37] = buyLimit;
+                    values[38] = player.event.getMocNapDaNhan();
+                    values[39] = achive;
+                    values[40] = rwLimit;
+                    values[41] = dhtime;
+                    values[42] = dhtime2;
+                    values[43] = dhtime3;
+                    values[44] = dhtime4;
+                    values[45] = dhtime5;
+                    values[46] = killWhis;
+                    values[47] = MaBaoVe;
+                    values[48] = player.levelKillWhisDone;
+                    values[49] = player.timeKillWhis;
+                    values[50] = checkNhanQua;
+                    values[51] = (int) player.id;
+                    long changed = 0;
+                    Object[] saved = player.lastSaved;
+                    for (int i = 0; i < PlayerSnapshot.COLUMNS - 1; i++) {
+                        if (saved == null || !Objects.equals(saved[i], values[i])) {
+                            changed |= 1L << i;
                         }
                     }
+                    player.lastSaved = values;
+                    Session session = player.getSession();
+                    int logoutUserId = updateTimeLogout && session != null
+                            && session.uu != null && session.pp != null ? session.userId : -1;
+                    return new PlayerSnapshot(player.id, session != null ? session.userId : -1, logoutUserId, values, changed);
                 } catch (Exception e) {
                     Log.error(PlayerDAO.class, e, "Lỗi save player " + player.name);
                 } finally {
@@ -1055,6 +936,93 @@ public class PlayerDAO {
         } finally {
             player.setSaving(false);
         }
+        return null;
+    }
+
+    private static String[] columns;
+
+    /**
+     * Column names of the player UPDATE, in parameter order without the id
+     */
+    private static String[] columns() {
+        if (columns == null) {
+            columns = new String[]{"head", "have_tennis_space_ship", "clan_id_sv" + Manager.SERVER,
+                "data_inventory", "data_location", "data_point", "data_magic_tree",
+                "items_body", "items_bag", "items_box", "items_box_lucky_round", "friends",
+                "enemies", "data_intrinsic", "data_item_time", "data_task", "data_mabu_egg",
+                "pet_info", "pet_point", "pet_body", "pet_skill", "power", "pet_power",
+                "data_black_ball", "data_side_task", "data_charm", "skills", "skills_shortcut",
+                "thoi_vang", "1sao", "2sao", "3sao", "collection_book", "event_point", "firstTimeLogin",
+                "challenge", "sk_tet", "buy_limit", "moc_nap", "achivements", "reward_limit", "dhtime", "dhtime2",
+                "dhtime3", "dhtime4", "dhtime5", "killWhis", "MaBaoVe", "levelKillWhis", "timeKillWhis", "checkNhanQua"};
+        }
+        return columns;
+    }
+
+    private static String updatePlayerSql(long changed) {
+        String[] columns = columns();
+        StringBuilder sql = new StringBuilder("UPDATE player SET ");
+        for (int i = 0; i < columns.length; i++) {
+            if ((changed & (1L << i)) != 0) {
+                sql.append('`').append(columns[i]).append("` = ?, ");
+            }
+        }
+        sql.setLength(sql.length() - 2);
+        return sql.append(" WHERE id = ?").toString();
+    }
+
+    /**
+     * Writes the changed columns of the snapshots as one batched transaction,
+     * together with the logout time of the accounts that asked for it. Rows
+     * with nothing changed are skipped.
+     */
+    public static void writeSnapshots(Connection connection, List<PlayerSnapshot> snapshots) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        Map<Long, PreparedStatement> statements = new HashMap<>();
+        try (PreparedStatement psLogout = connection.prepareStatement("update account set last_time_logout = ? where id = ?")) {
+            boolean logout = false;
+            for (PlayerSnapshot snapshot : snapshots) {
+                long changed = snapshot.getChanged();
+                if (changed != 0) {
+                    PreparedStatement ps = statements.get(changed);
+                    if (ps == null) {
+                        ps = connection.prepareStatement(updatePlayerSql(changed));
+                        statements.put(changed, ps);
+                    }
+                    Object[] values = snapshot.getValues();
+                    int index = 1;
+                    for (int i = 0; i < values.length - 1; i++) {
+                        if ((changed & (1L << i)) != 0) {
+                            ps.setObject(index++, values[i]);
+                        }
+                    }
+                    ps.setObject(index, values[values.length - 1]);
+                    ps.addBatch();
+                }
+                if (snapshot.getLogoutUserId() >= 0) {
+                    psLogout.setTimestamp(1, new Timestamp(snapshot.getTime()));
+                    psLogout.setInt(2, snapshot.getLogoutUserId());
+                    psLogout.addBatch();
+                    logout = true;
+                }
+            }
+            for (PreparedStatement ps : statements.values()) {
+                ps.executeBatch();
+            }
+            if (logout) {
+                psLogout.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            for (PreparedStatement ps : statements.values()) {
+                ps.close();
+            }
+            connection.setAutoCommit(autoCommit);
+        }
     }
 
     public static void saveName(Player player) {
@@ -1313,32 +1281,7 @@ public class PlayerDAO {
         if (player.loaded) {
             PreparedStatement ps = null;
             try {
-                JSONArray dataBag = new JSONArray();
-                for (Item item : player.inventory.itemsBag) {
-                    JSONObject dataItem = new JSONObject();
-
-                    if (item.isNotNullItem()) {
-                        dataItem.put("temp_id", item.template.id);
-                        dataItem.put("quantity", item.quantity);
-                        dataItem.put("create_time", item.createTime);
-                        JSONArray options = new JSONArray();
-                        for (ItemOption io : item.itemOptions) {
-                            JSONArray option = new JSONArray();
-                            option.add(io.optionTemplate.id);
-                            option.add(io.param);
-                            options.add(option);
-                        }
-                        dataItem.put("option", options);
-                    } else {
-                        JSONArray options = new JSONArray();
-                        dataItem.put("temp_id", -1);
-                        dataItem.put("quantity", 0);
-                        dataItem.put("create_time", 0);
-                        dataItem.put("option", options);
-                    }
-                    dataBag.add(dataItem);
-                }
-                String itemsBag = dataBag.toJSONString();
+                String itemsBag = PlayerDataCodec.encodeItems(player.inventory.itemsBag);
 
                 ps = con.prepareStatement("update player set items_bag = ? where id = ?");
                 ps.setString(1, itemsBag);
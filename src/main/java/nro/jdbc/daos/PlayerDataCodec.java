@@ -0,0 +1,247 @@
+package nro.jdbc.daos;
+
+import nro.models.item.Item;
+import nro.models.item.ItemOption;
+import nro.models.skill.Skill;
+import nro.services.ItemService;
+import nro.utils.Log;
+import nro.utils.SkillUtil;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * PlayerDataCodec - compact binary form of the player item lists and skills
+ *
+ * A value is "B" + version + ":" + base64 of the payload, so it still fits the
+ * existing text columns. Anything without the prefix is the legacy json-simple
+ * form and is decoded the old way, the next save writes it back as binary.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class PlayerDataCodec {
+
+    private static final byte VERSION = 1;
+    private static final String PREFIX = "B" + VERSION + ":";
+
+    private PlayerDataCodec() {
+    }
+
+    public static boolean isBinary(String data) {
+        return data != null && data.length() > 1 && data.charAt(0) == 'B' && data.indexOf(':') > 0;
+    }
+
+    // ==================== ITEMS ====================
+
+    /**
+     * Encodes items_body, items_bag, items_box, items_box_lucky_round or pet_body
+     */
+    public static String encodeItems(List<Item> items) {
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(16 + items.size() * 24);
+            DataOutputStream dos = new DataOutputStream(bos);
+            writeVarInt(dos, items.size());
+            for (Item item : items) {
+                if (item == null || !item.isNotNullItem()) {
+                    dos.writeShort(-1);
+                    continue;
+                }
+                dos.writeShort(item.template.id);
+                writeVarInt(dos, zigzag(item.quantity));
+                dos.writeLong(item.createTime);
+                writeVarInt(dos, item.itemOptions.size());
+                for (ItemOption io : item.itemOptions) {
+                    writeVarInt(dos, io.optionTemplate.id);
+                    writeVarInt(dos, zigzag(io.param));
+                }
+            }
+            return wrap(bos);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decodes an item list in either form, expired items become null items
+     * when checkExpiry is set
+     */
+    public static List<Item> decodeItems(String data, boolean checkExpiry) {
+        if (!isBinary(data)) {
+            return decodeLegacyItems(data, checkExpiry);
+        }
+        List<Item> items = new ArrayList<>();
+        try {
+            DataInputStream dis = unwrap(data);
+            int size = readVarInt(dis);
+            for (int i = 0; i < size; i++) {
+                short tempId = dis.readShort();
+                if (tempId == -1) {
+                    items.add(ItemService.gI().createItemNull());
+                    continue;
+                }
+                Item item = ItemService.gI().createNewItem(tempId, unzigzag(readVarInt(dis)));
+                item.createTime = dis.readLong();
+                int options = readVarInt(dis);
+                for (int j = 0; j < options; j++) {
+                    int optId = readVarInt(dis);
+                    item.itemOptions.add(new ItemOption(optId, unzigzag(readVarInt(dis))));
+                }
+                if (checkExpiry && ItemService.gI().isOutOfDateTime(item)) {
+                    item = ItemService.gI().createItemNull();
+                }
+                items.add(item);
+            }
+        } catch (Exception e) {
+            Log.error(PlayerDataCodec.class, e, "Lỗi đọc dữ liệu item");
+        }
+        return items;
+    }
+
+    private static List<Item> decodeLegacyItems(String json, boolean checkExpiry) {
+        List<Item> items = new ArrayList<>();
+        try {
+            JSONArray dataArray = (JSONArray) JSONValue.parse(json);
+            for (int i = 0; i < dataArray.size(); i++) {
+                items.add(decodeLegacyItem((JSONObject) dataArray.get(i), checkExpiry));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return items;
+    }
+
+    private static Item decodeLegacyItem(JSONObject data, boolean checkExpiry) {
+        try {
+            short tempId = Short.parseShort(String.valueOf(data.get("temp_id")));
+            if (tempId == -1) {
+                return ItemService.gI().createItemNull();
+            }
+            int quantity = Integer.parseInt(String.valueOf(data.get("quantity")));
+            Item item = ItemService.gI().createNewItem(tempId, quantity);
+            JSONArray options = (JSONArray) data.get("option");
+            if (options != null) {
+                for (int j = 0; j < options.size(); j++) {
+                    JSONArray opt = (JSONArray) options.get(j);
+                    int optId = Integer.parseInt(String.valueOf(opt.get(0)));
+                    int param = Integer.parseInt(String.valueOf(opt.get(1)));
+                    item.itemOptions.add(new ItemOption(optId, param));
+                }
+            }
+            Object createTime = data.get("create_time");
+            if (createTime != null) {
+                item.createTime = Long.parseLong(String.valueOf(createTime));
+            }
+            if (checkExpiry && ItemService.gI().isOutOfDateTime(item)) {
+                return ItemService.gI().createItemNull();
+            }
+            return item;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ItemService.gI().createItemNull();
+        }
+    }
+
+    // ==================== SKILLS ====================
+
+    /**
+     * Encodes the skills column: template id, point and last time used
+     */
+    public static String encodeSkills(List<Skill> skills) {
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(16 + skills.size() * 10);
+            DataOutputStream dos = new DataOutputStream(bos);
+            writeVarInt(dos, skills.size());
+            for (Skill skill : skills) {
+                dos.writeByte(skill.template.id);
+                dos.writeByte(skill.point);
+                dos.writeLong(skill.lastTimeUseThisSkill);
+            }
+            return wrap(bos);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static List<Skill> decodeSkills(String data) throws Exception {
+        List<Skill> skills = new ArrayList<>();
+        if (!isBinary(data)) {
+            JSONArray dataArray = (JSONArray) JSONValue.parse(data);
+            for (int i = 0; i < dataArray.size(); i++) {
+                JSONArray skillTemp = (JSONArray) JSONValue.parse(String.valueOf(dataArray.get(i)));
+                skills.add(createSkill(Integer.parseInt(String.valueOf(skillTemp.get(0))),
+                        Byte.parseByte(String.valueOf(skillTemp.get(2))),
+                        Long.parseLong(String.valueOf(skillTemp.get(1)))));
+            }
+            return skills;
+        }
+        DataInputStream dis = unwrap(data);
+        int size = readVarInt(dis);
+        for (int i = 0; i < size; i++) {
+            int tempId = dis.readByte();
+            byte point = dis.readByte();
+            skills.add(createSkill(tempId, point, dis.readLong()));
+        }
+        return skills;
+    }
+
+    private static Skill createSkill(int tempId, byte point, long lastTimeUse) {
+        Skill skill = point != 0 ? SkillUtil.createSkill(tempId, point) : SkillUtil.createSkillLevel0(tempId);
+        skill.lastTimeUseThisSkill = lastTimeUse;
+        return skill;
+    }
+
+    // ==================== FORMAT ====================
+
+    private static String wrap(ByteArrayOutputStream bos) {
+        byte[] payload = Base64.getEncoder().encode(bos.toByteArray());
+        return PREFIX + new String(payload, StandardCharsets.ISO_8859_1);
+    }
+
+    private static DataInputStream unwrap(String data) throws IOException {
+        int sep = data.indexOf(':');
+        int version = Integer.parseInt(data.substring(1, sep));
+        if (version != VERSION) {
+            throw new IOException("Unsupported player data version " + version);
+        }
+        byte[] payload = Base64.getDecoder().decode(data.substring(sep + 1));
+        return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarInt(DataOutputStream dos, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            dos.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dos.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream dis) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = dis.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -1,7 +1,6 @@
 package nro.jdbc.daos;
 
 import nro.models.item.Item;
-import nro.models.item.ItemOption;
 import nro.models.item.ItemTime;
 import nro.models.player.*;
 import nro.models.clan.Clan;
@@ -34,6 +33,31 @@ import java.util.List;
  */
 public class PlayerLoader {
 
+    /**
+     * Columns of the player row read by the load methods below, a login
+     * selects only these instead of the whole row
+     */
+    private static final String[] COLUMNS = {
+        "id", "name", "head", "gender", "have_tennis_space_ship",
+        "sk_tet", "event_point", "killWhis", "levelKillWhis", "timeKillWhis", "MaBaoVe", "checkNhanQua", "moc_nap",
+        "data_inventory", "dhtime", "dhtime2", "dhtime3", "dhtime4", "dhtime5", "data_location", "data_point",
+        "data_magic_tree", "data_black_ball", "items_body", "items_bag", "items_box", "items_box_lucky_round",
+        "friends", "enemies", "data_intrinsic", "data_item_time", "data_task", "data_side_task", "achivements",
+        "data_mabu_egg", "data_charm", "skills", "skills_shortcut", "collection_book", "firstTimeLogin",
+        "buy_limit", "reward_limit", "challenge", "pet_info", "pet_point", "pet_body", "pet_skill"
+    };
+
+    /**
+     * Select list for the player row, the clan column depends on the server
+     */
+    public static String selectColumns(int serverId) {
+        StringBuilder sb = new StringBuilder();
+        for (String column : COLUMNS) {
+            sb.append('`').append(column).append("`, ");
+        }
+        return sb.append("`clan_id_sv").append(serverId).append('`').toString();
+    }
+
     private final JSONValue jv = new JSONValue();
 
     // ==================== HELPER METHODS ====================
@@ -145,121 +169,18 @@ public class PlayerLoader {
     // ==================== REUSABLE ITEM PARSING ====================
 
     /**
-     * Parse a list of items from JSON string
-     * REUSABLE for: items_body, items_bag, items_box, items_box_lucky_round
+     * Parse a list of items, binary or legacy JSON
+     * REUSABLE for: items_body, items_bag, items_box, pet_body
      */
-    public List<Item> parseItems(String json) {
-        List<Item> items = new ArrayList<>();
-        
-        try {
-            JSONArray dataArray = parseArray(json);
-            
-            for (int i = 0; i < dataArray.size(); i++) {
-                JSONObject itemData = (JSONObject) dataArray.get(i);
-                Item item = parseItem(itemData);
-                items.add(item);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        
-        return items;
-    }
-
-    /**
-     * Parse a single item from JSON object
-     * Handles: temp_id, quantity, options, create_time, expiry check
-     */
-    private Item parseItem(JSONObject data) {
-        try {
-            short tempId = Short.parseShort(String.valueOf(data.get("temp_id")));
-            
-            // Empty item
-            if (tempId == -1) {
-                return ItemService.gI().createItemNull();
-            }
-            
-            // Create item
-            int quantity = Integer.parseInt(String.valueOf(data.get("quantity")));
-            Item item = ItemService.gI().createNewItem(tempId, quantity);
-            
-            // Add item options
-            JSONArray options = (JSONArray) data.get("option");
-            if (options != null) {
-                for (int j = 0; j < options.size(); j++) {
-                    JSONArray opt = (JSONArray) options.get(j);
-                    int optId = Integer.parseInt(String.valueOf(opt.get(0)));
-                    int param = Integer.parseInt(String.valueOf(opt.get(1)));
-                    item.itemOptions.add(new ItemOption(optId, param));
-                }
-            }
-            
-            // Check expiry
-            item.createTime = Long.parseLong(String.valueOf(data.get("create_time")));
-            if (ItemService.gI().isOutOfDateTime(item)) {
-                return ItemService.gI().createItemNull();
-            }
-            
-            return item;
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ItemService.gI().createItemNull();
-        }
+    public List<Item> parseItems(String data) {
+        return PlayerDataCodec.decodeItems(data, true);
     }
 
     /**
      * Parse items for lucky round (no expiry check)
      */
-    public List<Item> parseItemsLuckyRound(String json) {
-        List<Item> items = new ArrayList<>();
-        
-        try {
-            JSONArray dataArray = parseArray(json);
-            
-            for (int i = 0; i < dataArray.size(); i++) {
-                JSONObject itemData = (JSONObject) dataArray.get(i);
-                Item item = parseItemLuckyRound(itemData);
-                items.add(item);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        
-        return items;
-    }
-
-    /**
-     * Parse lucky round item (no create_time, no expiry check)
-     */
-    private Item parseItemLuckyRound(JSONObject data) {
-        try {
-            short tempId = Short.parseShort(String.valueOf(data.get("temp_id")));
-            
-            if (tempId == -1) {
-                return ItemService.gI().createItemNull();
-            }
-            
-            int quantity = Integer.parseInt(String.valueOf(data.get("quantity")));
-            Item item = ItemService.gI().createNewItem(tempId, quantity);
-            
-            // Add options
-            JSONArray options = (JSONArray) data.get("option");
-            if (options != null) {
-                for (int j = 0; j < options.size(); j++) {
-                    JSONArray opt = (JSONArray) options.get(j);
-                    int optId = Integer.parseInt(String.valueOf(opt.get(0)));
-                    int param = Integer.parseInt(String.valueOf(opt.get(1)));
-                    item.itemOptions.add(new ItemOption(optId, param));
-                }
-            }
-            
-            return item;
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ItemService.gI().createItemNull();
-        }
+    public List<Item> parseItemsLuckyRound(String data) {
+        return PlayerDataCodec.decodeItems(data, false);
     }
 
     // ==================== ITEMS LOADING METHODS ====================
@@ -658,23 +579,7 @@ public class PlayerLoader {
      * Load player skills
      */
     public void loadSkills(Player player, ResultSet rs) throws Exception {
-        JSONArray dataArray = parseArray(rs.getString("skills"));
-        
-        for (int i = 0; i < dataArray.size(); i++) {
-            JSONArray skillTemp = (JSONArray) parseArray(String.valueOf(dataArray.get(i)));
-            int tempId = getInt(skillTemp, 0);
-            byte point = getByte(skillTemp, 2);
-            
-            Skill skill = null;
-            if (point != 0) {
-                skill = SkillUtil.createSkill(tempId, point);
-            } else {
-                skill = SkillUtil.createSkillLevel0(tempId);
-            }
-            
-            skill.lastTimeUseThisSkill = getLong(skillTemp, 1);
-            player.playerSkill.skills.add(skill);
-        }
+        player.playerSkill.skills.addAll(PlayerDataCodec.decodeSkills(rs.getString("skills")));
     }
 
     /**
@@ -0,0 +1,56 @@
+package nro.jdbc.daos;
+
+import lombok.Getter;
+
+/**
+ * PlayerSnapshot - the serialized player row, taken on the game thread and
+ * written later by the save queue
+ *
+ * Only the columns flagged in {@code changed} differ from what was last
+ * persisted, the writer leaves the others untouched.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+@Getter
+public class PlayerSnapshot {
+
+    /**
+     * Number of parameters of the player UPDATE, the last one is the id
+     */
+    public static final int COLUMNS = 52;
+
+    private final long playerId;
+    private final int accountId;
+    private final Object[] values;
+    private final long time;
+    private int logoutUserId;
+    private long changed;
+
+    public PlayerSnapshot(long playerId, int accountId, int logoutUserId, Object[] values, long changed) {
+        this.playerId = playerId;
+        this.accountId = accountId;
+        this.logoutUserId = logoutUserId;
+        this.values = values;
+        this.changed = changed;
+        this.time = System.currentTimeMillis();
+    }
+
+    /**
+     * True when there is neither a changed column nor a logout time to write
+     */
+    public boolean isEmpty() {
+        return changed == 0 && logoutUserId < 0;
+    }
+
+    /**
+     * Folds an older snapshot of the same player that was never written into
+     * this one, so its changed columns are not lost
+     */
+    public PlayerSnapshot merge(PlayerSnapshot older) {
+        this.changed |= older.changed;
+        if (this.logoutUserId < 0) {
+            this.logoutUserId = older.logoutUserId;
+        }
+        return this;
+    }
+}
@@ -0,0 +1,111 @@
+package nro.lib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * AliasTable - weighted random pick in constant time (Vose alias method)
+ *
+ * Built once from its weights and never changed afterwards, so one table can
+ * be shared by every thread. A pick costs one random int and one random
+ * double whatever the number of entries; RandomCollection needs a tree
+ * lookup instead. Entries may be null, a pick then returns null.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class AliasTable<E> {
+
+    private final Object[] values;
+    private final double[] prob;
+    private final int[] alias;
+
+    private AliasTable(List<E> values, List<Double> weights) {
+        int n = values.size();
+        this.values = values.toArray();
+        this.prob = new double[n];
+        this.alias = new int[n];
+        double total = 0;
+        for (double w : weights) {
+            total += w;
+        }
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int s = 0, l = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights.get(i) * n / total;
+            if (scaled[i] < 1) {
+                small[s++] = i;
+            } else {
+                large[l++] = i;
+            }
+        }
+        while (s > 0 && l > 0) {
+            int less = small[--s];
+            int more = large[--l];
+            prob[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[s++] = more;
+            } else {
+                large[l++] = more;
+            }
+        }
+        // phan con lai chi lech do sai so lam tron, coi nhu day o
+        while (l > 0) {
+            prob[large[--l]] = 1;
+        }
+        while (s > 0) {
+            prob[small[--s]] = 1;
+        }
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    /**
+     * Picks one entry by weight, null when the table is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E next() {
+        if (values.length == 0) {
+            return null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(values.length);
+        return (E) values[random.nextDouble() < prob[i] ? i : alias[i]];
+    }
+
+    public static <E> Builder<E> builder() {
+        return new Builder<>();
+    }
+
+    public static final class Builder<E> {
+
+        private final List<E> values = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder<E> add(double weight, E value) {
+            if (weight <= 0) {
+                return this;
+            }
+            values.add(value);
+            weights.add(weight);
+            return this;
+        }
+
+        public AliasTable<E> build() {
+            return new AliasTable<>(values, weights);
+        }
+    }
+}
@@ -58,23 +58,20 @@ public class LoginService {
     public void setServer(int serverID, Client client) {
         try {
             // System.out.println("add all users to the login server");
-            List<Session> sessions = client.getSessions();
-            synchronized (sessions) {
-                List<Session> list = sessions.stream().filter((t) -> t.loginSuccess).collect(Collectors.toList());
-                Message ms = new Message(Cmd.SERVER);
-                DataOutputStream ds = ms.writer();
-                ds.writeInt(serverID);
-                ds.writeInt(list.size());
-                for (Session session : list) {
-                    ds.writeInt(session.id);
-                    ds.writeInt(session.userId);
-                    ds.writeUTF(session.uu);
-                    ds.writeUTF(session.pp);
-                }
-                ds.flush();
-                sendMessage(ms);
-                ms.cleanup();
+            List<Session> list = client.getSessions().stream().filter((t) -> t.loginSuccess).collect(Collectors.toList());
+            Message ms = new Message(Cmd.SERVER);
+            DataOutputStream ds = ms.writer();
+            ds.writeInt(serverID);
+            ds.writeInt(list.size());
+            for (Session session : list) {
+                ds.writeInt(session.id);
+                ds.writeInt(session.userId);
+                ds.writeUTF(session.uu);
+                ds.writeUTF(session.pp);
             }
+            ds.flush();
+            sendMessage(ms);
+            ms.cleanup();
 
         } catch (IOException ex) {
             ex.printStackTrace();
@@ -5,12 +5,15 @@ import nro.models.kigui.KiGuiItem;
 import nro.models.kigui.KiGuiShop;
 import nro.models.item.ItemOption;
 import nro.services.ItemService;
+import nro.utils.Log;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONValue;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -36,6 +39,7 @@ public class KiGuiManager {
                 short itemID = rs.getShort("item_id");
                 int quantity = rs.getInt("quantity");
                 KiGuiItem item = ItemService.gI().createNewConsignmentItem(itemID, quantity);
+                item.setConsignID(rs.getInt("id"));
                 item.setConsignorID(rs.getLong("consignor_id"));
                 item.setTab(rs.getByte("tab"));
                 item.setPriceGold(rs.getInt("gold"));
@@ -52,20 +56,38 @@ public class KiGuiManager {
                     item.itemOptions.add(new ItemOption(Integer.parseInt(String.valueOf(opt.get(0))),
                             Integer.parseInt(String.valueOf(opt.get(1)))));
                 }
-                consignmentShop.addItem(item);
+                consignmentShop.loadItem(item);
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    public void close() {
-        try ( Connection con = DBService.gI().getConnection();  PreparedStatement truncateStatement = con.prepareStatement("TRUNCATE consignment_shop");  PreparedStatement insertStatement = con.prepareStatement("INSERT INTO `consignment_shop`(`id`, `consignor_id`, `tab`, `item_id`, `gold`, `gem`, `quantity`, `item_options`, `up_top`, `sold`,`time_consign`,`consignor_name`,`su_kien`) VALUES (?, ? ,?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
-            truncateStatement.executeUpdate();
-            int id = 0;
-            List<KiGuiItem> list = KiGuiShop.getInstance().getList();
-            for (KiGuiItem it : list) {
-                if (it != null) {
+    /**
+     * Writes only the items added, changed or removed since the last save
+     */
+    public void save() {
+        KiGuiShop shop = KiGuiShop.getInstance();
+        List<KiGuiItem> changed = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        shop.drainChanges(changed, deleted);
+        if (changed.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+        try ( Connection con = DBService.gI().getConnection();  PreparedStatement deleteStatement = con.prepareStatement("DELETE FROM `consignment_shop` WHERE `id` = ?");  PreparedStatement insertStatement = con.prepareStatement("INSERT INTO `consignment_shop`(`id`, `consignor_id`, `tab`, `item_id`, `gold`, `gem`, `quantity`, `item_options`, `up_top`, `sold`,`time_consign`,`consignor_name`,`su_kien`) VALUES (?, ? ,?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            con.setAutoCommit(false);
+            try {
+                // item da doi thi xoa dong cu roi ghi lai, khong can biet id co phai khoa chinh hay khong
+                for (KiGuiItem it : changed) {
+                    deleteStatement.setInt(1, it.getConsignID());
+                    deleteStatement.addBatch();
+                }
+                for (Integer id : deleted) {
+                    deleteStatement.setInt(1, id);
+                    deleteStatement.addBatch();
+                }
+                deleteStatement.executeBatch();
+                for (KiGuiItem it : changed) {
                     JSONArray options = new JSONArray();
                     for (ItemOption io : it.itemOptions) {
                         JSONArray option = new JSONArray();
@@ -73,7 +95,7 @@ public class KiGuiManager {
                         option.add(io.param);
                         options.add(option);
                     }
-                    insertStatement.setInt(1, id++);
+                    insertStatement.setInt(1, it.getConsignID());
                     insertStatement.setLong(2, it.getConsignorID());
                     insertStatement.setInt(3, it.getTab());
                     insertStatement.setShort(4, it.template.id);
@@ -88,10 +110,21 @@ public class KiGuiManager {
                     insertStatement.setBoolean(13, it.isSuKien());
                     insertStatement.addBatch();
                 }
+                insertStatement.executeBatch();
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
             }
-            insertStatement.executeBatch();
         } catch (Exception e) {
-            e.printStackTrace();
+            shop.requeueChanges(changed, deleted);
+            Log.error(KiGuiManager.class, e, "Lỗi lưu ký gửi");
         }
     }
+
+    public void close() {
+        save();
+    }
 }
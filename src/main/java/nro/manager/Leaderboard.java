@@ -0,0 +1,116 @@
+package nro.manager;
+
+import nro.models.player.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Leaderboard - bounded in-memory ranking of one top board
+ *
+ * Entries are ranked by a score of one or more longs, compared in order,
+ * higher first. The board keeps a few more entries than it shows, so a player
+ * dropping out of the shown part can be replaced without asking the database.
+ * Online players offer their current score, the database is only read once
+ * at startup to seed the board.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public class Leaderboard {
+
+    private static final int SLACK = 2;
+
+    private final int size;
+    private final int capacity;
+    private final Map<Long, Entry> byId = new HashMap<>();
+    private final TreeSet<Entry> ranked = new TreeSet<>();
+    private volatile List<Player> view = List.of();
+
+    private static final class Entry implements Comparable<Entry> {
+
+        private final long id;
+        private final long[] score;
+        private final Player player;
+
+        private Entry(long id, long[] score, Player player) {
+            this.id = id;
+            this.score = score;
+            this.player = player;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            int c = Arrays.compare(o.score, score);
+            return c != 0 ? c : Long.compare(id, o.id);
+        }
+    }
+
+    public Leaderboard(int size) {
+        this.size = size;
+        this.capacity = size * SLACK;
+    }
+
+    /**
+     * Places or moves a player on the board. The display copy is only built
+     * when the score changed and the player makes it onto the board.
+     */
+    public synchronized void offer(long id, long[] score, Supplier<Player> player) {
+        Entry old = byId.get(id);
+        if (old != null && Arrays.equals(old.score, score)) {
+            return;
+        }
+        if (old == null && ranked.size() >= capacity && Arrays.compare(score, ranked.last().score) <= 0) {
+            return;
+        }
+        if (old != null) {
+            ranked.remove(old);
+        }
+        Entry entry = new Entry(id, score, player.get());
+        byId.put(id, entry);
+        ranked.add(entry);
+        while (ranked.size() > capacity) {
+            byId.remove(ranked.pollLast().id);
+        }
+        publish();
+    }
+
+    public synchronized void remove(long id) {
+        Entry old = byId.remove(id);
+        if (old != null) {
+            ranked.remove(old);
+            publish();
+        }
+    }
+
+    public synchronized void clear() {
+        byId.clear();
+        ranked.clear();
+        publish();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The shown part of the board, best first. The list is never modified.
+     */
+    public List<Player> getList() {
+        return view;
+    }
+
+    private void publish() {
+        List<Player> list = new ArrayList<>(Math.min(size, ranked.size()));
+        Iterator<Entry> it = ranked.iterator();
+        while (it.hasNext() && list.size() < size) {
+            list.add(it.next().player);
+        }
+        this.view = List.copyOf(list);
+    }
+}
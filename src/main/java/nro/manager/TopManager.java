@@ -1,309 +1,205 @@
 package nro.manager;
 
-import lombok.Getter;
 import nro.jdbc.DBService;
-import nro.jdbc.daos.PlayerDAO;
+import nro.jdbc.daos.PlayerDataCodec;
 import nro.models.item.Item;
-import nro.models.item.ItemOption;
 import nro.models.player.Player;
 import nro.services.ItemService;
 import nro.utils.Log;
 import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.sql.Timestamp;
 import java.util.List;
 
+/**
+ * TopManager - the power, task, VND and NangDong boards
+ *
+ * Boards live in memory. They are seeded from the database once by
+ * {@link #init()}, then online players move themselves up and down through
+ * {@link #update(Player)}.
+ */
 public class TopManager {
 
-    @Getter
-    private List<Player> list = new ArrayList<>();
+    private static final int TOP_SIZE = 20;
 
-    @Getter
-    private List<Player> listTask = new ArrayList<>();
+    private final Leaderboard power = new Leaderboard(TOP_SIZE);
+    private final Leaderboard task = new Leaderboard(TOP_SIZE);
+    private final Leaderboard vnd = new Leaderboard(TOP_SIZE);
+    private final Leaderboard nangDong = new Leaderboard(TOP_SIZE);
 
-    @Getter
-    private List<Player> listVnd = new ArrayList<>();
-    
-    @Getter
-    private List<Player> listNangDong = new ArrayList<>();
-    
     private static final TopManager INSTANCE = new TopManager();
 
     public static TopManager getInstance() {
         return INSTANCE;
     }
 
-    public void load() {
-        list.clear();
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        try (Connection con = DBService.gI().getConnectionForGetPlayer();) {
-            ps = con.prepareStatement("SELECT * FROM player ORDER BY player.power DESC LIMIT 20");
-            rs = ps.executeQuery();
-            while (rs.next()) {
-                JSONArray dataArray;
-                JSONObject dataObject = null;
+    public List<Player> getList() {
+        return power.getList();
+    }
 
-                Player player = new Player();
+    public List<Player> getListTask() {
+        return task.getList();
+    }
 
-                player.id = rs.getInt("id");
-                player.name = rs.getString("name");
-                player.head = rs.getShort("head");
-                player.gender = rs.getByte("gender");
+    public List<Player> getListVnd() {
+        return vnd.getList();
+    }
 
-                dataArray = (JSONArray) JSONValue.parse(rs.getString("data_point"));
-                player.nPoint.power = Long.parseLong(dataArray.get(11).toString());
-                dataArray.clear();
+    public List<Player> getListNangDong() {
+        return nangDong.getList();
+    }
 
-                dataArray = (JSONArray) JSONValue.parse(rs.getString("items_body"));
-                for (int i = 0; i < dataArray.size(); i++) {
-                    Item item;
-                    dataObject = (JSONObject) JSONValue.parse(dataArray.get(i).toString());
-                    short tempId = Short.parseShort(String.valueOf(dataObject.get("temp_id")));
-                    if (tempId != -1) {
-                        item = ItemService.gI().createNewItem(tempId, Integer.parseInt(String.valueOf(dataObject.get("quantity"))));
-                        JSONArray options = (JSONArray) JSONValue.parse(String.valueOf(dataObject.get("option")).replaceAll("\"", ""));
-                        for (int j = 0; j < options.size(); j++) {
-                            JSONArray opt = (JSONArray) JSONValue.parse(String.valueOf(options.get(j)));
-                            item.itemOptions.add(new ItemOption(Integer.parseInt(String.valueOf(opt.get(0))),
-                                    Integer.parseInt(String.valueOf(opt.get(1)))));
-                        }
-                        item.createTime = Long.parseLong(String.valueOf(dataObject.get("create_time")));
-                        if (ItemService.gI().isOutOfDateTime(item)) {
-                            item = ItemService.gI().createItemNull();
-                        }
-                    } else {
-                        item = ItemService.gI().createItemNull();
-                    }
-                    player.inventory.itemsBody.add(item);
-                }
-                dataArray.clear();
-                if (dataObject != null) {
-                    dataObject.clear();
-                }
+    /**
+     * Seeds every board from the database, called once at startup
+     */
+    public void init() {
+        load();
+        loadTopNvu();
+        loadTopVnd();
+        loadTopNangDong();
+        TopPowerManager.getInstance().load();
+        TopKillWhisManager.getInstance().load();
+        Log.success("Load bảng xếp hạng thành công");
+    }
 
-                list.add(player);
+    /**
+     * Offers the current score of an online player to every board
+     */
+    public void update(Player player) {
+        if (!player.isPl() || player.isBot || player.getSession() == null) {
+            return;
+        }
+        power.offer(player.id, new long[]{player.nPoint.power}, () -> copy(player));
+        if (player.playerTask != null && player.playerTask.taskMain != null) {
+            task.offer(player.id, new long[]{player.playerTask.taskMain.id, player.playerTask.taskMain.index,
+                player.nPoint.power}, () -> {
+                Player pl = copy(player);
+                pl.topTask = player.playerTask.taskMain.id;
+                return pl;
+            });
+        }
+        int tongnap = player.getSession().tongnap;
+        if (tongnap > 0) {
+            vnd.offer(player.id, new long[]{tongnap}, () -> {
+                Player pl = copy(player);
+                pl.topVnd = tongnap;
+                return pl;
+            });
+        }
+        TopPowerManager.getInstance().update(player);
+        TopKillWhisManager.getInstance().update(player);
+    }
+
+    /**
+     * NangDong is kept on the account, the caller passes the new total
+     */
+    public void updateNangDong(Player player, int value) {
+        nangDong.offer(player.id, new long[]{value}, () -> {
+            Player pl = copy(player);
+            pl.topNangDong = value;
+            return pl;
+        });
+    }
+
+    /**
+     * Display copy of a player for the boards, detached from the live one:
+     * the worn items are copied too, the boards never hold live Item objects
+     */
+    static Player copy(Player source) {
+        Player player = new Player();
+        player.id = source.id;
+        player.name = source.name;
+        player.head = source.head;
+        player.gender = source.gender;
+        player.nPoint.power = source.nPoint.power;
+        for (Item item : source.inventory.itemsBody.toArray(new Item[0])) {
+            player.inventory.itemsBody.add(item != null ? ItemService.gI().copyItem(item) : ItemService.gI().createItemNull());
+        }
+        player.levelKillWhisDone = source.levelKillWhisDone;
+        player.timeKillWhis = source.timeKillWhis;
+        player.lastimelogin = source.lastimelogin != null ? source.lastimelogin
+                : new Timestamp(System.currentTimeMillis());
+        return player;
+    }
+
+    /**
+     * Player with the columns every board shows, from a player row
+     */
+    static Player readPlayer(ResultSet rs) throws SQLException {
+        Player player = new Player();
+        player.id = rs.getInt("id");
+        player.name = rs.getString("name");
+        player.head = rs.getShort("head");
+        player.gender = rs.getByte("gender");
+        player.lastimelogin = rs.getTimestamp("lastimelogin");
+        JSONArray dataArray = (JSONArray) JSONValue.parse(rs.getString("data_point"));
+        player.nPoint.power = Long.parseLong(dataArray.get(11).toString());
+        player.inventory.itemsBody.addAll(PlayerDataCodec.decodeItems(rs.getString("items_body"), true));
+        return player;
+    }
+
+    public void load() {
+        power.clear();
+        try (Connection con = DBService.gI().getConnectionForGetPlayer();
+             PreparedStatement ps = con.prepareStatement("SELECT * FROM player ORDER BY player.power DESC LIMIT " + power.getCapacity());
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Player player = readPlayer(rs);
+                power.offer(player.id, new long[]{player.nPoint.power}, () -> player);
             }
         } catch (Exception e) {
-            Log.error(PlayerDAO.class, e);
-        } finally {
-            try {
-                if (rs != null) {
-                    rs.close();
-                }
-                if (ps != null) {
-                    ps.close();
-                }
-            } catch (SQLException ex) {
-            }
+            Log.error(TopManager.class, e);
         }
     }
 
     public void loadTopNvu() {
-        listTask.clear();
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        try (Connection con = DBService.gI().getConnectionForGetPlayer();) {
-            ps = con.prepareStatement("SELECT *, CAST( split_str(data_task,',',2) AS UNSIGNED) AS nv from player ORDER BY nv DESC, CAST(split_str(data_task,',',3) AS UNSIGNED) DESC, power DESC LIMIT 20;");
-            rs = ps.executeQuery();
+        task.clear();
+        try (Connection con = DBService.gI().getConnectionForGetPlayer();
+             PreparedStatement ps = con.prepareStatement("SELECT *, CAST( split_str(data_task,',',2) AS UNSIGNED) AS nv, CAST(split_str(data_task,',',3) AS UNSIGNED) AS nv_index from player ORDER BY nv DESC, nv_index DESC, power DESC LIMIT " + task.getCapacity());
+             ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                JSONArray dataArray;
-                JSONObject dataObject = null;
-
-                Player player = new Player();
-
-                player.id = rs.getInt("id");
-                player.name = rs.getString("name");
-                player.head = rs.getShort("head");
-                player.gender = rs.getByte("gender");
-                
+                Player player = readPlayer(rs);
                 player.topTask = rs.getByte("nv");
-
-                dataArray = (JSONArray) JSONValue.parse(rs.getString("data_point"));
-                player.nPoint.power = Long.parseLong(dataArray.get(11).toString());
-                dataArray.clear();
-
-                dataArray = (JSONArray) JSONValue.parse(rs.getString("items_body"));
-                for (int i = 0; i < dataArray.size(); i++) {
-                    Item item;
-                    dataObject = (JSONObject) JSONValue.parse(dataArray.get(i).toString());
-                    short tempId = Short.parseShort(String.valueOf(dataObject.get("temp_id")));
-                    if (tempId != -1) {
-                        item = ItemService.gI().createNewItem(tempId, Integer.parseInt(String.valueOf(dataObject.get("quantity"))));
-                        JSONArray options = (JSONArray) JSONValue.parse(String.valueOf(dataObject.get("option")).replaceAll("\"", ""));
-                        for (int j = 0; j < options.size(); j++) {
-                            JSONArray opt = (JSONArray) JSONValue.parse(String.valueOf(options.get(j)));
-                            item.itemOptions.add(new ItemOption(Integer.parseInt(String.valueOf(opt.get(0))),
-                                    Integer.parseInt(String.valueOf(opt.get(1)))));
-                        }
-                        item.createTime = Long.parseLong(String.valueOf(dataObject.get("create_time")));
-                        if (ItemService.gI().isOutOfDateTime(item)) {
-                            item = ItemService.gI().createItemNull();
-                        }
-                    } else {
-                        item = ItemService.gI().createItemNull();
-                    }
-                    player.inventory.itemsBody.add(item);
-                }
-                dataArray.clear();
-                if (dataObject != null) {
-                    dataObject.clear();
-                }
-
-                listTask.add(player);
+                long index = rs.getLong("nv_index");
+                task.offer(player.id, new long[]{player.topTask, index, player.nPoint.power}, () -> player);
             }
         } catch (Exception e) {
-            Log.error(PlayerDAO.class, e);
-        } finally {
-            try {
-                if (rs != null) {
-                    rs.close();
-                }
-                if (ps != null) {
-                    ps.close();
-                }
-            } catch (SQLException ex) {
-            }
+            Log.error(TopManager.class, e);
         }
     }
-     public void loadTopNangDong() {
-        listNangDong.clear();
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        try (Connection con = DBService.gI().getConnectionForGetPlayer();) {
-            ps = con.prepareStatement("SELECT player.*, CAST( account.NangDong AS UNSIGNED) AS NangDong FROM account, player WHERE account.id = player.account_id ORDER BY CAST( NangDong AS UNSIGNED) DESC LIMIT 20;");
-            rs = ps.executeQuery();
-            while (rs.next()) {
-                JSONArray dataArray;
-                JSONObject dataObject = null;
-
-                Player player = new Player();
 
-                player.id = rs.getInt("id");
-                player.name = rs.getString("name");
-                player.head = rs.getShort("head");
-                player.gender = rs.getByte("gender");
-                
+    public void loadTopNangDong() {
+        nangDong.clear();
+        try (Connection con = DBService.gI().getConnectionForGetPlayer();
+             PreparedStatement ps = con.prepareStatement("SELECT player.*, CAST( account.NangDong AS UNSIGNED) AS NangDong FROM account, player WHERE account.id = player.account_id ORDER BY CAST( NangDong AS UNSIGNED) DESC LIMIT " + nangDong.getCapacity());
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Player player = readPlayer(rs);
                 player.topNangDong = rs.getInt("NangDong");
-
-                dataArray = (JSONArray) JSONValue.parse(rs.getString("data_point"));
-                player.nPoint.power = Long.parseLong(dataArray.get(11).toString());
-                dataArray.clear();
-
-                dataArray = (JSONArray) JSONValue.parse(rs.getString("items_body"));
-                for (int i = 0; i < dataArray.size(); i++) {
-                    Item item;
-                    dataObject = (JSONObject) JSONValue.parse(dataArray.get(i).toString());
-                    short tempId = Short.parseShort(String.valueOf(dataObject.get("temp_id")));
-                    if (tempId != -1) {
-                        item = ItemService.gI().createNewItem(tempId, Integer.parseInt(String.valueOf(dataObject.get("quantity"))));
-                        JSONArray options = (JSONArray) JSONValue.parse(String.valueOf(dataObject.get("option")).replaceAll("\"", ""));
-                        for (int j = 0; j < options.size(); j++) {
-                            JSONArray opt = (JSONArray) JSONValue.parse(String.valueOf(options.get(j)));
-                            item.itemOptions.add(new ItemOption(Integer.parseInt(String.valueOf(opt.get(0))),
-                                    Integer.parseInt(String.valueOf(opt.get(1)))));
-                        }
-                        item.createTime = Long.parseLong(String.valueOf(dataObject.get("create_time")));
-                        if (ItemService.gI().isOutOfDateTime(item)) {
-                            item = ItemService.gI().createItemNull();
-                        }
-                    } else {
-                        item = ItemService.gI().createItemNull();
-                    }
-                    player.inventory.itemsBody.add(item);
-                }
-                dataArray.clear();
-                if (dataObject != null) {
-                    dataObject.clear();
-                }
-
-                listNangDong.add(player);
+                nangDong.offer(player.id, new long[]{player.topNangDong}, () -> player);
             }
         } catch (Exception e) {
-            Log.error(PlayerDAO.class, e);
-        } finally {
-            try {
-                if (rs != null) {
-                    rs.close();
-                }
-                if (ps != null) {
-                    ps.close();
-                }
-            } catch (SQLException ex) {
-            }
+            Log.error(TopManager.class, e);
         }
     }
+
     public void loadTopVnd() {
-        listVnd.clear();
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        try (Connection con = DBService.gI().getConnectionForGetPlayer();) {
-            ps = con.prepareStatement("SELECT player.*, CAST( account.tongnap AS UNSIGNED) AS tongnap FROM account, player WHERE account.id = player.account_id ORDER BY CAST( tongnap AS UNSIGNED) DESC LIMIT 20;");
-            rs = ps.executeQuery();
+        vnd.clear();
+        try (Connection con = DBService.gI().getConnectionForGetPlayer();
+             PreparedStatement ps = con.prepareStatement("SELECT player.*, CAST( account.tongnap AS UNSIGNED) AS tongnap FROM account, player WHERE account.id = player.account_id ORDER BY CAST( tongnap AS UNSIGNED) DESC LIMIT " + vnd.getCapacity());
+             ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                JSONArray dataArray;
-                JSONObject dataObject = null;
-
-                Player player = new Player();
-
-                player.id = rs.getInt("id");
-                player.name = rs.getString("name");
-                player.head = rs.getShort("head");
-                player.gender = rs.getByte("gender");
-                
+                Player player = readPlayer(rs);
                 player.topVnd = rs.getInt("tongnap");
-
-                dataArray = (JSONArray) JSONValue.parse(rs.getString("data_point"));
-                player.nPoint.power = Long.parseLong(dataArray.get(11).toString());
-                dataArray.clear();
-
-                dataArray = (JSONArray) JSONValue.parse(rs.getString("items_body"));
-                for (int i = 0; i < dataArray.size(); i++) {
-                    Item item;
-                    dataObject = (JSONObject) JSONValue.parse(dataArray.get(i).toString());
-                    short tempId = Short.parseShort(String.valueOf(dataObject.get("temp_id")));
-                    if (tempId != -1) {
-                        item = ItemService.gI().createNewItem(tempId, Integer.parseInt(String.valueOf(dataObject.get("quantity"))));
-                        JSONArray options = (JSONArray) JSONValue.parse(String.valueOf(dataObject.get("option")).replaceAll("\"", ""));
-                        for (int j = 0; j < options.size(); j++) {
-                            JSONArray opt = (JSONArray) JSONValue.parse(String.valueOf(options.get(j)));
-                            item.itemOptions.add(new ItemOption(Integer.parseInt(String.valueOf(opt.get(0))),
-                                    Integer.parseInt(String.valueOf(opt.get(1)))));
-                        }
-                        item.createTime = Long.parseLong(String.valueOf(dataObject.get("create_time")));
-                        if (ItemService.gI().isOutOfDateTime(item)) {
-                            item = ItemService.gI().createItemNull();
-                        }
-                    } else {
-                        item = ItemService.gI().createItemNull();
-                    }
-                    player.inventory.itemsBody.add(item);
-                }
-                dataArray.clear();
-                if (dataObject != null) {
-                    dataObject.clear();
-                }
-
-                listVnd.add(player);
+                vnd.offer(player.id, new long[]{player.topVnd}, () -> player);
             }
         } catch (Exception e) {
-            Log.error(PlayerDAO.class, e);
-        } finally {
-            try {
-                if (rs != null) {
-                    rs.close();
-                }
-                if (ps != null) {
-                    ps.close();
-                }
-            } catch (SQLException ex) {
-            }
+            Log.error(TopManager.class, e);
         }
     }
 }
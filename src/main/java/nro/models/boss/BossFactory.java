@@ -40,6 +40,7 @@ import nro.models.map.Map;
 import nro.models.map.Zone;
 import nro.models.map.mabu.MabuWar;
 import nro.services.MapService;
+import nro.utils.Util;
 import org.apache.log4j.Logger;
 
 /**
@@ -239,7 +240,7 @@ public class BossFactory {
     }
 
     public static void initBoss() {
-        new Thread(() -> {
+        Util.runThread(() -> {
             try {
                 createBoss(TUAN_LOC_EVENT);
                 createBoss(ONG_GIA_NOEL);
@@ -285,11 +286,11 @@ public class BossFactory {
             } catch (Exception e) {
                 logger.error("Err initboss", e);
             }
-        }).start();
+        }, "init boss");
     }
 
     public static void initBossMabuWar() {
-        new Thread(() -> {
+        Util.runThread(() -> {
             for (short mapid : BossData.DRABULA_TANG1.mapJoin) {
                 Map map = MapService.gI().getMapById(mapid);
                 for (Zone zone : map.zones) {
@@ -339,7 +340,7 @@ public class BossFactory {
                     MabuWar.gI().bosses.add(boss);
                 }
             }
-        }).start();
+        }, "init boss mabu war");
     }
 
     public static Boss createBoss(int bossId) {
@@ -71,6 +71,7 @@ public class Boss_NhanBan extends FutureBoss {
         ItemMap it = new ItemMap(this.zone, 638, 1, this.location.x, this.zone.map.yPhysicInTop(this.location.x,
                 this.location.y - 24), pl.id);
         pl.itemTime.isDanhNhanBan = true;
+        pl.itemTime.scheduleExpiry();
         ItemTimeService.gI().sendItemTime(pl, 2295, 1);
         Service.gI().dropItemMap(this.zone, it);
     }
@@ -153,6 +154,7 @@ public class Boss_NhanBan extends FutureBoss {
         this.effectSkill.isShielding = true;
         this.effectSkill.lastTimeShieldUp = System.currentTimeMillis();
         this.effectSkill.timeShield = 5000;
+        this.effectSkill.scheduleExpiry();
         EffectSkillService.gI().sendEffectPlayer(this, this, EffectSkillService.TURN_ON_EFFECT,
                 EffectSkillService.SHIELD_EFFECT);
         ItemTimeService.gI().sendItemTime(this, 3784, 5000 / 1000);
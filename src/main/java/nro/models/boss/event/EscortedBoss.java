@@ -64,8 +64,7 @@ public abstract class EscortedBoss extends Boss {
         if (!MapService.gI().isMapVS(escort.zone.map.mapId)) {
             this.location.x = escort.location.x + Util.nextInt(-10, 10);
             this.location.y = escort.location.y;
-            MapService.gI().goToMap(this, escort.zone);
-            escort.zone.load_Me_To_Another(this);
+            MapService.gI().goToMap(this, escort.zone, () -> this.zone.load_Me_To_Another(this));
         } else {
             stopEscorting();
         }
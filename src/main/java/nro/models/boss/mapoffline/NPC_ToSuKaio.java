@@ -43,8 +43,7 @@ public class NPC_ToSuKaio extends Player {
     }
 
     public void joinMap(Zone z, Player player) {
-        MapService.gI().goToMap(player, z);
-        z.load_Me_To_Another(player);
+        MapService.gI().goToMap(player, z, () -> z.load_Me_To_Another(player));
     }
 
     @Override
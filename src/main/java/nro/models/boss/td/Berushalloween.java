@@ -80,6 +80,7 @@ public class Berushalloween extends FutureBoss {
             // Bi ngo
             pl.effectSkill.isBiNgo = true;
             pl.effectSkill.lastBiNgo = System.currentTimeMillis();
+            pl.effectSkill.scheduleExpiry();
             Service.gI().Send_Caitrang(pl);
             ItemTimeService.gI().sendAllItemTime(pl);
         }
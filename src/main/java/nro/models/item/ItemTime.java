@@ -2,6 +2,7 @@ package nro.models.item;
 
 import nro.models.player.NPoint;
 import nro.models.player.Player;
+import nro.server.ExpiryTimer;
 import nro.services.ItemTimeService;
 import nro.services.Service;
 import nro.utils.Util;
@@ -95,11 +96,65 @@ public class ItemTime {
     public boolean doneDanhNhanBan = false;
     public long lasttimeDanhNhanBan;
 
+    private final ExpiryTimer expiryTimer = new ExpiryTimer(this::expire);
+
     public ItemTime(Player player) {
         this.player = player;
     }
 
-    public void update() {
+    /**
+     * Registers the earliest expiry of the active items on the timer wheel,
+     * called whenever an item time starts or is extended
+     */
+    public void scheduleExpiry() {
+        expiryTimer.runBy(nextExpiry());
+    }
+
+    private long nextExpiry() {
+        long next = ExpiryTimer.NONE;
+        next = earliest(next, isEatMeal, lastTimeEatMeal, TIME_EAT_MEAL);
+        next = earliest(next, isDanhNhanBan, lasttimeDanhNhanBan, TIME_DANH_NHAN_BAN);
+        next = earliest(next, isUseBoHuyet, lastTimeBoHuyet, TIME_ITEM);
+        next = earliest(next, isUseBoKhi, lastTimeBoKhi, TIME_ITEM);
+        next = earliest(next, isUseGiapXen, lastTimeGiapXen, TIME_ITEM);
+        next = earliest(next, isUseCuongNo, lastTimeCuongNo, TIME_ITEM);
+        next = earliest(next, isUseAnDanh, lastTimeAnDanh, TIME_ITEM);
+        next = earliest(next, isUseLucky, lastTimeLucky, luckyTimeRemaining - 1);
+        next = earliest(next, isUseBuffX5TNSM, lastTimeBuffX5TNSM, buffX5TNSMTimeRemaining - 1);
+        next = earliest(next, isUseBuffX10TNSM, lastTimeBuffX10TNSM, buffX10TNSMTimeRemaining - 1);
+        next = earliest(next, isUseBuffX15TNSM, lastTimeBuffX15TNSM, buffX15TNSMTimeRemaining - 1);
+        next = earliest(next, isUseBanhChung, lastTimeBanhChung, TIME_ITEM);
+        next = earliest(next, isUseBanhTet, lastTimeBanhTet, TIME_ITEM);
+        next = earliest(next, isUseBoHuyet2, lastTimeBoHuyet2, TIME_ITEM);
+        next = earliest(next, isUseBoKhi2, lastTimeBoKhi2, TIME_ITEM);
+        next = earliest(next, isUseGiapXen2, lastTimeGiapXen2, TIME_ITEM);
+        next = earliest(next, isUseCuongNo2, lastTimeCuongNo2, TIME_ITEM);
+        next = earliest(next, isOpenPower, lastTimeOpenPower, TIME_OPEN_POWER);
+        next = earliest(next, isUseMayDo, lastTimeUseMayDo, TIME_MAY_DO);
+        next = earliest(next, isUseTDLT, lastTimeUseTDLT, timeTDLT);
+        return next;
+    }
+
+    // Util.canDoWithTime can dung qua han 1ms
+    private static long earliest(long next, boolean active, long lastTime, long duration) {
+        return active ? Math.min(next, lastTime + duration + 1) : next;
+    }
+
+    private void expire() {
+        Player pl = this.player;
+        if (pl == null || pl.beforeDispose) {
+            return;
+        }
+        if (pl.zone == null || pl.isBan) {
+            // dang chuyen map: thu lai sau 1s
+            expiryTimer.runBy(System.currentTimeMillis() + 1000);
+            return;
+        }
+        checkExpiry();
+        scheduleExpiry();
+    }
+
+    private void checkExpiry() {
         boolean update = false;
         if (isEatMeal) {
             if (Util.canDoWithTime(lastTimeEatMeal, TIME_EAT_MEAL)) {
@@ -248,6 +303,7 @@ public class ItemTime {
     }
 
     public void dispose() {
+        expiryTimer.cancel();
         this.player = null;
     }
 }
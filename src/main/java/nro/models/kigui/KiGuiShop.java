@@ -43,12 +43,37 @@ public class KiGuiShop {
     @Getter
     private List<KiGuiItem> list = new ArrayList<>();
 
+    /**
+     * Items still for sale, one sorted list per tab and shop kind: up top
+     * first, then templates marked isUpToUp, then oldest consignment first
+     */
+    private final List<List<KiGuiItem>> views = new ArrayList<>();
+
+    private static final Comparator<KiGuiItem> ORDER = (a, b) -> {
+        int c = Boolean.compare(b.isUpTop(), a.isUpTop());
+        if (c == 0) {
+            c = Boolean.compare(b.template.isUpToUp, a.template.isUpToUp);
+        }
+        return c != 0 ? c : Integer.compare(a.getConsignID(), b.getConsignID());
+    };
+
+    // thay doi chua ghi xuong db, KiGuiManager.save() lay ra de ghi
+    private final Set<KiGuiItem> changed = new HashSet<>();
+    private final Set<Integer> deleted = new HashSet<>();
+    private int nextConsignID;
+
     private Map<Long, KiGuiItem> mapItemsExpired = new HashMap<>();
 
     public String[] tabName = {"Trang bị", "Phụ kiện", "Hỗ trợ", "Linh tinh", ""};
 
     public String[] tabNameSuKien = {"1", "2", "3", "4", ""};
 
+    private KiGuiShop() {
+        for (int i = 0; i < (tabName.length - 1) * 2; i++) {
+            views.add(new ArrayList<>());
+        }
+    }
+
     public void handler(Player player, Message m) {
         try {
             DataInputStream dis = m.reader();
@@ -121,7 +146,7 @@ public class KiGuiShop {
             }
             player.inventory.subRuby(50);
             Service.getInstance().sendMoney(player);
-            consignmentItem.setUpTop(true);
+            update(consignmentItem, () -> consignmentItem.setUpTop(true));
             Service.getInstance().sendThongBao(player, "Vật phẩm " + consignmentItem.template.name + " của bạn đã up top thành công");
             show(player);
         });
@@ -147,9 +172,23 @@ public class KiGuiShop {
         show(player);
     }
 
+    /**
+     * Item read back from the database, keeps its id and is not saved again
+     */
+    public void loadItem(KiGuiItem item) {
+        synchronized (list) {
+            list.add(item);
+            nextConsignID = Math.max(nextConsignID, item.getConsignID() + 1);
+            index(item);
+        }
+    }
+
     public void addItem(KiGuiItem item) {
         synchronized (list) {
+            item.setConsignID(nextConsignID++);
             list.add(item);
+            index(item);
+            changed.add(item);
         }
     }
 
@@ -159,7 +198,78 @@ public class KiGuiShop {
 
     public void removeItem(KiGuiItem item) {
         synchronized (list) {
-            list.remove(item);
+            if (list.remove(item)) {
+                unindex(item);
+                changed.remove(item);
+                deleted.add(item.getConsignID());
+            }
+        }
+    }
+
+    /**
+     * Applies a change to the sort key or sold state of a listed item
+     */
+    private void update(KiGuiItem item, Runnable change) {
+        synchronized (list) {
+            unindex(item);
+            change.run();
+            if (list.contains(item)) {
+                index(item);
+                changed.add(item);
+            }
+        }
+    }
+
+    private List<KiGuiItem> viewOf(byte tab, boolean suKien) {
+        int i = tab * 2 + (suKien ? 1 : 0);
+        return tab >= 0 && i < views.size() ? views.get(i) : null;
+    }
+
+    private void index(KiGuiItem item) {
+        List<KiGuiItem> view = viewOf(item.getTab(), item.isSuKien());
+        if (view != null && item.getSold() == 0) {
+            int pos = Collections.binarySearch(view, item, ORDER);
+            if (pos < 0) {
+                view.add(-pos - 1, item);
+            }
+        }
+    }
+
+    private void unindex(KiGuiItem item) {
+        List<KiGuiItem> view = viewOf(item.getTab(), item.isSuKien());
+        if (view != null) {
+            int pos = Collections.binarySearch(view, item, ORDER);
+            if (pos >= 0 && view.get(pos) == item) {
+                view.remove(pos);
+            } else {
+                view.remove(item);
+            }
+        }
+    }
+
+    /**
+     * Hands the unsaved changes to the caller and forgets them
+     */
+    public void drainChanges(List<KiGuiItem> changedItems, List<Integer> deletedIds) {
+        synchronized (list) {
+            changedItems.addAll(changed);
+            deletedIds.addAll(deleted);
+            changed.clear();
+            deleted.clear();
+        }
+    }
+
+    /**
+     * Puts back changes that failed to save, unless the item is gone since
+     */
+    public void requeueChanges(List<KiGuiItem> changedItems, List<Integer> deletedIds) {
+        synchronized (list) {
+            for (KiGuiItem item : changedItems) {
+                if (!deleted.contains(item.getConsignID())) {
+                    changed.add(item);
+                }
+            }
+            deleted.addAll(deletedIds);
         }
     }
 
@@ -219,68 +329,21 @@ public class KiGuiShop {
     }
 
     private List<KiGuiItem> getItemConsignByTab(Player player, byte tab, int... max) {
-        if (player.isShopKiGuiSuKien) {
-            List<KiGuiItem> items = new ArrayList<>();
-            List<KiGuiItem> listSort = new ArrayList<>();
-            List<KiGuiItem> listSort2 = new ArrayList<>();
-
-            for (KiGuiItem item : list) {
-                if (item != null && item.getTab() == tab && item.getSold() == 0 && item.isSuKien() == true) {
-                    items.add(item);
-                }
-            }
-
-            Collections.sort(items, (item1, item2) -> Boolean.compare(item2.template.isUpToUp, item1.template.isUpToUp));
-
-            if (max.length == 2) {
-                int startIndex = Math.min(max[0], items.size());
-                int endIndex = Math.min(max[1], items.size());
-                listSort.addAll(items.subList(startIndex, endIndex));
-            } else if (max.length == 1) {
-                int endIndex = Math.min(max[0], items.size());
-                listSort.addAll(items.subList(0, endIndex));
-            } else {
-                listSort.addAll(items);
-            }
-
-            for (KiGuiItem item : listSort) {
-                if (item != null) {
-                    listSort2.add(item);
-                }
-            }
-            return listSort2;
-        } else {
-            List<KiGuiItem> items = new ArrayList<>();
-            List<KiGuiItem> listSort = new ArrayList<>();
-            List<KiGuiItem> listSort2 = new ArrayList<>();
-
-            for (KiGuiItem item : list) {
-                if (item != null && item.getTab() == tab && item.getSold() == 0 && item.isSuKien() == false) {
-                    items.add(item);
-                }
+        synchronized (list) {
+            List<KiGuiItem> view = viewOf(tab, player.isShopKiGuiSuKien);
+            if (view == null) {
+                return new ArrayList<>();
             }
-
-            Collections.sort(items, (item1, item2) -> Boolean.compare(item2.template.isUpToUp, item1.template.isUpToUp));
-
+            int startIndex = 0;
+            int endIndex = view.size();
             if (max.length == 2) {
-                int startIndex = Math.min(max[0], items.size());
-                int endIndex = Math.min(max[1], items.size());
-                listSort.addAll(items.subList(startIndex, endIndex));
+                startIndex = Math.min(max[0], view.size());
+                endIndex = Math.min(max[1], view.size());
             } else if (max.length == 1) {
-                int endIndex = Math.min(max[0], items.size());
-                listSort.addAll(items.subList(0, endIndex));
-            } else {
-                listSort.addAll(items);
+                endIndex = Math.min(max[0], view.size());
             }
-
-            for (KiGuiItem item : listSort) {
-                if (item != null) {
-                    listSort2.add(item);
-                }
-            }
-            return listSort2;
+            return new ArrayList<>(view.subList(startIndex, endIndex));
         }
-
     }
 
     private List<KiGuiItem> getItemCanConsign(Player player) {
@@ -364,7 +427,7 @@ public class KiGuiShop {
                             InventoryService.gI().addItemBag(player, item, 999);
                             InventoryService.gI().sendItemBags(player);
                             Service.getInstance().sendThongBao(player, "Bạn đã mua thành công " + item.getName() + " với giá " + money + " thỏi vàng");
-                            item.setSold(1);
+                            update(item, () -> item.setSold(1));
                             show(player);
                             return;
                         } else {
@@ -412,7 +475,7 @@ public class KiGuiShop {
             ds.writeByte(tab);
             ds.writeByte(maxPage);
             ds.writeByte(page);
-            List<KiGuiItem> list = getItemConsignByTab(player, tab, (byte) (page * 20), (byte) (page * 20 + 20));
+            List<KiGuiItem> list = getItemConsignByTab(player, tab, page * 20, page * 20 + 20);
             for (KiGuiItem item : list) {
                 ds.writeShort(item.template.id);
                 ds.writeShort(item.template.id);
@@ -27,7 +27,7 @@ import nro.models.npc.NpcManager;
  * 
  *
  */
-public class Map implements Runnable {
+public class Map {
 
     public static final byte T_EMPTY = 0;
     public static final byte T_TOP = 2;
@@ -137,22 +137,6 @@ public class Map implements Runnable {
         }
     }
 
-    @Override
-    public void run() {
-        while (true) {
-            try {
-                long st = System.currentTimeMillis();
-                for (Zone zone : this.zones) {
-                    zone.update();
-                }
-                long timeDo = System.currentTimeMillis() - st;
-                Thread.sleep(1000 - timeDo);
-            } catch (Exception e) {
-                // Logger.logException(Map.class, e, "Lỗi update map " + this.mapName);
-            }
-        }
-    }
-
     public void initMob(byte[] mobTemp, byte[] mobLevel, int[] mobHp, short[] mobX, short[] mobY) {
         for (int i = 0; i < mobTemp.length; i++) {
             int mobTempId = mobTemp[i];
@@ -294,26 +278,4 @@ public class Map implements Runnable {
     public void removeZone(Zone z) {
         zones.remove(z);
     }
-
-    /**
-     * Updates all zones in this map during a game loop tick.
-     * Called by GameLoop to synchronize zone updates.
-     */
-    public void update() {
-        try {
-            if (zones != null) {
-                for (Zone zone : zones) {
-                    try {
-                        if (zone != null) {
-                            zone.update();
-                        }
-                    } catch (Exception e) {
-                        nro.utils.Log.error(Map.class, e, "Error updating zone in map: " + this.mapName);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            nro.utils.Log.error(Map.class, e, "Error in map update: " + this.mapName);
-        }
-    }
 }
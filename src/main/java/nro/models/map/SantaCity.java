@@ -7,6 +7,7 @@ package nro.models.map;
 
 import nro.models.mob.Mob;
 import nro.models.player.Player;
+import nro.server.JobScheduler;
 import nro.services.MapService;
 import nro.services.MobService;
 import nro.services.Service;
@@ -16,9 +17,6 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import lombok.Getter;
 
@@ -61,7 +59,6 @@ public class SantaCity extends Map {
 
     private boolean isOpened;
     private boolean isClosed;
-    private ScheduledExecutorService scheduler;
 
     public SantaCity(int mapId, String mapName, byte planetId, byte tileId, byte bgId, byte bgType, byte type,
             int[][] tileMap, int[] tileTop, int zones, boolean isMapOffline, int maxPlayer, List<WayPoint> wayPoints,
@@ -98,11 +95,12 @@ public class SantaCity extends Map {
         if (zone != null) {
             player.location.x = 100;
             player.location.y = 360;
-            MapService.gI().goToMap(player, zone);
-            Service.getInstance().clearMap(player);
-            zone.mapInfo(player);
-            player.zone.loadAnotherToMe(player);
-            player.zone.load_Me_To_Another(player);
+            MapService.gI().goToMap(player, zone, () -> {
+                Service.getInstance().clearMap(player);
+                zone.mapInfo(player);
+                player.zone.loadAnotherToMe(player);
+                player.zone.load_Me_To_Another(player);
+            });
         }
     }
 
@@ -111,11 +109,12 @@ public class SantaCity extends Map {
         if (zone != null) {
             player.location.x = 1060;
             player.location.y = 360;
-            MapService.gI().goToMap(player, zone);
-            Service.getInstance().clearMap(player);
-            zone.mapInfo(player);
-            player.zone.loadAnotherToMe(player);
-            player.zone.load_Me_To_Another(player);
+            MapService.gI().goToMap(player, zone, () -> {
+                Service.getInstance().clearMap(player);
+                zone.mapInfo(player);
+                player.zone.loadAnotherToMe(player);
+                player.zone.load_Me_To_Another(player);
+            });
         }
     }
 
@@ -144,11 +143,8 @@ public class SantaCity extends Map {
      * Khởi động scheduler kiểm tra khung giờ mỗi 30 giây
      */
     public void startScheduler() {
-        if (scheduler != null) {
-            scheduler.shutdown();
-        }
-        scheduler = Executors.newScheduledThreadPool(1);
-        scheduler.scheduleAtFixedRate(this::checkAndUpdateStatus, 0, 30, TimeUnit.SECONDS);
+        // cung ten job nen goi lai se thay the lich cu
+        JobScheduler.gI().register("SantaCity", 0, 30000, JobScheduler.MissedRuns.CATCH_UP, this::checkAndUpdateStatus);
         System.out.println("[SantaCity] Scheduler started - Time ranges: " + getTimeRangesInfo() + " (Vietnam timezone)");
     }
 
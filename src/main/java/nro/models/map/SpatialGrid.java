@@ -0,0 +1,234 @@
+package nro.models.map;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * SpatialGrid - uniform cell buckets over a zone for range queries
+ *
+ * Cells are updated in place: the zone adds and removes entities as they enter
+ * and leave, and reports moves that go through it. Positions written by other
+ * code paths (knockback, teleport skills, mob AI) and lists edited directly
+ * are caught by sync() at the start of the next zone tick, so such an entity
+ * may sit in its old cell, or be missing, for up to one tick. Candidates are
+ * always checked against their current position with squared distances; a
+ * stale cell only matters when the move crossed a cell border beyond the
+ * queried cells.
+ *
+ * Queries take no lock and may run on any thread; writers serialize on the
+ * grid.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public class SpatialGrid<T> {
+
+    public static final int CELL_SIZE = 100;
+
+    private final ToIntFunction<T> x;
+    private final ToIntFunction<T> y;
+    private final Map<T, Slot> slots = new ConcurrentHashMap<>();
+    private volatile Layout<T> layout = new Layout<>(1, 1);
+    private int epoch;
+
+    /**
+     * Cell of a tracked entity and the last sync that saw it
+     */
+    private static final class Slot {
+
+        private int cell = -1;
+        private int epoch;
+    }
+
+    private static final class Layout<T> {
+
+        private final int cols;
+        private final int rows;
+        private final List<Set<T>> cells;
+
+        private Layout(int cols, int rows) {
+            this.cols = cols;
+            this.rows = rows;
+            this.cells = new ArrayList<>(cols * rows);
+            for (int i = 0; i < cols * rows; i++) {
+                cells.add(ConcurrentHashMap.newKeySet());
+            }
+        }
+
+        private int col(int px) {
+            return Math.min(cols - 1, Math.max(0, px / CELL_SIZE));
+        }
+
+        private int row(int py) {
+            return Math.min(rows - 1, Math.max(0, py / CELL_SIZE));
+        }
+    }
+
+    public SpatialGrid(ToIntFunction<T> x, ToIntFunction<T> y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Sizes the cells for a width x height area, entities are re-bucketed only
+     * when the size actually changed
+     */
+    public synchronized void resize(int width, int height) {
+        int cols = Math.max(1, (width + CELL_SIZE - 1) / CELL_SIZE);
+        int rows = Math.max(1, (height + CELL_SIZE - 1) / CELL_SIZE);
+        if (cols == layout.cols && rows == layout.rows) {
+            return;
+        }
+        layout = new Layout<>(cols, rows);
+        for (Map.Entry<T, Slot> e : slots.entrySet()) {
+            e.getValue().cell = -1;
+            place(e.getKey(), e.getValue());
+        }
+    }
+
+    public synchronized void add(T entry) {
+        if (entry == null) {
+            return;
+        }
+        Slot slot = slots.get(entry);
+        if (slot == null) {
+            slot = new Slot();
+            slots.put(entry, slot);
+        }
+        slot.epoch = epoch;
+        place(entry, slot);
+    }
+
+    public synchronized void remove(T entry) {
+        if (entry == null) {
+            return;
+        }
+        Slot slot = slots.remove(entry);
+        if (slot != null && slot.cell >= 0) {
+            layout.cells.get(slot.cell).remove(entry);
+        }
+    }
+
+    /**
+     * Re-buckets an entity after its position changed, untracked entities are
+     * ignored
+     */
+    public synchronized void moved(T entry) {
+        if (entry == null) {
+            return;
+        }
+        Slot slot = slots.get(entry);
+        if (slot != null) {
+            place(entry, slot);
+        }
+    }
+
+    /**
+     * Makes the grid hold exactly the given entities at their current
+     * positions. Only entities that changed cell are touched, the caller holds
+     * the lock of source while this runs.
+     */
+    public synchronized void sync(Collection<T> source) {
+        epoch++;
+        for (T entry : source) {
+            add(entry);
+        }
+        for (Iterator<Map.Entry<T, Slot>> it = slots.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<T, Slot> e = it.next();
+            if (e.getValue().epoch != epoch) {
+                it.remove();
+                if (e.getValue().cell >= 0) {
+                    layout.cells.get(e.getValue().cell).remove(e.getKey());
+                }
+            }
+        }
+    }
+
+    private void place(T entry, Slot slot) {
+        Layout<T> l = this.layout;
+        int cell = l.row(y.applyAsInt(entry)) * l.cols + l.col(x.applyAsInt(entry));
+        if (cell == slot.cell) {
+            return;
+        }
+        // bo o cu truoc: query dong thoi co the lo entity mot lan, khong bao gio thay hai lan
+        if (slot.cell >= 0) {
+            l.cells.get(slot.cell).remove(entry);
+        }
+        l.cells.get(cell).add(entry);
+        slot.cell = cell;
+    }
+
+    /**
+     * Every entity within radius of (px, py) accepted by the filter
+     */
+    public List<T> inRange(int px, int py, int radius, Predicate<T> filter) {
+        List<T> result = new ArrayList<>();
+        Layout<T> l = this.layout;
+        long r2 = (long) radius * radius;
+        int reach = Math.min(radius, (l.cols + l.rows) * CELL_SIZE);
+        int c0 = l.col(px - reach), c1 = l.col(px + reach);
+        int r0 = l.row(py - reach), r1 = l.row(py + reach);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                for (T entry : l.cells.get(r * l.cols + c)) {
+                    if (distanceSq(entry, px, py) <= r2 && filter.test(entry)) {
+                        result.add(entry);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Closest entity within radius of (px, py) accepted by the filter, rings
+     * of cells are searched outwards until nothing closer can exist
+     */
+    public T nearest(int px, int py, int radius, Predicate<T> filter) {
+        Layout<T> l = this.layout;
+        long best = (long) radius * radius;
+        T found = null;
+        int pc = l.col(px), pr = l.row(py);
+        int maxRing = Math.max(l.cols, l.rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // nearest point of this ring is at least (ring - 1) cells away
+            long ringDist = (long) Math.max(0, ring - 1) * CELL_SIZE;
+            if (ringDist * ringDist > best) {
+                break;
+            }
+            for (int r = pr - ring; r <= pr + ring; r++) {
+                if (r < 0 || r >= l.rows) {
+                    continue;
+                }
+                boolean edgeRow = r == pr - ring || r == pr + ring;
+                for (int c = pc - ring; c <= pc + ring; c += edgeRow ? 1 : 2 * ring) {
+                    if (c >= 0 && c < l.cols) {
+                        for (T entry : l.cells.get(r * l.cols + c)) {
+                            long d = distanceSq(entry, px, py);
+                            if (d <= best && filter.test(entry)) {
+                                best = d;
+                                found = entry;
+                            }
+                        }
+                    }
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private long distanceSq(T entry, int px, int py) {
+        long dx = x.applyAsInt(entry) - px;
+        long dy = y.applyAsInt(entry) - py;
+        return dx * dx + dy * dy;
+    }
+}
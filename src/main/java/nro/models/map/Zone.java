@@ -24,6 +24,7 @@ import nro.utils.Util;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static nro.services.func.ChangeMapService.NON_SPACE_SHIP;
@@ -65,6 +66,19 @@ public class Zone {
     public List<TrapMap> trapMaps;
     public byte effDragon = -1;
 
+    // lane of the GameLoop owning this zone, -1 until first scheduled
+    @Getter
+    @Setter
+    private int tickLane = -1;
+    private long lastTickedAt = -1;
+    // no player, boss or referee: mobs and items are not ticked until someone enters
+    @Getter
+    private volatile boolean sleeping;
+    // position buckets for range queries, updated on enter, leave and move; synced
+    // at the start of every tick for positions written outside playerMove
+    private final SpatialGrid<Player> humanoidGrid = new SpatialGrid<>(p -> p.location.x, p -> p.location.y);
+    private final SpatialGrid<Mob> mobGrid = new SpatialGrid<>(m -> m.location.x, m -> m.location.y);
+
     public Zone(Map map, int zoneId, int maxPlayer) {
         this.map = map;
         this.zoneId = zoneId;
@@ -100,6 +114,7 @@ public class Zone {
     public void addMob(Mob mob) {
         mob.id = mobs.size();
         mobs.add(mob);
+        mobGrid.add(mob);
     }
 
     private void updateMob() {
@@ -188,7 +203,36 @@ public class Zone {
         }
     }
 
+    /**
+     * Marks the zone as scheduled for the given tick.
+     *
+     * @return false if the zone was already scheduled on this tick
+     */
+    public boolean markTicked(long tick) {
+        if (lastTickedAt == tick) {
+            return false;
+        }
+        lastTickedAt = tick;
+        return true;
+    }
+
+    /**
+     * A zone may sleep when nobody is in it to see or trigger its timers.
+     * Mob respawn, effect and item expiry timers are wall-clock based, so they
+     * catch up on the first update the owning lane runs after waking; a
+     * humanoid entering only clears the flag.
+     */
+    private boolean canSleep() {
+        return this.humanoids.isEmpty() && this.referee == null;
+    }
+
     public void update() {
+        if (canSleep()) {
+            sleeping = true;
+            return;
+        }
+        sleeping = false;
+        syncGrids();
         updateMob();
         updatePlayer();
         updateItem();
@@ -197,6 +241,40 @@ public class Zone {
         }
     }
 
+    private void syncGrids() {
+        // kich thuoc map chi co sau khi cac zone da tao, resize khong lam gi neu khong doi
+        humanoidGrid.resize(map.mapWidth, map.mapHeight);
+        mobGrid.resize(map.mapWidth, map.mapHeight);
+        synchronized (humanoids) {
+            humanoidGrid.sync(humanoids);
+        }
+        synchronized (mobs) {
+            mobGrid.sync(mobs);
+        }
+    }
+
+    /**
+     * Closest player, pet or boss still in this zone within range of (x, y)
+     */
+    public Player findNearestHumanoid(int x, int y, int range, Predicate<Player> filter) {
+        return humanoidGrid.nearest(x, y, range, pl -> pl.zone == this && filter.test(pl));
+    }
+
+    /**
+     * Players, pets and bosses still in this zone within range of (x, y)
+     */
+    public List<Player> getHumanoidsInRange(int x, int y, int range, Predicate<Player> filter) {
+        return humanoidGrid.inRange(x, y, range, pl -> pl.zone == this && filter.test(pl));
+    }
+
+    public Mob findNearestMob(int x, int y, int range, Predicate<Mob> filter) {
+        return mobGrid.nearest(x, y, range, filter);
+    }
+
+    public List<Mob> getMobsInRange(int x, int y, int range, Predicate<Mob> filter) {
+        return mobGrid.inRange(x, y, range, filter);
+    }
+
     public int getNumOfPlayers() {
         return this.players.size();
     }
@@ -232,10 +310,15 @@ public class Zone {
 
     public void addPlayer(Player player) {
         if (player != null) {
+            // chi bo co ngu: lane so huu zone bat kip mob va item o lan update ke tiep,
+            // khong chay tren thread cua nguoi goi
+            sleeping = false;
             synchronized (humanoids) {
                 if (!this.humanoids.contains(player)) {
                     this.humanoids.add(player);
                 }
+                humanoidGrid.resize(map.mapWidth, map.mapHeight);
+                humanoidGrid.add(player);
             }
             if (!player.isBoss) {
                 synchronized (notBosses) {
@@ -269,7 +352,10 @@ public class Zone {
 
     public void removePlayer(Player player) {
         if (player != null) {
-            this.humanoids.remove(player);
+            synchronized (humanoids) {
+                this.humanoids.remove(player);
+                humanoidGrid.remove(player);
+            }
             if (!player.isBoss) {
                 synchronized (notBosses) {
                     this.notBosses.remove(player);
@@ -926,6 +1012,7 @@ public class Zone {
             }
             player.location.x = x;
             player.location.y = y;
+            humanoidGrid.moved(player);
             switch (map.mapId) {
                 case 85:
                 case 86:
@@ -12,16 +12,11 @@ import java.util.List;
  *
  * @author 💖 ahwuocdz 💖
  */
-public class DungeonManager implements Runnable {
+public class DungeonManager {
 
     private final List<Dungeon> list = new ArrayList<>();
-    private boolean running;
     private int increasement;
 
-    public DungeonManager() {
-        start();
-    }
-
     public int generateID() {
         return increasement++;
     }
@@ -65,28 +60,4 @@ public class DungeonManager implements Runnable {
             list.removeAll(r);
         }
     }
-
-    public void start() {
-        running = true;
-    }
-
-    public void shutdown() {
-        running = false;
-    }
-
-    @Override
-    public void run() {
-        while (running) {
-            long now = System.currentTimeMillis();
-            update();
-            long now2 = System.currentTimeMillis();
-            if (now2 - now < 1000) {
-                try {
-                    Thread.sleep(1000 - (now2 - now));
-                } catch (InterruptedException ex) {
-                    ex.printStackTrace();
-                }
-            }
-        }
-    }
 }
@@ -176,14 +176,10 @@ public class MabuWar {
     }
 
     public void initMabu(Zone zone) {
-        new Thread(() -> {
-            try {
-                Thread.sleep(4000);
-                Boss boss = BossFactory.createBoss(BossFactory.MABU_MAP);
-                boss.zone = zone;
-                bosses.add(boss);
-            } catch (Exception e) {
-            }
-        }).start();
+        Util.setTimeout(() -> {
+            Boss boss = BossFactory.createBoss(BossFactory.MABU_MAP);
+            boss.zone = zone;
+            bosses.add(boss);
+        }, 4000, "init mabu");
     }
 }
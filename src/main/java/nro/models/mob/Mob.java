@@ -12,6 +12,8 @@ import nro.models.map.dungeon.zones.ZSnakeRoad;
 import nro.models.player.Location;
 import nro.models.player.Player;
 import nro.power.CaptionManager;
+import nro.server.TickManager;
+import nro.server.TimerWheel;
 import nro.server.io.Message;
 import nro.services.EffectSkillService;
 import nro.services.Service;
@@ -37,6 +39,7 @@ public class Mob {
     private long maxTiemNang;
 
     public long lastTimeDie;
+    private TimerWheel.Timer respawnTimer;
     public int sieuquai = 0;
 
     public boolean actived;
@@ -155,15 +158,8 @@ public class Mob {
 
     public void update() {
         if (this.isDie()) {
-            if ((zone instanceof ZSnakeRoad)) {
-                return;
-            }
-            if ((zone.map.type == ConstMap.MAP_NORMAL
-                    || zone.map.type == ConstMap.MAP_OFFLINE
-                    || zone.map.type == ConstMap.MAP_BLACK_BALL_WAR) && (tempId != ConstMob.HIRUDEGARN) && Util.canDoWithTime(lastTimeDie, 2000)) {
-                MobService.gI().hoiSinhMob(this);
-            } else if (this.zone.map.type == ConstMap.MAP_DOANH_TRAI && Util.canDoWithTime(lastTimeDie, 10000)) {
-                MobService.gI().hoiSinhMobDoanhTrai(this);
+            if (respawnTimer == null) {
+                scheduleRespawn();
             }
             return;
         } else {
@@ -188,6 +184,51 @@ public class Mob {
         }
     }
 
+    /**
+     * Thoi gian cho hoi sinh theo loai map, -1 neu quai khong tu hoi sinh
+     */
+    private long getRespawnDelay() {
+        if (zone == null || zone instanceof ZSnakeRoad) {
+            return -1;
+        }
+        if ((zone.map.type == ConstMap.MAP_NORMAL
+                || zone.map.type == ConstMap.MAP_OFFLINE
+                || zone.map.type == ConstMap.MAP_BLACK_BALL_WAR) && (tempId != ConstMob.HIRUDEGARN)) {
+            return 2000;
+        } else if (zone.map.type == ConstMap.MAP_DOANH_TRAI) {
+            return 10000;
+        }
+        return -1;
+    }
+
+    /**
+     * Registers the respawn on the timer wheel instead of polling lastTimeDie
+     * every tick. Doanh Trai mobs only come back with their boss, so the check
+     * is retried every second until it succeeds.
+     */
+    private void scheduleRespawn() {
+        long delay = getRespawnDelay();
+        if (delay < 0) {
+            return;
+        }
+        long left = delay - (System.currentTimeMillis() - lastTimeDie);
+        respawnTimer = TimerWheel.gI().schedule(TimerWheel.millisToTicks(left), () -> {
+            respawnTimer = null;
+            // chet lai sau khi hen gio thi update se hen lai theo lastTimeDie moi
+            if (!isDie() || getRespawnDelay() < 0 || !Util.canDoWithTime(lastTimeDie, getRespawnDelay() - 1)) {
+                return;
+            }
+            if (zone.map.type == ConstMap.MAP_DOANH_TRAI) {
+                MobService.gI().hoiSinhMobDoanhTrai(this);
+                if (isDie()) {
+                    respawnTimer = TimerWheel.gI().schedule(TickManager.secondsToTicks(1), () -> respawnTimer = null);
+                }
+            } else {
+                MobService.gI().hoiSinhMob(this);
+            }
+        });
+    }
+
     public void attackPlayer() {
         if (!isDie() && !effectSkill.isHaveEffectSkill() && !(tempId == 0) && !(tempId == 82)) {
             Player pl = getPlayerCanAttack();
@@ -201,24 +242,12 @@ public class Mob {
     }
 
     public Player getPlayerCanAttack() {
-        int distance = 500;
-        Player plAttack = null;
-        distance = 100;
         try {
-            List<Player> players = this.zone.getNotBosses();
-            for (Player pl : players) {
-                if (!pl.isDie() && !pl.isBoss && !pl.effectSkin.isVoHinh && !pl.isMiniPet && !pl.nPoint.buffDefenseSatellite) {
-                    int dis = Util.getDistance(pl, this);
-                    if (dis <= distance) {
-                        plAttack = pl;
-                        distance = dis;
-                    }
-                }
-            }
+            return this.zone.findNearestHumanoid(this.location.x, this.location.y, 100,
+                    pl -> !pl.isDie() && !pl.isBoss && !pl.effectSkin.isVoHinh && !pl.isMiniPet && !pl.nPoint.buffDefenseSatellite);
         } catch (Exception e) {
-
+            return null;
         }
-        return plAttack;
     }
 
     private void addPlayerAttack(Player pl) {
@@ -0,0 +1,166 @@
+package nro.models.mob;
+
+import nro.lib.AliasTable;
+import nro.models.item.ItemReward;
+import nro.models.item.ItemTemplate;
+import nro.server.Registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * MobRewardTable - the drops of one mob template, compiled at load time
+ *
+ * The item rewards are split per map up front: the table of a map holds the
+ * rewards allowed there plus one empty slot weighing as much as the rewards
+ * of other maps, so a kill rolls the same odds as a pick over the whole list
+ * followed by the map check. Genders allowed by each reward are resolved
+ * from the item template once.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class MobRewardTable {
+
+    private static final int ALL_GENDERS = 0b111;
+
+    public final int tempId;
+    private final List<AliasTable<Drop>> itemsByMap;
+    private final AliasTable<Drop> itemsOtherMaps;
+    private final ItemReward[] golds;
+    private final ItemReward[] capsuleKyBi;
+    private final ItemReward[] foods;
+    private final ItemReward[] biKieps;
+
+    /**
+     * One item reward with the genders that may pick it up
+     */
+    public static final class Drop {
+
+        public final ItemReward reward;
+        private final int genders;
+
+        private Drop(ItemReward reward) {
+            this.reward = reward;
+            ItemTemplate template = Registry.getItemTemplate(reward.tempId);
+            if (reward.forAllGender || template == null || template.gender > 2) {
+                this.genders = ALL_GENDERS;
+            } else {
+                this.genders = 1 << template.gender;
+            }
+        }
+
+        public boolean isForGender(int gender) {
+            return gender >= 0 && gender <= 2 && (genders & (1 << gender)) != 0;
+        }
+    }
+
+    public MobRewardTable(MobReward mobReward) {
+        this.tempId = mobReward.tempId;
+        List<Drop> drops = new ArrayList<>();
+        int maxMap = -1;
+        for (ItemReward ir : mobReward.itemRewards) {
+            drops.add(new Drop(ir));
+            if (ir.mapId[0] != -1) {
+                for (int mapId : ir.mapId) {
+                    maxMap = Math.max(maxMap, mapId);
+                }
+            }
+        }
+        this.itemsOtherMaps = compile(drops, -1);
+        this.itemsByMap = new ArrayList<>(Collections.nCopies(maxMap + 1, null));
+        for (Drop drop : drops) {
+            if (drop.reward.mapId[0] == -1) {
+                continue;
+            }
+            for (int mapId : drop.reward.mapId) {
+                if (mapId >= 0 && itemsByMap.get(mapId) == null) {
+                    itemsByMap.set(mapId, compile(drops, mapId));
+                }
+            }
+        }
+        this.golds = mobReward.goldRewards.toArray(new ItemReward[0]);
+        this.capsuleKyBi = mobReward.capsuleKyBi.toArray(new ItemReward[0]);
+        this.foods = mobReward.foods.toArray(new ItemReward[0]);
+        this.biKieps = mobReward.biKieps.toArray(new ItemReward[0]);
+    }
+
+    private static AliasTable<Drop> compile(List<Drop> drops, int mapId) {
+        AliasTable.Builder<Drop> builder = AliasTable.builder();
+        int inMap = 0;
+        for (Drop drop : drops) {
+            if (isInMap(drop.reward, mapId)) {
+                builder.add(1, drop);
+                inMap++;
+            }
+        }
+        // o trong: phan cua cac phan thuong thuoc map khac
+        builder.add(drops.size() - inMap, null);
+        return builder.build();
+    }
+
+    private static boolean isInMap(ItemReward ir, int mapId) {
+        if (ir.mapId[0] == -1) {
+            return true;
+        }
+        for (int id : ir.mapId) {
+            if (id == mapId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Item reward rolled for a kill on this map, null when the roll landed on
+     * a reward of another map or the mob has no item reward
+     */
+    public Drop nextItem(int mapId) {
+        AliasTable<Drop> table = mapId >= 0 && mapId < itemsByMap.size() ? itemsByMap.get(mapId) : null;
+        if (table == null) {
+            table = itemsOtherMaps;
+        }
+        return table.next();
+    }
+
+    public boolean hasItems() {
+        return !itemsOtherMaps.isEmpty();
+    }
+
+    public ItemReward nextGold() {
+        return pick(golds);
+    }
+
+    public ItemReward nextCapsuleKyBi() {
+        return pick(capsuleKyBi);
+    }
+
+    public ItemReward nextFood() {
+        return pick(foods);
+    }
+
+    public ItemReward nextBiKiep() {
+        return pick(biKieps);
+    }
+
+    public boolean hasGold() {
+        return golds.length > 0;
+    }
+
+    public boolean hasCapsuleKyBi() {
+        return capsuleKyBi.length > 0;
+    }
+
+    public boolean hasFood() {
+        return foods.length > 0;
+    }
+
+    public boolean hasBiKiep() {
+        return biKieps.length > 0;
+    }
+
+    private static ItemReward pick(ItemReward[] rewards) {
+        return rewards.length == 0 ? null : rewards[ThreadLocalRandom.current().nextInt(rewards.length)];
+    }
+}
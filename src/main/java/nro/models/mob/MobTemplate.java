@@ -4,7 +4,7 @@
  */
 package nro.models.mob;
 
-import nro.server.Manager;
+import nro.server.Registry;
 
 /**
  *
@@ -26,10 +26,7 @@ public class MobTemplate {
      * Lấy MobTemplate theo id
      */
     public static MobTemplate getById(int mobId) {
-        return Manager.MOB_TEMPLATES.stream()
-                .filter(t -> t.id == mobId)
-                .findFirst()
-                .orElse(null);
+        return Registry.getMobTemplate(mobId);
     }
     
     /**
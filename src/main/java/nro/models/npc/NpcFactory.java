@@ -319,11 +319,12 @@ public class NpcFactory {
                                                 if (zone != null) {
                                                     player.location.x = 100;
                                                     player.location.y = 384;
-                                                    MapService.gI().goToMap(player, zone);
-                                                    Service.getInstance().clearMap(player);
-                                                    zone.mapInfo(player);
-                                                    player.zone.loadAnotherToMe(player);
-                                                    player.zone.load_Me_To_Another(player);
+                                                    MapService.gI().goToMap(player, zone, () -> {
+                                                        Service.getInstance().clearMap(player);
+                                                        zone.mapInfo(player);
+                                                        player.zone.loadAnotherToMe(player);
+                                                        player.zone.load_Me_To_Another(player);
+                                                    });
                                                 }
                                             }
                                         }
@@ -337,11 +338,12 @@ public class NpcFactory {
                                                 if (zone != null) {
                                                     player.location.x = 600;
                                                     player.location.y = 432;
-                                                    MapService.gI().goToMap(player, zone);
-                                                    Service.getInstance().clearMap(player);
-                                                    zone.mapInfo(player);
-                                                    player.zone.loadAnotherToMe(player);
-                                                    player.zone.load_Me_To_Another(player);
+                                                    MapService.gI().goToMap(player, zone, () -> {
+                                                        Service.getInstance().clearMap(player);
+                                                        zone.mapInfo(player);
+                                                        player.zone.loadAnotherToMe(player);
+                                                        player.zone.load_Me_To_Another(player);
+                                                    });
                                                 }
                                             }
                                         }
@@ -3125,6 +3127,7 @@ public class NpcFactory {
                                             if (!player.itemTime.doneDanhNhanBan) {
                                                 player.itemTime.isDanhNhanBan = true;
                                                 player.itemTime.lasttimeDanhNhanBan = System.currentTimeMillis();
+                                                player.itemTime.scheduleExpiry();
 
                                                 ItemTimeService.gI().sendAllItemTime(player);
                                                 List<Skill> skillList = new ArrayList<>();
@@ -6565,9 +6568,9 @@ public class NpcFactory {
                                 break;
                             }
                             case 2: {
-                                new Thread(() -> {
+                                Util.runThread(() -> {
                                     Client.gI().close();
-                                }, "kick all player").start();
+                                }, "kick all player");
 
                                 break;
                             }
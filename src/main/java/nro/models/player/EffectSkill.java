@@ -5,6 +5,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import nro.models.boss.Boss;
 import nro.models.mob.Mob;
+import nro.server.ExpiryTimer;
 import nro.services.EffectSkillService;
 import nro.services.ItemTimeService;
 import nro.services.PlayerService;
@@ -100,10 +101,55 @@ public class EffectSkill {
     public long lastBiNgo;
     // BiNgo
 
+    private final ExpiryTimer expiryTimer = new ExpiryTimer(this::expire);
+
     public EffectSkill(Player player) {
         this.player = player;
     }
 
+    /**
+     * Registers the earliest expiry of the active effects on the timer wheel,
+     * called whenever a timed effect starts
+     */
+    public void scheduleExpiry() {
+        expiryTimer.runBy(nextExpiry());
+    }
+
+    private long nextExpiry() {
+        long next = ExpiryTimer.NONE;
+        next = earliest(next, isBienHinh, lastTimeBienHinh, timeBienHinh);
+        next = earliest(next, isMonkey, lastTimeUpMonkey, timeMonkey);
+        next = earliest(next, isShielding, lastTimeShieldUp, timeShield);
+        next = earliest(next, useTroi, lastTimeTroi, timeTroi);
+        next = earliest(next, isStun, lastTimeStartStun, timeStun);
+        next = earliest(next, isThoiMien, lastTimeThoiMien, timeThoiMien);
+        next = earliest(next, isBlindDCTT, lastTimeBlindDCTT, timeBlindDCTT);
+        next = earliest(next, isSocola, lastTimeSocola, timeSocola);
+        next = earliest(next, isMaPhongBa, lastTimeMaPhongBa, timeMaPhongBa);
+        next = earliest(next, tiLeHPHuytSao != 0, lastTimeHuytSao, 30000);
+        next = earliest(next, isBiNgo, lastBiNgo, 30_000);
+        return next;
+    }
+
+    // Util.canDoWithTime can dung qua han 1ms
+    private static long earliest(long next, boolean active, long lastTime, long duration) {
+        return active ? Math.min(next, lastTime + duration + 1) : next;
+    }
+
+    private void expire() {
+        Player pl = this.player;
+        if (pl == null || pl.beforeDispose) {
+            return;
+        }
+        if (pl.zone == null || pl.isBan) {
+            // dang chuyen map: thu lai sau 1s
+            expiryTimer.runBy(System.currentTimeMillis() + 1000);
+            return;
+        }
+        checkExpiry();
+        scheduleExpiry();
+    }
+
     public void removeSkillEffectWhenDie() {
         if (isMonkey) {
             EffectSkillService.gI().monkeyDown(player);
@@ -129,7 +175,19 @@ public class EffectSkill {
         }
     }
 
+    /**
+     * Only the checks that do not depend on time run every tick, timed
+     * effects end through scheduleExpiry
+     */
     public void update() {
+        if (plAnTroi != null && plAnTroi.isDie()
+                || useTroi && isHaveEffectSkill()) {
+            EffectSkillService.gI().removeUseTroi(this.player);
+        }
+        handleDmgByEffect();
+    }
+
+    private void checkExpiry() {
         if (isBienHinh && (Util.canDoWithTime(lastTimeBienHinh, timeBienHinh))) {
             EffectSkillService.gI().downBienHinh(player);
         }
@@ -139,9 +197,7 @@ public class EffectSkill {
         if (isShielding && (Util.canDoWithTime(lastTimeShieldUp, timeShield))) {
             EffectSkillService.gI().removeShield(player);
         }
-        if (useTroi && Util.canDoWithTime(lastTimeTroi, timeTroi)
-                || plAnTroi != null && plAnTroi.isDie()
-                || useTroi && isHaveEffectSkill()) {
+        if (useTroi && Util.canDoWithTime(lastTimeTroi, timeTroi)) {
             EffectSkillService.gI().removeUseTroi(this.player);
         }
         // if (anTroi && (Util.canDoWithTime(lastTimeAnTroi, timeAnTroi) ||
@@ -176,7 +232,6 @@ public class EffectSkill {
             ItemTimeService.gI().sendAllItemTime(player);
         }
         // BiNgo
-        handleDmgByEffect();
     }
 
     public long lastTimeBurn;
@@ -198,6 +253,7 @@ public class EffectSkill {
     }
 
     public void dispose() {
+        expiryTimer.cancel();
         this.player = null;
     }
 }
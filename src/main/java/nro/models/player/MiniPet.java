@@ -87,8 +87,7 @@ private static final ScheduledExecutorService scheduler = Executors.newScheduled
     }
 
     public void reCall() {
-        MapService.gI().goToMap(this, MapService.gI().getMapCanJoin(this, master.gender + 21));
-        this.zone.load_Me_To_Another(this);
+        MapService.gI().goToMap(this, MapService.gI().getMapCanJoin(this, master.gender + 21), () -> this.zone.load_Me_To_Another(this));
     }
 
     public void joinMapMaster() {
@@ -96,8 +95,7 @@ private static final ScheduledExecutorService scheduler = Executors.newScheduled
             if (!MapService.gI().isMapVS(master.zone.map.mapId)) {
                 this.location.x = master.location.x + Util.nextInt(-10, 10);
                 this.location.y = master.location.y;
-                MapService.gI().goToMap(this, master.zone);
-                this.zone.load_Me_To_Another(this);
+                MapService.gI().goToMap(this, master.zone, () -> this.zone.load_Me_To_Another(this));
             }
         }
     }
@@ -15,6 +15,7 @@ import nro.power.PowerLimit;
 import nro.power.PowerLimitManager;
 import nro.server.Manager;
 import nro.server.ServerManager;
+import nro.server.TimerWheel;
 import nro.services.*;
 import nro.utils.Log;
 import nro.utils.SkillUtil;
@@ -170,6 +171,8 @@ public class NPoint {
     public boolean wearingBlueNoelHat;
     public boolean wearingNoelHat;
 
+    private final StatLedger ledger = new StatLedger();
+
     public NPoint(Player player) {
         this.player = player;
         this.tlHp = new ArrayList<>();
@@ -202,185 +205,70 @@ public class NPoint {
         }
     }
 
-    public void setPoint(ItemOption io) {
-        switch (io.optionTemplate.id) {
-            case 0: // Tấn công +#
-                this.dameAdd += io.param;
-                break;
-            case 2: // HP, KI+#000
-                this.hpAdd += io.param * 1000;
-                this.mpAdd += io.param * 1000;
-                break;
-            case 3: // vô hiệu vả biến st chưởng thành ki
-                this.mstChuong += io.param;
-                break;
-            case 5: // +#% sức đánh chí mạng
-                this.tlDameCrit.add(io.param);
-                break;
-            case 6: // HP+#
-                this.hpAdd += io.param;
-                break;
-            case 7: // KI+#
-                this.mpAdd += io.param;
-                break;
-            case 8: // Hút #% HP, KI xung quanh mỗi 5 giây
-                this.tlHutHpMpXQ += io.param;
-                break;
-            case 14: // Chí mạng+#%
-                this.critAdd += io.param;
-                break;
-            case 19: // Tấn công+#% khi đánh quái
-                this.tlDameAttMob.add(io.param);
-                break;
-            case 22: // HP+#K
-                this.hpAdd += io.param * 1000;
-                break;
-            case 23: // MP+#K
-                this.mpAdd += io.param * 1000;
-                break;
-            case 24:
-                this.wearingBuiBui = true;
-                break;
-            case 25:
-                this.wearingYacon = true;
-                break;
-            case 26:
-                this.wearingDrabula = true;
-                this.player.effectSkin.lastTimeDrabula = System.currentTimeMillis();
-                break;
-            case 29:
-                this.wearingMabu = true;
-                break;
-            case 27: // +# HP/30s
-                this.hpHoiAdd += io.param;
-                break;
-            case 28: // +# KI/30s
-                this.mpHoiAdd += io.param;
-                break;
-            case 33: // dịch chuyển tức thời
-                this.teleport = true;
-                break;
-            case 47: // Giáp+#
-                this.defAdd += io.param;
-                break;
-            case 48: // HP/KI+#
-                this.hpAdd += io.param;
-                this.mpAdd += io.param;
-                break;
-            case 49: // Tấn công+#%
-            case 50: // Sức đánh+#%
-                this.tlDame.add(io.param);
-                break;
-            case 77: // HP+#%
-                this.tlHp.add(io.param);
-                break;
-            case 80: // HP+#%/30s
-                this.tlHpHoi += io.param;
-                break;
-            case 81: // MP+#%/30s
-                this.tlMpHoi += io.param;
-                break;
-            case 88: // Cộng #% exp khi đánh quái
-                this.tlTNSM.add(io.param);
-                break;
-            case 94: // Giáp #%
-                this.tlDef.add(io.param);
-                break;
-            case 95: // Biến #% tấn công thành HP
-                this.tlHutHp += io.param;
-                break;
-            case 96: // Biến #% tấn công thành MP
-                this.tlHutMp += io.param;
-                break;
-            case 97: // Phản #% sát thương
-                this.tlPST += io.param;
-                break;
-            case 100: // +#% vàng từ quái
-                this.tlGold += io.param;
-                break;
-            case 101: // +#% TN,SM
-                this.tlTNSM.add(io.param);
-                break;
-            case 103: // KI +#%
-                this.tlMp.add(io.param);
-                break;
-            case 104: // Biến #% tấn công quái thành HP
-                this.tlHutHpMob += io.param;
-                break;
-            // case 105: //Vô hình khi không đánh quái và boss
-            // this.wearingVoHinh = true;
-            // break;
-            case 106: // Không ảnh hưởng bởi cái lạnh
-                this.isKhongLanh = true;
-                break;
-            case 108: // #% Né đòn
-                this.tlNeDon += io.param;
-                break;
-            case 109: // Hôi, giảm #% HP
-                this.tlHpGiamODo += io.param;
-                break;
-            case 114:
-                this.tlSpeed.add(io.param);
-                break;
-            case 117: // Đẹp +#% SĐ cho mình và người xung quanh
-                this.tlSDDep.add(io.param);
-                break;
-            case 147: // +#% sức đánh
-                this.tlDame.add(io.param);
-                break;
-            case 156: // Giảm 50% sức đánh, HP, KI và +#% SM, TN, vàng từ quái
-                this.tlSubSD += 50;
-                this.tlTNSM.add(io.param);
-                this.tlGold += io.param;
-                break;
-            case 160:
-                this.tlTNSMPet += io.param;
-                break;
-            case 162: // Cute hồi #% KI/s bản thân và xung quanh
-                this.mpHoiCute += io.param;
-                break;
-            case 173: // Phục hồi #% HP và KI cho đồng đội
-                this.tlHpHoiBanThanVaDongDoi += io.param;
-                this.tlMpHoiBanThanVaDongDoi += io.param;
-                break;
-            case 189:
-                this.wearingNezuko = true;
-                break;
-            case 190:
-                this.wearingTanjiro = true;
-                break;
-            case 191:
-                this.wearingInoHashi = true;
-                break;
-            case 192:
-                this.wearingInosuke = true;
-                break;
-            case 193:
-                this.wearingZenitsu = true;
-                break;
-            case 194:
-                this.tlDameChuong = 3;
-                break;
-            case 195:
-                this.tlDameChuong = 4;
-                break;
+    /**
+     * Adds the cached modifiers of one source to the stats
+     */
+    private void apply(StatLedger.Modifiers m) {
+        this.hpAdd += m.hpAdd;
+        this.mpAdd += m.mpAdd;
+        this.dameAdd += m.dameAdd;
+        this.defAdd += m.defAdd;
+        this.critAdd += m.critAdd;
+        this.hpHoiAdd += m.hpHoiAdd;
+        this.mpHoiAdd += m.mpHoiAdd;
+        this.mstChuong += m.mstChuong;
+        this.mpHoiCute += m.mpHoiCute;
+        this.tlTNSMPet += m.tlTNSMPet;
+        if (m.tlDameChuong != 0) {
+            this.tlDameChuong = m.tlDameChuong;
+        }
+        this.tlHpHoi += m.tlHpHoi;
+        this.tlMpHoi += m.tlMpHoi;
+        this.tlHpHoiBanThanVaDongDoi += m.tlHpHoiBanThanVaDongDoi;
+        this.tlMpHoiBanThanVaDongDoi += m.tlMpHoiBanThanVaDongDoi;
+        this.tlHutHp += m.tlHutHp;
+        this.tlHutMp += m.tlHutMp;
+        this.tlHutHpMob += m.tlHutHpMob;
+        this.tlHutHpMpXQ += m.tlHutHpMpXQ;
+        this.tlPST += m.tlPST;
+        this.tlGold += m.tlGold;
+        this.tlNeDon += m.tlNeDon;
+        this.tlSubSD += m.tlSubSD;
+        this.tlHpGiamODo += m.tlHpGiamODo;
+        this.tlHp.addAll(m.tlHp);
+        this.tlMp.addAll(m.tlMp);
+        this.tlDef.addAll(m.tlDef);
+        this.tlDame.addAll(m.tlDame);
+        this.tlDameAttMob.addAll(m.tlDameAttMob);
+        this.tlDameCrit.addAll(m.tlDameCrit);
+        this.tlTNSM.addAll(m.tlTNSM);
+        this.tlSDDep.addAll(m.tlSDDep);
+        this.tlSpeed.addAll(m.tlSpeed);
+        this.teleport |= m.teleport;
+        this.isKhongLanh |= m.isKhongLanh;
+        this.wearingBuiBui |= m.wearingBuiBui;
+        this.wearingYacon |= m.wearingYacon;
+        this.wearingMabu |= m.wearingMabu;
+        this.wearingNezuko |= m.wearingNezuko;
+        this.wearingTanjiro |= m.wearingTanjiro;
+        this.wearingInoHashi |= m.wearingInoHashi;
+        this.wearingInosuke |= m.wearingInosuke;
+        this.wearingZenitsu |= m.wearingZenitsu;
+        if (m.wearingDrabula) {
+            this.wearingDrabula = true;
+            this.player.effectSkin.lastTimeDrabula = System.currentTimeMillis();
         }
     }
 
     private void setPointWhenWearClothes() {
         resetPoint();
-        for (Item item : this.player.inventory.itemsBody) {
+        List<Item> itemsBody = player.inventory.itemsBody;
+        for (int i = 0; i < itemsBody.size(); i++) {
+            Item item = itemsBody.get(i);
             if (item.isNotNullItem()) {
-                int tempID = item.template.id;
-                if (tempID >= 592 && tempID <= 594) {
-                    teleport = true;
-                }
-                for (ItemOption io : item.itemOptions) {
-                    setPoint(io);
-                }
+                apply(ledger.modifiers(StatLedger.BODY + i, item, StatLedger.key(item), m -> m.addItem(item)));
             }
         }
-        List<Item> itemsBody = player.inventory.itemsBody;
         if (Manager.EVENT_SEVER == 3) {
             if (!this.player.isBoss && !this.player.isMiniPet) {
                 if (itemsBody.get(5).isNotNullItem()) {
@@ -418,17 +306,7 @@ public class NPoint {
         if (book != null) {
             List<Card> cards = book.getCards();
             if (cards != null) {
-                for (Card c : cards) {
-                    if (c.getLevel() > 0) {
-                        int index = 0;
-                        for (ItemOption o : c.getCardTemplate().getOptions()) {
-                            if ((index == 0 || c.isUse()) && c.getLevel() >= o.activeCard) {
-                                setPoint(o);
-                            }
-                            index++;
-                        }
-                    }
-                }
+                apply(ledger.modifiers(StatLedger.CARDS, cards, StatLedger.key(cards), m -> m.addCards(cards)));
             }
         }
 
@@ -495,7 +373,8 @@ public class NPoint {
             return;
         }
         
-        applyItemOptions(bonusItem);
+        apply(ledger.modifiers(StatLedger.PORATA, bonusItem, StatLedger.key(bonusItem),
+                m -> m.addPorata(bonusItem)));
     }
     
     private boolean isValidPlayerForBonus() {
@@ -525,37 +404,6 @@ public class NPoint {
         return false;
     }
     
-    private void applyItemOptions(Item item) {
-        for (ItemOption io : item.itemOptions) {
-            switch (io.optionTemplate.id) {
-                case 14:  // Chí mạng +#%
-                    this.critAdd += io.param;
-                    break;
-                case 50:  // Sức đánh +#%
-                    this.tlDame.add(io.param);
-                    break;
-                case 77:  // HP +#%
-                    this.tlHp.add(io.param);
-                    break;
-                case 80:  // HP hồi +#%/30s
-                    this.tlHpHoi += io.param;
-                    break;
-                case 81:  // MP hồi +#%/30s
-                    this.tlMpHoi += io.param;
-                    break;
-                case 94:  // Giáp +#%
-                    this.tlDef.add(io.param);
-                    break;
-                case 103: // KI +#%
-                    this.tlMp.add(io.param);
-                    break;
-                case 108: // Né đòn +#%
-                    this.tlNeDon += io.param;
-                    break;
-            }
-        }
-    }
-
     /**
      * Lấy % bonus Porata cho đệ VIP (HP, MP, Dame dùng chung)
      */
@@ -1485,8 +1333,8 @@ public class NPoint {
     }
 
     // --------------------------------------------------------------------------
-    private long lastTimeHoiPhuc;
-    private long lastTimeHoiStamina;
+    private TimerWheel.Timer hoiPhucTimer;
+    private TimerWheel.Timer hoiStaminaTimer;
 
     public void update() {
         if (player != null && player.effectSkill != null) {
@@ -1506,20 +1354,46 @@ public class NPoint {
                     EffectSkillService.gI().stopCharge(player);
                 }
             }
-            if (Util.canDoWithTime(lastTimeHoiPhuc, 30000)) {
-                PlayerService.gI().hoiPhuc(this.player, hpHoi, mpHoi);
-                this.lastTimeHoiPhuc = System.currentTimeMillis();
+            if (hoiPhucTimer == null) {
+                hoiPhucTimer = TimerWheel.gI().scheduleAtFixedRate(0, TimerWheel.millisToTicks(30000), this::hoiPhuc);
             }
-            if (Util.canDoWithTime(lastTimeHoiStamina, 60000) && this.stamina < this.maxStamina) {
-                this.stamina++;
-                this.lastTimeHoiStamina = System.currentTimeMillis();
-                if (!this.player.isBoss && !this.player.isPet) {
-                    PlayerService.gI().sendCurrentStamina(this.player);
-                }
+            if (hoiStaminaTimer == null) {
+                hoiStaminaTimer = TimerWheel.gI().scheduleAtFixedRate(0, TimerWheel.millisToTicks(60000), this::hoiStamina);
+            }
+        }
+    }
+
+    /**
+     * Timers stop once the player left the world, update() starts them again
+     * when it comes back
+     */
+    private boolean isInWorld() {
+        return player != null && !player.beforeDispose && player.zone != null;
+    }
+
+    // hồi phục 30s
+    private void hoiPhuc() {
+        if (!isInWorld()) {
+            hoiPhucTimer.cancel();
+            hoiPhucTimer = null;
+            return;
+        }
+        PlayerService.gI().hoiPhuc(this.player, hpHoi, mpHoi);
+    }
+
+    // hồi phục thể lực
+    private void hoiStamina() {
+        if (!isInWorld()) {
+            hoiStaminaTimer.cancel();
+            hoiStaminaTimer = null;
+            return;
+        }
+        if (this.stamina < this.maxStamina) {
+            this.stamina++;
+            if (!this.player.isBoss && !this.player.isPet) {
+                PlayerService.gI().sendCurrentStamina(this.player);
             }
         }
-        // hồi phục 30s
-        // hồi phục thể lực
     }
 
     private void setBasePoint() {
@@ -1583,6 +1457,12 @@ public class NPoint {
     }
 
     public void dispose() {
+        if (hoiPhucTimer != null) {
+            hoiPhucTimer.cancel();
+        }
+        if (hoiStaminaTimer != null) {
+            hoiStaminaTimer.cancel();
+        }
         this.intrinsic = null;
         this.player = null;
         this.tlHp = null;
@@ -164,12 +164,10 @@ public class Pet extends Player {
             if (status != GOHOME && status != FUSION && !isDie()) {
                 this.location.x = master.location.x + Util.nextInt(-10, 10);
                 this.location.y = master.location.y;
-                MapService.gI().goToMap(this, master.zone);
-                this.zone.load_Me_To_Another(this);
+                MapService.gI().goToMap(this, master.zone, () -> this.zone.load_Me_To_Another(this));
             }
         } else {
-            MapService.gI().goToMap(this, MapService.gI().getMapCanJoin(this, master.gender + 39));
-            this.zone.load_Me_To_Another(this);
+            MapService.gI().goToMap(this, MapService.gI().getMapCanJoin(this, master.gender + 39), () -> this.zone.load_Me_To_Another(this));
         }
     }
 
@@ -178,17 +176,12 @@ public class Pet extends Player {
             return;
         }
         goingHome = true;
-        new Thread(() -> {
-            try {
-                Pet.this.status = Pet.ATTACK;
-                Thread.sleep(2000);
-            } catch (Exception e) {
-            }
-            MapService.gI().goToMap(this, MapService.gI().getMapCanJoin(this, master.gender + 21));
-            this.zone.load_Me_To_Another(this);
+        Pet.this.status = Pet.ATTACK;
+        Util.setTimeout(() -> {
+            MapService.gI().goToMap(this, MapService.gI().getMapCanJoin(this, master.gender + 21), () -> this.zone.load_Me_To_Another(this));
             Pet.this.status = Pet.GOHOME;
             goingHome = false;
-        }).start();
+        }, 2000, "pet go home");
     }
 
     private String getTextStatus(byte status) {
@@ -9,6 +9,7 @@ import nro.consts.ConstPlayer;
 import nro.consts.ConstTask;
 import nro.data.DataGame;
 import nro.dialog.ConfirmDialog;
+import nro.manager.TopManager;
 import nro.models.clan.Buff;
 import nro.models.item.CaiTrang;
 import nro.models.item.FlagBag;
@@ -225,6 +226,8 @@ public class Player {
 
     protected boolean actived = false;
     public boolean loaded;
+    // gia tri cac cot da luu lan truoc, save chi ghi nhung cot khac di
+    public Object[] lastSaved;
 
     public long id;
     public String name;
@@ -508,9 +511,6 @@ public class Player {
                     if (magicTree != null) {
                         magicTree.update();
                     }
-                    if (itemTime != null) {
-                        itemTime.update();
-                    }
                     if (event != null) {
                         event.update();
                     }
@@ -534,6 +534,7 @@ public class Player {
                         doneTask_HoatDong_ChamChi();
                         send_text_time_nhiem_vu();
                         send_text_time_nhan_bua_mien_phi();
+                        updateTop();
                         checkDoneBDKBSom();
                         checkDoneKhiGasSom();
                     }
@@ -609,6 +610,15 @@ public class Player {
 
     public long lastTimeSendTextTime;
 
+    public long lastTimeUpdateTop;
+
+    public void updateTop() {
+        if (Util.canDoWithTime(lastTimeUpdateTop, 60000)) {
+            TopManager.getInstance().update(this);
+            lastTimeUpdateTop = System.currentTimeMillis();
+        }
+    }
+
     public void send_text_time_nhiem_vu() {
         if (this.playerTask.sideTask.template != null) {
             if (Util.canDoWithTime(lastimelogin3, 60000)) {
@@ -0,0 +1,316 @@
+package nro.models.player;
+
+import nro.card.Card;
+import nro.models.item.Item;
+import nro.models.item.ItemOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * StatLedger - stat modifiers of a player, cached per source
+ *
+ * A source is one body slot, the collection book or the Porata bonus item.
+ * Its modifiers are only rebuilt from the item options when the source
+ * changed: another item, or different option ids and params. The key of a
+ * source lists those ids and params as they are and is compared exactly, a
+ * hash could match after an upgrade and keep stale stats. NPoint sums the
+ * cached modifiers in source order, so the percentage lists come out in the
+ * same order as when every option was walked.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+final class StatLedger {
+
+    static final int CARDS = 0;
+    static final int PORATA = 1;
+    static final int BODY = 2;
+
+    private Entry[] entries = new Entry[BODY + 11];
+
+    private static final class Entry {
+
+        private final Object owner;
+        private final int[] key;
+        private final Modifiers modifiers;
+
+        private Entry(Object owner, int[] key, Modifiers modifiers) {
+            this.owner = owner;
+            this.key = key;
+            this.modifiers = modifiers;
+        }
+    }
+
+    /**
+     * Modifiers of a source, rebuilt with fill only when owner or key differ
+     * from the cached ones
+     */
+    Modifiers modifiers(int source, Object owner, int[] key, Consumer<Modifiers> fill) {
+        if (source >= entries.length) {
+            entries = Arrays.copyOf(entries, source + 1);
+        }
+        Entry entry = entries[source];
+        if (entry != null && entry.owner == owner && Arrays.equals(entry.key, key)) {
+            return entry.modifiers;
+        }
+        Modifiers modifiers = new Modifiers();
+        fill.accept(modifiers);
+        entries[source] = new Entry(owner, key, modifiers);
+        return modifiers;
+    }
+
+    /**
+     * Template id, then id and param of every option
+     */
+    static int[] key(Item item) {
+        int[] key = new int[1 + item.itemOptions.size() * 2];
+        key[0] = item.template.id;
+        int i = 1;
+        for (ItemOption io : item.itemOptions) {
+            key[i++] = io.optionTemplate.id;
+            key[i++] = io.param;
+        }
+        return key;
+    }
+
+    /**
+     * Id, level and use flag of every card
+     */
+    static int[] key(List<Card> cards) {
+        int[] key = new int[cards.size() * 3];
+        int i = 0;
+        for (Card c : cards) {
+            key[i++] = c.getId();
+            key[i++] = c.getLevel();
+            key[i++] = c.isUse() ? 1 : 0;
+        }
+        return key;
+    }
+
+    /**
+     * Everything one source adds, mirrors the accumulators of NPoint
+     */
+    static final class Modifiers {
+
+        int hpAdd, mpAdd, dameAdd, defAdd, critAdd, hpHoiAdd, mpHoiAdd;
+        int mstChuong, mpHoiCute, tlTNSMPet, tlDameChuong;
+        int tlHpHoi, tlMpHoi, tlHpHoiBanThanVaDongDoi, tlMpHoiBanThanVaDongDoi;
+        int tlHutHp, tlHutMp, tlHutHpMob, tlHutHpMpXQ, tlPST, tlGold, tlNeDon, tlSubSD, tlHpGiamODo;
+        final List<Integer> tlHp = new ArrayList<>(), tlMp = new ArrayList<>(), tlDef = new ArrayList<>();
+        final List<Integer> tlDame = new ArrayList<>(), tlDameAttMob = new ArrayList<>(), tlDameCrit = new ArrayList<>();
+        final List<Integer> tlTNSM = new ArrayList<>(), tlSDDep = new ArrayList<>(), tlSpeed = new ArrayList<>();
+        boolean teleport, isKhongLanh;
+        boolean wearingBuiBui, wearingYacon, wearingDrabula, wearingMabu;
+        boolean wearingNezuko, wearingTanjiro, wearingInoHashi, wearingInosuke, wearingZenitsu;
+
+        void addItem(Item item) {
+            int tempID = item.template.id;
+            if (tempID >= 592 && tempID <= 594) {
+                teleport = true;
+            }
+            for (ItemOption io : item.itemOptions) {
+                add(io);
+            }
+        }
+
+        void addCards(List<Card> cards) {
+            for (Card c : cards) {
+                if (c.getLevel() > 0) {
+                    int index = 0;
+                    for (ItemOption o : c.getCardTemplate().getOptions()) {
+                        if ((index == 0 || c.isUse()) && c.getLevel() >= o.activeCard) {
+                            add(o);
+                        }
+                        index++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Only the options the Porata bonus item lends while fused
+         */
+        void addPorata(Item item) {
+            for (ItemOption io : item.itemOptions) {
+                switch (io.optionTemplate.id) {
+                    case 14:  // Chí mạng +#%
+                    case 50:  // Sức đánh +#%
+                    case 77:  // HP +#%
+                    case 80:  // HP hồi +#%/30s
+                    case 81:  // MP hồi +#%/30s
+                    case 94:  // Giáp +#%
+                    case 103: // KI +#%
+                    case 108: // Né đòn +#%
+                        add(io);
+                        break;
+                }
+            }
+        }
+
+        void add(ItemOption io) {
+            switch (io.optionTemplate.id) {
+                case 0: // Tấn công +#
+                    this.dameAdd += io.param;
+                    break;
+                case 2: // HP, KI+#000
+                    this.hpAdd += io.param * 1000;
+                    this.mpAdd += io.param * 1000;
+                    break;
+                case 3: // vô hiệu vả biến st chưởng thành ki
+                    this.mstChuong += io.param;
+                    break;
+                case 5: // +#% sức đánh chí mạng
+                    this.tlDameCrit.add(io.param);
+                    break;
+                case 6: // HP+#
+                    this.hpAdd += io.param;
+                    break;
+                case 7: // KI+#
+                    this.mpAdd += io.param;
+                    break;
+                case 8: // Hút #% HP, KI xung quanh mỗi 5 giây
+                    this.tlHutHpMpXQ += io.param;
+                    break;
+                case 14: // Chí mạng+#%
+                    this.critAdd += io.param;
+                    break;
+                case 19: // Tấn công+#% khi đánh quái
+                    this.tlDameAttMob.add(io.param);
+                    break;
+                case 22: // HP+#K
+                    this.hpAdd += io.param * 1000;
+                    break;
+                case 23: // MP+#K
+                    this.mpAdd += io.param * 1000;
+                    break;
+                case 24:
+                    this.wearingBuiBui = true;
+                    break;
+                case 25:
+                    this.wearingYacon = true;
+                    break;
+                case 26:
+                    this.wearingDrabula = true;
+                    break;
+                case 29:
+                    this.wearingMabu = true;
+                    break;
+                case 27: // +# HP/30s
+                    this.hpHoiAdd += io.param;
+                    break;
+                case 28: // +# KI/30s
+                    this.mpHoiAdd += io.param;
+                    break;
+                case 33: // dịch chuyển tức thời
+                    this.teleport = true;
+                    break;
+                case 47: // Giáp+#
+                    this.defAdd += io.param;
+                    break;
+                case 48: // HP/KI+#
+                    this.hpAdd += io.param;
+                    this.mpAdd += io.param;
+                    break;
+                case 49: // Tấn công+#%
+                case 50: // Sức đánh+#%
+                    this.tlDame.add(io.param);
+                    break;
+                case 77: // HP+#%
+                    this.tlHp.add(io.param);
+                    break;
+                case 80: // HP+#%/30s
+                    this.tlHpHoi += io.param;
+                    break;
+                case 81: // MP+#%/30s
+                    this.tlMpHoi += io.param;
+                    break;
+                case 88: // Cộng #% exp khi đánh quái
+                    this.tlTNSM.add(io.param);
+                    break;
+                case 94: // Giáp #%
+                    this.tlDef.add(io.param);
+                    break;
+                case 95: // Biến #% tấn công thành HP
+                    this.tlHutHp += io.param;
+                    break;
+                case 96: // Biến #% tấn công thành MP
+                    this.tlHutMp += io.param;
+                    break;
+                case 97: // Phản #% sát thương
+                    this.tlPST += io.param;
+                    break;
+                case 100: // +#% vàng từ quái
+                    this.tlGold += io.param;
+                    break;
+                case 101: // +#% TN,SM
+                    this.tlTNSM.add(io.param);
+                    break;
+                case 103: // KI +#%
+                    this.tlMp.add(io.param);
+                    break;
+                case 104: // Biến #% tấn công quái thành HP
+                    this.tlHutHpMob += io.param;
+                    break;
+                // case 105: //Vô hình khi không đánh quái và boss
+                // this.wearingVoHinh = true;
+                // break;
+                case 106: // Không ảnh hưởng bởi cái lạnh
+                    this.isKhongLanh = true;
+                    break;
+                case 108: // #% Né đòn
+                    this.tlNeDon += io.param;
+                    break;
+                case 109: // Hôi, giảm #% HP
+                    this.tlHpGiamODo += io.param;
+                    break;
+                case 114:
+                    this.tlSpeed.add(io.param);
+                    break;
+                case 117: // Đẹp +#% SĐ cho mình và người xung quanh
+                    this.tlSDDep.add(io.param);
+                    break;
+                case 147: // +#% sức đánh
+                    this.tlDame.add(io.param);
+                    break;
+                case 156: // Giảm 50% sức đánh, HP, KI và +#% SM, TN, vàng từ quái
+                    this.tlSubSD += 50;
+                    this.tlTNSM.add(io.param);
+                    this.tlGold += io.param;
+                    break;
+                case 160:
+                    this.tlTNSMPet += io.param;
+                    break;
+                case 162: // Cute hồi #% KI/s bản thân và xung quanh
+                    this.mpHoiCute += io.param;
+                    break;
+                case 173: // Phục hồi #% HP và KI cho đồng đội
+                    this.tlHpHoiBanThanVaDongDoi += io.param;
+                    this.tlMpHoiBanThanVaDongDoi += io.param;
+                    break;
+                case 189:
+                    this.wearingNezuko = true;
+                    break;
+                case 190:
+                    this.wearingTanjiro = true;
+                    break;
+                case 191:
+                    this.wearingInoHashi = true;
+                    break;
+                case 192:
+                    this.wearingInosuke = true;
+                    break;
+                case 193:
+                    this.wearingZenitsu = true;
+                    break;
+                case 194:
+                    this.tlDameChuong = 3;
+                    break;
+                case 195:
+                    this.tlDameChuong = 4;
+                    break;
+            }
+        }
+    }
+}
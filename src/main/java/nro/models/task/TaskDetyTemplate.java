@@ -67,24 +67,16 @@ public class TaskDetyTemplate {
      * Lấy tên map từ mapId
      */
     public String getMapName() {
-        for (nro.models.map.Map map : nro.server.Manager.MAPS) {
-            if (map.mapId == this.mapId) {
-                return map.mapName;
-            }
-        }
-        return "Map " + mapId;
+        nro.models.map.Map map = nro.server.Registry.getMap(this.mapId);
+        return map != null ? map.mapName : "Map " + mapId;
     }
     
     /**
      * Lấy tên mob từ mobId
      */
     public String getMobName() {
-        for (nro.models.mob.MobTemplate mob : nro.server.Manager.MOB_TEMPLATES) {
-            if (mob.id == this.mobId) {
-                return mob.name;
-            }
-        }
-        return "Quái " + mobId;
+        nro.models.mob.MobTemplate mob = nro.server.Registry.getMobTemplate(this.mobId);
+        return mob != null ? mob.name : "Quái " + mobId;
     }
     
     public List<ItemReward> getItemRewards() {
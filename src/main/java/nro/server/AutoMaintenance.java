@@ -6,9 +6,10 @@ import java.time.LocalTime;
 
 /**
  * Auto Maintenance - Bảo trì tự động theo lịch
+ * Chạy như job "Bao tri dinh ky" của JobScheduler, mỗi 30 giây kiểm tra một lần
  * @author ahwuocdz
  */
-public class AutoMaintenance extends Thread {
+public class AutoMaintenance implements Runnable {
     
     /**
      * Class lưu thông tin thời gian bảo trì
@@ -59,24 +60,18 @@ public class AutoMaintenance extends Thread {
 
     @Override
     public void run() {
-        while (!Maintenance.isRuning && !isRunning) {
-            try {
-                if (enabled) {
-                    LocalTime currentTime = LocalTime.now();
-                    for (MaintenanceTime mt : MAINTENANCE_TIMES) {
-                        if (mt.isTime(currentTime)) {
-                            Maintenance.gI().start(mt.countdownSeconds);
-                            Service.getInstance().sendThongBaoAllPlayer(
-                                    "Hệ thống bảo trì định kỳ, vui lòng thoát game để tránh mất vật phẩm");
-                            isRunning = true;
-                            enabled = false;
-                            break;
-                        }
-                    }
-                }
-                Thread.sleep(30000); // Check mỗi 30 giây
-            } catch (Exception e) {
-                e.printStackTrace();
+        if (Maintenance.isRuning || isRunning || !enabled) {
+            return;
+        }
+        LocalTime currentTime = LocalTime.now();
+        for (MaintenanceTime mt : MAINTENANCE_TIMES) {
+            if (mt.isTime(currentTime)) {
+                Maintenance.gI().start(mt.countdownSeconds);
+                Service.getInstance().sendThongBaoAllPlayer(
+                        "Hệ thống bảo trì định kỳ, vui lòng thoát game để tránh mất vật phẩm");
+                isRunning = true;
+                enabled = false;
+                break;
             }
         }
     }
@@ -16,11 +16,9 @@ import nro.services.func.SummonDragon;
 import nro.services.func.TransactionService;
 import nro.utils.Log;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import lombok.Getter;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *
@@ -32,13 +30,19 @@ public class Client implements Runnable {
 
     private static Client i;
 
-    @Getter
-    public final List<Session> sessions = new ArrayList<>();
-    private final Map<Integer, Session> sessions_id = new HashMap<Integer, Session>();
-    private final Map<Long, Player> players_id = new HashMap<Long, Player>();
-    private final Map<Integer, Player> players_userId = new HashMap<Integer, Player>();
-    private final Map<String, Player> players_name = new HashMap<String, Player>();
-    private final List<Player> players = new ArrayList<>();
+    private final Map<Integer, Session> sessions_id = new ConcurrentHashMap<>();
+    private final Map<Integer, Session> sessions_userId = new ConcurrentHashMap<>();
+    private final Map<Long, Player> players_id = new ConcurrentHashMap<>();
+    private final Map<Integer, Player> players_userId = new ConcurrentHashMap<>();
+    private final Map<String, Player> players_name = new ConcurrentHashMap<>();
+
+    /**
+     * Online players, republished as a new immutable list on every put and
+     * remove so broadcasts and saves iterate without locking or copying
+     */
+    private volatile List<Player> players = List.of();
+    private final Object playersLock = new Object();
+    private final Object sessionsLock = new Object();
 
     private boolean running = true;
 
@@ -46,10 +50,18 @@ public class Client implements Runnable {
         new Thread(this).start();
     }
 
+    /**
+     * Every online player, the list must not be modified
+     */
     public List<Player> getPlayers() {
-        synchronized (players) {
-            return this.players.stream().collect(Collectors.toList());
-        }
+        return this.players;
+    }
+
+    /**
+     * Snapshot of the connected sessions
+     */
+    public List<Session> getSessions() {
+        return new ArrayList<>(this.sessions_id.values());
     }
 
     public static Client gI() {
@@ -60,36 +72,22 @@ public class Client implements Runnable {
     }
 
     public void put(Session session) {
-        synchronized (sessions) {
-            if (!sessions_id.containsValue(session)) {
-                this.sessions_id.put(session.id, session);
-            }
-            if (!sessions.contains(session)) {
-                this.sessions.add(session);
-            }
-        }
+        this.sessions_id.putIfAbsent(session.id, session);
     }
 
     public void put(Player player) {
-        if (!players_id.containsKey(player.id)) {
+        synchronized (playersLock) {
             this.players_id.put(player.id, player);
-        }
-        if (!players_name.containsValue(player)) {
             this.players_name.put(player.name, player);
-        }
-        if (!players_userId.containsValue(player)) {
             this.players_userId.put(player.getSession().userId, player);
+            this.players = List.copyOf(players_id.values());
         }
-        if (!players.contains(player)) {
-            this.players.add(player);
-        }
-
     }
 
     private void remove(Session session) {
-        synchronized (sessions) {
-            this.sessions_id.remove(session.id);
-            this.sessions.remove(session);
+        synchronized (sessionsLock) {
+            this.sessions_id.remove(session.id, session);
+            this.sessions_userId.remove(session.userId, session);
             LoginSession login = ServerManager.gI().getLogin();
             if (login != null && login.isConnected()) {
                 login.getService().logout(session.userId);
@@ -108,10 +106,13 @@ public class Client implements Runnable {
     }
 
     private void remove(Player player) {
-        this.players_id.remove(player.id);
-        this.players_name.remove(player.name);
-        this.players_userId.remove(player.getSession().userId);
-        this.players.remove(player);
+        synchronized (playersLock) {
+            // chi xoa neu van la doi tuong nay, tranh xoa nham player vua dang nhap lai
+            this.players_id.remove(player.id, player);
+            this.players_name.remove(player.name, player);
+            this.players_userId.remove(player.getSession().userId, player);
+            this.players = List.copyOf(players_id.values());
+        }
         dispose(player);
     }
 
@@ -169,15 +170,23 @@ public class Client implements Runnable {
         return this.players_userId.get(userId);
     }
 
+    /**
+     * Another session logged into the same account, null if there is none.
+     * When there is none this session becomes the one of its account.
+     */
     public Session getSession(Session session) {
-        synchronized (sessions) {
-            for (Session se : sessions) {
-                if (se != session && se.userId == session.userId) {
-                    return se;
-                }
+        while (true) {
+            Session se = sessions_userId.putIfAbsent(session.userId, session);
+            if (se == null || se == session) {
+                return null;
+            }
+            if (se.userId == session.userId && sessions_id.get(se.id) == se) {
+                return se;
+            }
+            if (sessions_userId.replace(session.userId, se, session)) {
+                return null;
             }
         }
-        return null;
     }
 
     public Player getPlayer(String name) {
@@ -190,22 +199,18 @@ public class Client implements Runnable {
 
     public void close() {
         Log.log("BEGIN KICK OUT SESSION...............................");
-        synchronized (sessions) {
-            while (!this.sessions.isEmpty()) {
-                Log.log("LEFT PLAYER: " + this.players.size() + ".........................");
-                this.kickSession(this.sessions.remove(0));
-            }
+        for (Session session : getSessions()) {
+            Log.log("LEFT PLAYER: " + this.players.size() + ".........................");
+            this.kickSession(session);
         }
     }
 
     private void update() {
-        synchronized (sessions) {
-            for (Session session : sessions) {
-                if (session.timeWait > 0) {
-                    session.timeWait--;
-                    if (session.timeWait == 0) {
-                        kickSession(session);
-                    }
+        for (Session session : sessions_id.values()) {
+            if (session.timeWait > 0) {
+                session.timeWait--;
+                if (session.timeWait == 0) {
+                    kickSession(session);
                 }
             }
         }
@@ -225,8 +230,8 @@ public class Client implements Runnable {
 
     public void show(Player player) {
         String txt = "";
-        txt += "sessions: " + sessions.size() + "\n";
         txt += "sessions_id: " + sessions_id.size() + "\n";
+        txt += "sessions_userId: " + sessions_userId.size() + "\n";
         txt += "players_id: " + players_id.size() + "\n";
         txt += "players_userId: " + players_userId.size() + "\n";
         txt += "players_name: " + players_name.size() + "\n";
@@ -0,0 +1,106 @@
+package nro.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CommandStats - per command counters and handling time histograms
+ *
+ * Controller records every inbound message here: handled or dropped by the
+ * throttle, and how long the handler ran. Histogram buckets are fixed, the
+ * percentiles in the report are the upper bound of the bucket they fall in.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class CommandStats {
+
+    private static final long[] BOUNDS_MICROS = {100, 500, 1_000, 5_000, 10_000, 50_000, 100_000, 500_000};
+    private static final int BUCKETS = BOUNDS_MICROS.length + 1;
+
+    private static final CommandStats instance = new CommandStats();
+
+    public static CommandStats gI() {
+        return instance;
+    }
+
+    private final LongAdder[] handled = new LongAdder[256];
+    private final LongAdder[] dropped = new LongAdder[256];
+    private final LongAdder[] totalNanos = new LongAdder[256];
+    private final AtomicLongArray maxNanos = new AtomicLongArray(256);
+    private final AtomicLongArray histogram = new AtomicLongArray(256 * BUCKETS);
+
+    private CommandStats() {
+        for (int i = 0; i < 256; i++) {
+            handled[i] = new LongAdder();
+            dropped[i] = new LongAdder();
+            totalNanos[i] = new LongAdder();
+        }
+    }
+
+    public void record(byte cmd, long nanos) {
+        int i = cmd & 0xFF;
+        handled[i].increment();
+        totalNanos[i].add(nanos);
+        maxNanos.accumulateAndGet(i, nanos, Math::max);
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = 0;
+        while (bucket < BOUNDS_MICROS.length && micros >= BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        histogram.incrementAndGet(i * BUCKETS + bucket);
+    }
+
+    public void drop(byte cmd) {
+        dropped[cmd & 0xFF].increment();
+    }
+
+    public long getHandled(byte cmd) {
+        return handled[cmd & 0xFF].sum();
+    }
+
+    public long getDropped(byte cmd) {
+        return dropped[cmd & 0xFF].sum();
+    }
+
+    /**
+     * One line per command seen, the most expensive in total first
+     */
+    public String report() {
+        List<Integer> seen = new ArrayList<>();
+        long[] totals = new long[256];
+        for (int i = 0; i < 256; i++) {
+            totals[i] = totalNanos[i].sum();
+            if (handled[i].sum() > 0 || dropped[i].sum() > 0) {
+                seen.add(i);
+            }
+        }
+        seen.sort((a, b) -> Long.compare(totals[b], totals[a]));
+        StringBuilder sb = new StringBuilder("cmd      class     handled   dropped   avg(ms)   p50<=     p99<=     max(ms)\n");
+        for (int i : seen) {
+            long n = handled[i].sum();
+            sb.append(String.format("%-8d %-9s %-9d %-9d %-9.3f %-9s %-9s %.3f%n", (byte) i,
+                    MessageThrottle.classOf((byte) i).name(), n, dropped[i].sum(),
+                    n > 0 ? totals[i] / (n * 1_000_000.0) : 0, percentile(i, n, 0.5), percentile(i, n, 0.99),
+                    maxNanos.get(i) / 1_000_000.0));
+        }
+        return sb.toString();
+    }
+
+    private String percentile(int cmd, long count, double p) {
+        if (count == 0) {
+            return "-";
+        }
+        long target = (long) Math.ceil(count * p);
+        long acc = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            acc += histogram.get(cmd * BUCKETS + b);
+            if (acc >= target) {
+                return b < BOUNDS_MICROS.length ? BOUNDS_MICROS[b] / 1000.0 + "ms" : "inf";
+            }
+        }
+        return "inf";
+    }
+}
@@ -0,0 +1,129 @@
+package nro.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConnectionAdmission - decides which sockets and logins are let in
+ *
+ * Every new connection takes a token from the bucket of its IP and a slot of
+ * the per-IP connection limit first, the server wide bucket last: an IP that
+ * is already over its own limits cannot drain the budget of the others. A rejected
+ * socket is closed by the acceptor before a Session exists, so a reconnect
+ * flood after a restart costs no threads. Logins take a token from a second
+ * per-IP bucket.
+ *
+ * All counters are safe to use from the accept thread, the IO threads and
+ * the threads that close sessions at the same time.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class ConnectionAdmission {
+
+    private static final long IDLE_EVICT_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final ConnectionAdmission instance = new ConnectionAdmission();
+
+    public static ConnectionAdmission gI() {
+        return instance;
+    }
+
+    private final Map<String, IpState> states = new ConcurrentHashMap<>();
+    private final TokenBucket global = new TokenBucket(Manager.CONNECT_PER_SECOND, Manager.CONNECT_PER_SECOND);
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    private ConnectionAdmission() {
+    }
+
+    private static final class IpState {
+
+        private final AtomicInteger connections = new AtomicInteger();
+        private final TokenBucket connect = new TokenBucket(Manager.IP_CONNECT_BURST, Manager.IP_CONNECT_PER_MINUTE / 60.0);
+        private final TokenBucket login = new TokenBucket(Manager.IP_LOGIN_BURST, Manager.IP_LOGIN_PER_MINUTE / 60.0);
+        private volatile long lastSeen = System.nanoTime();
+    }
+
+    /**
+     * Takes a connection slot for the IP. Every true must be paired with one
+     * {@link #release(String)} once the session is gone.
+     */
+    public boolean tryAdmit(String ip) {
+        sweepIfDue();
+        boolean[] admitted = new boolean[1];
+        // lay token va slot trong compute: sweep khong the bo state nay giua chung
+        states.compute(ip, (k, state) -> {
+            if (state == null) {
+                state = new IpState();
+            }
+            state.lastSeen = System.nanoTime();
+            if (state.connect.tryAcquire() && state.connections.get() < Manager.MAX_PER_IP) {
+                state.connections.incrementAndGet();
+                admitted[0] = true;
+            }
+            return state;
+        });
+        if (!admitted[0]) {
+            return false;
+        }
+        if (!global.tryAcquire()) {
+            release(ip);
+            return false;
+        }
+        return true;
+    }
+
+    public void release(String ip) {
+        if (ip == null) {
+            return;
+        }
+        IpState state = states.get(ip);
+        if (state != null) {
+            state.lastSeen = System.nanoTime();
+            state.connections.updateAndGet(n -> Math.max(0, n - 1));
+        }
+    }
+
+    /**
+     * True when the IP may send one more login request
+     */
+    public boolean tryLogin(String ip) {
+        boolean[] allowed = new boolean[1];
+        states.compute(ip, (k, state) -> {
+            if (state == null) {
+                state = new IpState();
+            }
+            state.lastSeen = System.nanoTime();
+            allowed[0] = state.login.tryAcquire();
+            return state;
+        });
+        return allowed[0];
+    }
+
+    public int getConnections(String ip) {
+        IpState state = states.get(ip);
+        return state != null ? state.connections.get() : 0;
+    }
+
+    /**
+     * Drops IPs without connections that stayed quiet long enough for their
+     * buckets to refill, so forgetting them changes nothing. Each state is
+     * checked again under the map lock of its key, a slot taken meanwhile by
+     * tryAdmit keeps it.
+     */
+    private void sweepIfDue() {
+        long now = System.nanoTime();
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (String ip : states.keySet()) {
+            states.computeIfPresent(ip, (k, state) -> state.connections.get() == 0
+                    && now - state.lastSeen > IDLE_EVICT_NANOS
+                    && state.connect.isFull() && state.login.isFull() ? null : state);
+        }
+    }
+}
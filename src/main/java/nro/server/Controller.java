@@ -42,10 +42,18 @@ public class Controller {
     private static final Logger logger = Logger.getLogger(Controller.class);
 
     public void onMessage(Session _session, Message _msg) {
-        long st = System.currentTimeMillis();
+        long st = System.nanoTime();
+        byte cmd = _msg.command;
+        if (!_session.throttle.tryAccept(cmd)) {
+            CommandStats.gI().drop(cmd);
+            return;
+        }
         try {
+            if (cmd != -7) {
+                // move dang cho phai ap dung truoc, lenh sau no tinh theo vi tri moi
+                applyMove(_session);
+            }
             Player player = _session.player;
-            byte cmd = _msg.command;
             if (Manager.debug) {
                 System.out.println("CMD receive: " + cmd);
             }
@@ -248,8 +256,7 @@ public class Controller {
                             toY = _msg.reader().readShort();
                         } catch (Exception e) {
                         }
-                        player.playerTask.achivements.get(ConstAchive.KHINH_CONG_THANH_THAO).count++;
-                        PlayerService.gI().playerMove(player, toX, toY);
+                        queueMove(_session, toX, toY);
                     }
                     break;
                 case Cmd.GET_IMAGE_SOURCE:
@@ -550,9 +557,35 @@ public class Controller {
             logger.error("Err controller message command: " + _msg.command, e);
 //            Log.logException(Controller.class, e);
 //            Log.warning("Lỗi controller message command: " + _msg.command);
+        } finally {
+            CommandStats.gI().record(cmd, System.nanoTime() - st);
         }
     }
 
+    /**
+     * Keeps only the latest move of a session per tick, the move is applied
+     * on the game loop thread once the tick ends, or before the next other
+     * command of the session if that comes first
+     */
+    private void queueMove(Session session, int x, int y) {
+        if (session.throttle.offerMove(x, y, session.player.zone)) {
+            TimerWheel.gI().schedule(0, () -> applyMove(session));
+        } else {
+            CommandStats.gI().drop((byte) -7);
+        }
+    }
+
+    private void applyMove(Session session) {
+        MessageThrottle.Move move = session.throttle.pollMove();
+        Player player = session.player;
+        // da doi zone tu luc gui: vi tri thuoc map cu, bo qua
+        if (move == null || player == null || player.zone != move.zone) {
+            return;
+        }
+        player.playerTask.achivements.get(ConstAchive.KHINH_CONG_THANH_THAO).count++;
+        PlayerService.gI().playerMove(player, move.x, move.y);
+    }
+
 //    public void messageNotLogin(Session session, Message msg) {
 //        if (msg != null) {
 //            try {
@@ -874,13 +907,8 @@ public class Controller {
             NotiManager.getInstance().sendDanhQuaiNhanNgoc(player);
         }
         if (player.inventory.itemsBody.get(12).isNotNullItem()) {
-            new Thread(() -> {
-                try {
-                    Thread.sleep(1000);
-                    Service.getInstance().sendTitle1(player, (short) player.inventory.itemsBody.get(12).template.part);
-                } catch (Exception e) {
-                }
-            }).start();
+            Util.setTimeout(() -> Service.getInstance().sendTitle1(player,
+                    (short) player.inventory.itemsBody.get(12).template.part), 1000, "send title");
         }
         player.soDuVND = player.getSession().vndBar;
         player.soThoiVang = player.getSession().goldBar;
@@ -0,0 +1,57 @@
+package nro.server;
+
+/**
+ * ExpiryTimer - one TimerWheel timer kept on the earliest pending deadline
+ *
+ * For owners of many timed states (item buffs, skill effects): each start
+ * reports its deadline, only the earliest one is kept on the wheel. The task
+ * checks every state, then reports the deadlines still pending.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class ExpiryTimer {
+
+    public static final long NONE = Long.MAX_VALUE;
+
+    private final Runnable task;
+    private TimerWheel.Timer timer;
+    private long deadline = NONE;
+
+    public ExpiryTimer(Runnable task) {
+        this.task = task;
+    }
+
+    /**
+     * Makes sure the task runs once the wall clock passed deadline, an
+     * earlier pending run is kept
+     */
+    public synchronized void runBy(long deadline) {
+        if (deadline == NONE) {
+            return;
+        }
+        if (timer != null && !timer.isDone() && this.deadline <= deadline) {
+            return;
+        }
+        if (timer != null) {
+            timer.cancel();
+        }
+        this.deadline = deadline;
+        this.timer = TimerWheel.gI().schedule(TimerWheel.millisToTicks(deadline - System.currentTimeMillis()), this::fire);
+    }
+
+    private void fire() {
+        synchronized (this) {
+            timer = null;
+            deadline = NONE;
+        }
+        task.run();
+    }
+
+    public synchronized void cancel() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        deadline = NONE;
+    }
+}
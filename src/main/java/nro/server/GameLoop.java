@@ -1,23 +1,42 @@
 package nro.server;
 
 import nro.models.map.Map;
+import nro.models.map.Zone;
 import nro.models.player.Player;
 import nro.models.mob.Mob;
 import nro.utils.Log;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * GameLoop - Centralized game update loop
  * 
- * Manages all game updates (maps, players, mobs, effects) at a consistent tick rate
- * of 20 ticks per second (50ms per tick).
+ * Single authoritative tick scheduler: it advances the {@link TickManager} clock,
+ * hands every zone to exactly one {@link TickLane} and updates it once per tick,
+ * fires the {@link TimerWheel} timers due on this tick, then runs the periodic
+ * tick jobs registered with {@link #schedule}.
+ * Runs at a consistent tick rate of 20 ticks per second (50ms per tick).
+ * 
+ * With more than one lane (server.tick.lanes) the lanes run in parallel on a fixed
+ * worker pool and the tick waits for all of them before continuing. Actions that
+ * move entities across zones must then go through {@link #deferCrossZone}, which
+ * queues them and applies them on the loop thread between lane passes.
+ * MapService.goToMap and exitMap defer themselves this way, follow-up packets
+ * that need the new zone go in the callback of goToMap.
  * 
  * @author Kiro
  */
 public class GameLoop implements Runnable {
 
-    private static final long TICK_DURATION_MS = 50; // 50ms per tick = 20 ticks/second
+    private static final long TICK_DURATION_MS = TickManager.TICK_DURATION_MS; // 50ms per tick = 20 ticks/second
     private static final int STATS_LOG_INTERVAL = 100; // Log stats every 100 ticks
 
     private volatile boolean running = false;
@@ -28,6 +47,52 @@ public class GameLoop implements Runnable {
     private long maxTickDuration = 0;
     private long minTickDuration = Long.MAX_VALUE;
 
+    private final TickLane[] lanes;
+    private int nextLane;
+    private final List<TickJob> jobs = new CopyOnWriteArrayList<>();
+
+    // parallel mode only: lane workers and the work deferred to the tick boundary
+    private final ExecutorService laneWorkers;
+    private final List<Callable<Void>> laneTasks = new ArrayList<>();
+    private final Queue<Runnable> crossZoneActions = new ConcurrentLinkedQueue<>();
+
+    public GameLoop() {
+        this(Manager.TICK_LANES);
+    }
+
+    /**
+     * @param laneCount number of lanes, 0 or less to use one lane per core
+     */
+    public GameLoop(int laneCount) {
+        if (laneCount <= 0) {
+            laneCount = Runtime.getRuntime().availableProcessors();
+        }
+        this.lanes = new TickLane[laneCount];
+        for (int i = 0; i < lanes.length; i++) {
+            TickLane lane = new TickLane(i);
+            lanes[i] = lane;
+            laneTasks.add(() -> {
+                lane.run(TickManager.gI().getCurrentTick());
+                return null;
+            });
+        }
+        if (lanes.length > 1) {
+            AtomicInteger threadId = new AtomicInteger();
+            laneWorkers = Executors.newFixedThreadPool(lanes.length,
+                    r -> {
+                        Thread t = new Thread(r, "GameLoop-lane-" + threadId.getAndIncrement());
+                        t.setDaemon(true);
+                        return t;
+                    });
+        } else {
+            laneWorkers = null;
+        }
+    }
+
+    public boolean isParallel() {
+        return laneWorkers != null;
+    }
+
     /**
      * Starts the game loop thread
      */
@@ -45,9 +110,34 @@ public class GameLoop implements Runnable {
      */
     public void shutdown() {
         running = false;
+        if (laneWorkers != null) {
+            laneWorkers.shutdown();
+        }
         Log.warning("GameLoop shutdown signal received");
     }
 
+    /**
+     * Queues a cross-zone action when called from a lane worker during a parallel tick.
+     * The action then runs on the loop thread once every lane has finished the tick.
+     *
+     * @return true if the action was queued and the caller must not run it now
+     */
+    public static boolean deferCrossZone(Runnable action) {
+        GameLoop loop = Manager.gameLoop;
+        if (loop == null || !loop.isParallel() || TickLane.current() == null) {
+            return false;
+        }
+        loop.crossZoneActions.add(action);
+        return true;
+    }
+
+    /**
+     * Registers a job executed on the loop thread every periodTicks ticks
+     */
+    public void schedule(String name, int periodTicks, Runnable task) {
+        jobs.add(new TickJob(name, Math.max(1, periodTicks), task));
+    }
+
     /**
      * Main game loop - executes ticks at consistent rate
      */
@@ -59,11 +149,15 @@ public class GameLoop implements Runnable {
             try {
                 long tickStart = System.currentTimeMillis();
 
+                TickManager.gI().tick();
+                long tick = TickManager.gI().getCurrentTick();
+
                 // Update all game entities
-                updateMaps();
-                updatePlayers();
-                updateMobs();
-                updateEffects();
+                assignZones(tick);
+                runLanes(tick);
+                applyCrossZoneActions();
+                TimerWheel.gI().advance(tick);
+                runJobs(tick);
 
                 // Calculate tick duration
                 long tickEnd = System.currentTimeMillis();
@@ -103,106 +197,85 @@ public class GameLoop implements Runnable {
     }
 
     /**
-     * Updates all maps
-     * Requirement 2.1: WHEN the GameLoop executes a tick THEN the system SHALL call update() on each map in the MAPS collection
+     * Collects the zones of every map into their owning lane.
+     * A zone seen for the first time is bound to a lane round-robin and keeps it;
+     * a zone reachable twice in the same tick is only queued once.
      */
-    private void updateMaps() {
-        try {
-            for (Map map : Manager.MAPS) {
-                try {
-                    if (map != null) {
-                        map.update();
-                    }
-                } catch (Exception e) {
-                    Log.error(GameLoop.class, e, "Error updating map: " + (map != null ? map.mapName : "unknown"));
+    private void assignZones(long tick) {
+        for (TickLane lane : lanes) {
+            lane.reset();
+        }
+        for (int i = 0; i < Manager.MAPS.size(); i++) {
+            Map map = Manager.MAPS.get(i);
+            if (map == null || map.zones == null) {
+                continue;
+            }
+            Zone[] zones;
+            try {
+                zones = map.zones.toArray(new Zone[0]);
+            } catch (Exception e) {
+                Log.error(GameLoop.class, e, "Error collecting zones of map: " + map.mapName);
+                continue;
+            }
+            for (Zone zone : zones) {
+                if (zone == null || !zone.markTicked(tick)) {
+                    continue;
+                }
+                if (zone.getTickLane() < 0) {
+                    zone.setTickLane(nextLane);
+                    nextLane = (nextLane + 1) % lanes.length;
                 }
+                lanes[zone.getTickLane()].add(zone);
             }
-        } catch (Exception e) {
-            Log.error(GameLoop.class, e, "Error in updateMaps");
         }
     }
 
     /**
-     * Updates all active players
+     * Runs every lane for this tick; in parallel mode returns only once all lanes are done
      */
-    private void updatePlayers() {
-        try {
-            // Get all active players from the server
-            List<Player> players = getActivePlayers();
-            for (Player player : players) {
-                try {
-                    if (player != null && !player.isDisposed()) {
-                        player.update();
-                    }
-                } catch (Exception e) {
-                    Log.error(GameLoop.class, e, "Error updating player: " + (player != null ? player.name : "unknown"));
-                }
+    private void runLanes(long tick) throws InterruptedException {
+        if (laneWorkers == null) {
+            for (TickLane lane : lanes) {
+                lane.run(tick);
+            }
+            return;
+        }
+        for (Future<Void> future : laneWorkers.invokeAll(laneTasks)) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                Log.error(GameLoop.class, e, "Error in tick lane");
             }
-        } catch (Exception e) {
-            Log.error(GameLoop.class, e, "Error in updatePlayers");
         }
     }
 
     /**
-     * Updates all active mobs
+     * Applies the cross-zone actions queued by lane workers during this tick
      */
-    private void updateMobs() {
-        try {
-            for (Map map : Manager.MAPS) {
-                try {
-                    if (map != null && map.zones != null) {
-                        for (nro.models.map.Zone zone : map.zones) {
-                            try {
-                                if (zone != null && zone.mobs != null) {
-                                    for (Mob mob : new ArrayList<>(zone.mobs)) {
-                                        try {
-                                            if (mob != null) {
-                                                mob.update();
-                                            }
-                                        } catch (Exception e) {
-                                            Log.error(GameLoop.class, e, "Error updating mob");
-                                        }
-                                    }
-                                }
-                            } catch (Exception e) {
-                                Log.error(GameLoop.class, e, "Error updating mobs in zone");
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    Log.error(GameLoop.class, e, "Error updating mobs in map");
-                }
+    private void applyCrossZoneActions() {
+        Runnable action;
+        while ((action = crossZoneActions.poll()) != null) {
+            try {
+                action.run();
+            } catch (Exception e) {
+                Log.error(GameLoop.class, e, "Error applying cross-zone action");
             }
-        } catch (Exception e) {
-            Log.error(GameLoop.class, e, "Error in updateMobs");
         }
     }
 
     /**
-     * Updates all active effects
+     * Runs the registered jobs that are due on this tick
      */
-    private void updateEffects() {
-        try {
-            for (Map map : Manager.MAPS) {
-                try {
-                    if (map != null && map.zones != null) {
-                        for (nro.models.map.Zone zone : map.zones) {
-                            try {
-                                if (zone != null) {
-                                    // Effects are typically managed within zones
-                                    // This is a placeholder for effect updates
-                                }
-                            } catch (Exception e) {
-                                Log.error(GameLoop.class, e, "Error updating effects in zone");
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    Log.error(GameLoop.class, e, "Error updating effects in map");
-                }
+    private void runJobs(long tick) {
+        for (TickJob job : jobs) {
+            if (tick % job.periodTicks != 0) {
+                continue;
+            }
+            try {
+                job.task.run();
+            } catch (Exception e) {
+                Log.error(GameLoop.class, e, "Error in tick job: " + job.name);
             }
-        } catch (Exception e) {
-            Log.error(GameLoop.class, e, "Error in updateEffects");
         }
     }
 
@@ -361,6 +434,28 @@ public class GameLoop implements Runnable {
         );
     }
 
+    /**
+     * Gets the lanes owning the zones
+     */
+    public TickLane[] getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Periodic job run on the loop thread
+     */
+    private static class TickJob {
+        final String name;
+        final int periodTicks;
+        final Runnable task;
+
+        TickJob(String name, int periodTicks, Runnable task) {
+            this.name = name;
+            this.periodTicks = periodTicks;
+            this.task = task;
+        }
+    }
+
     /**
      * Data class for game loop metrics
      */
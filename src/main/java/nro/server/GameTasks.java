@@ -0,0 +1,121 @@
+package nro.server;
+
+import nro.utils.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GameTasks - short named tasks of the game on a bounded pool
+ *
+ * Replaces the thread per call of Util.runThread and Util.setTimeout. A
+ * delayed task waits on the TimerWheel, so waiting costs no thread, and runs
+ * on the pool once due. Tasks must not sleep: a task that needs several steps
+ * schedules the next step itself.
+ *
+ * Every task carries a name; counts, queue wait and run time are kept per
+ * name so the console can show which feature keeps the pool busy.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class GameTasks {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int QUEUE_SIZE = 10000;
+
+    private static final GameTasks instance = new GameTasks();
+
+    public static GameTasks gI() {
+        return instance;
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    private GameTasks() {
+        AtomicInteger threadId = new AtomicInteger();
+        pool = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE), r -> {
+            Thread t = new Thread(r, "GameTask-" + threadId.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    private static final class Stats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder runNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong maxRunNanos = new AtomicLong();
+    }
+
+    /**
+     * Runs the task on the pool as soon as a thread is free
+     */
+    public void execute(String name, Runnable task) {
+        Stats s = stats.computeIfAbsent(name, k -> new Stats());
+        long queued = System.nanoTime();
+        Runnable run = () -> run(name, s, queued, task);
+        try {
+            pool.execute(run);
+        } catch (RejectedExecutionException e) {
+            // hang doi day: chay ngay tren luong goi, cham nhung khong mat viec
+            s.rejected.increment();
+            run.run();
+        }
+    }
+
+    /**
+     * Runs the task on the pool once delayMs passed on the tick clock
+     */
+    public TimerWheel.Timer schedule(String name, long delayMs, Runnable task) {
+        return TimerWheel.gI().schedule(TimerWheel.millisToTicks(delayMs), () -> execute(name, task));
+    }
+
+    private void run(String name, Stats s, long queued, Runnable task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (Exception e) {
+            Log.error(GameTasks.class, e, "Lỗi task " + name);
+        }
+        long wait = start - queued;
+        long took = System.nanoTime() - start;
+        s.count.increment();
+        s.waitNanos.add(wait);
+        s.runNanos.add(took);
+        s.maxWaitNanos.accumulateAndGet(wait, Math::max);
+        s.maxRunNanos.accumulateAndGet(took, Math::max);
+    }
+
+    /**
+     * One line per task name, the most run time first
+     */
+    public String report() {
+        List<Map.Entry<String, Stats>> list = new ArrayList<>(stats.entrySet());
+        list.sort((a, b) -> Long.compare(b.getValue().runNanos.sum(), a.getValue().runNanos.sum()));
+        StringBuilder sb = new StringBuilder(String.format("pool %d/%d threads, queue %d%n", pool.getActiveCount(),
+                pool.getPoolSize(), pool.getQueue().size()));
+        sb.append("task                           count     rejected  wait(ms)  maxwait   run(ms)   maxrun\n");
+        for (Map.Entry<String, Stats> e : list) {
+            Stats s = e.getValue();
+            long n = s.count.sum();
+            sb.append(String.format("%-30s %-9d %-9d %-9.3f %-9.3f %-9.3f %.3f%n", e.getKey(), n, s.rejected.sum(),
+                    n > 0 ? s.waitNanos.sum() / (n * 1_000_000.0) : 0, s.maxWaitNanos.get() / 1_000_000.0,
+                    n > 0 ? s.runNanos.sum() / (n * 1_000_000.0) : 0, s.maxRunNanos.get() / 1_000_000.0));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,197 @@
+package nro.server;
+
+import nro.utils.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JobScheduler - named periodic jobs of the server on one small thread pool
+ *
+ * Subsystems that used to own a sleep loop or a single thread executor
+ * register a job here instead. A job never runs concurrently with itself:
+ * the next run is only planned once the current one returned. When a run
+ * takes longer than the period the job counts an overrun and its policy
+ * decides what happens with the missed runs.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class JobScheduler {
+
+    private static final int THREADS = 4;
+    private static final int MAX_CATCH_UP = 10;
+
+    private static final JobScheduler instance = new JobScheduler();
+
+    public static JobScheduler gI() {
+        return instance;
+    }
+
+    /**
+     * What a job does with runs it missed because it was late
+     */
+    public enum MissedRuns {
+        /**
+         * Run once now and continue on the next slot of the original grid
+         */
+        SKIP,
+        /**
+         * Run the missed runs back to back, at most MAX_CATCH_UP of them
+         */
+        CATCH_UP
+    }
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private JobScheduler() {
+        AtomicInteger threadId = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(THREADS, r -> {
+            Thread t = new Thread(r, "Job-" + threadId.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    public static final class Job {
+
+        private final String name;
+        private final long periodNanos;
+        private final MissedRuns missedRuns;
+        private final Runnable task;
+        private long nextRun;
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> future;
+
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder overruns = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private volatile long lastNanos;
+        private volatile long maxNanos;
+
+        private Job(String name, long periodNanos, MissedRuns missedRuns, Runnable task) {
+            this.name = name;
+            this.periodNanos = periodNanos;
+            this.missedRuns = missedRuns;
+            this.task = task;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Registers a job running every periodMs after initialDelayMs. A job
+     * already registered under the same name is cancelled and replaced.
+     */
+    public Job register(String name, long initialDelayMs, long periodMs, MissedRuns missedRuns, Runnable task) {
+        Job job = new Job(name, TimeUnit.MILLISECONDS.toNanos(Math.max(1, periodMs)), missedRuns, task);
+        Job old = jobs.put(name, job);
+        if (old != null) {
+            old.cancel();
+        }
+        job.nextRun = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, initialDelayMs));
+        plan(job, job.nextRun - System.nanoTime());
+        return job;
+    }
+
+    public Job register(String name, long initialDelayMs, long periodMs, Runnable task) {
+        return register(name, initialDelayMs, periodMs, MissedRuns.SKIP, task);
+    }
+
+    public void cancel(String name) {
+        Job job = jobs.remove(name);
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    private void plan(Job job, long delayNanos) {
+        if (job.cancelled || executor.isShutdown()) {
+            return;
+        }
+        job.future = executor.schedule(() -> run(job), Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+    }
+
+    private void run(Job job) {
+        if (job.cancelled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            job.task.run();
+        } catch (Exception e) {
+            Log.error(JobScheduler.class, e, "Lỗi job " + job.name);
+        } catch (Error e) {
+            // van len lich lan sau, mot loi nang khong duoc lam chet ca job
+            Log.error("Lỗi job " + job.name + ": " + e);
+        }
+        long end = System.nanoTime();
+        long took = end - start;
+        job.runs.increment();
+        job.totalNanos.add(took);
+        job.lastNanos = took;
+        if (took > job.maxNanos) {
+            job.maxNanos = took;
+        }
+        if (took > job.periodNanos) {
+            job.overruns.increment();
+        }
+        job.nextRun += job.periodNanos;
+        long late = end - job.nextRun;
+        if (late > 0) {
+            long missed = late / job.periodNanos + 1;
+            if (job.missedRuns == MissedRuns.SKIP || missed > MAX_CATCH_UP) {
+                // bo cac lan da lo, chay ngay roi quay lai luoi ban dau
+                job.skipped.add(missed - 1);
+                job.nextRun += (missed - 1) * job.periodNanos;
+                plan(job, 0);
+                return;
+            }
+        }
+        plan(job, job.nextRun - end);
+    }
+
+    /**
+     * One line per job: runs, overruns, skipped runs and run times
+     */
+    public String report() {
+        List<Job> list = new ArrayList<>(jobs.values());
+        list.sort((a, b) -> Long.compare(b.totalNanos.sum(), a.totalNanos.sum()));
+        StringBuilder sb = new StringBuilder("job                       period(ms) runs      overruns  skipped   avg(ms)   last(ms)  max(ms)\n");
+        for (Job job : list) {
+            long runs = job.runs.sum();
+            sb.append(String.format("%-25s %-10d %-9d %-9d %-9d %-9.3f %-9.3f %.3f%n", job.name,
+                    TimeUnit.NANOSECONDS.toMillis(job.periodNanos), runs, job.overruns.sum(), job.skipped.sum(),
+                    runs > 0 ? job.totalNanos.sum() / (runs * 1_000_000.0) : 0,
+                    job.lastNanos / 1_000_000.0, job.maxNanos / 1_000_000.0));
+        }
+        return sb.toString();
+    }
+
+    public void shutdown() {
+        for (Job job : jobs.values()) {
+            job.cancel();
+        }
+        jobs.clear();
+        executor.shutdown();
+    }
+}
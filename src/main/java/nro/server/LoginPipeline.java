@@ -0,0 +1,237 @@
+package nro.server;
+
+import nro.jdbc.DBService;
+import nro.jdbc.PlayerSaveQueue;
+import nro.jdbc.daos.GodGK;
+import nro.jdbc.daos.PlayerDAO;
+import nro.models.player.Player;
+import nro.server.io.Session;
+import nro.services.Service;
+import nro.utils.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoginPipeline - loads players of finished logins off the network threads
+ *
+ * A session that finished its login is queued here, a fixed number of login
+ * workers read and parse the player row and let the player enter. The worker
+ * count bounds how many database connections logins hold at once, a login
+ * storm after maintenance waits in the queue instead of draining the pool.
+ *
+ * The account and player timestamps written on every login are queued as
+ * well and written in batches by a scheduled job.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class LoginPipeline {
+
+    private static final long FLUSH_INTERVAL = 1000;
+    private static final int MAX_BATCH = 500;
+
+    private static final LoginPipeline instance = new LoginPipeline();
+
+    public static LoginPipeline gI() {
+        return instance;
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final Queue<LoginStamp> pendingStamps = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder finished = new LongAdder();
+    private final LongAdder entered = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+
+    private LoginPipeline() {
+        int workers = Math.max(1, Manager.LOGIN_CONCURRENCY);
+        AtomicInteger threadId = new AtomicInteger();
+        pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "Login-" + threadId.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    private static final class LoginStamp {
+
+        private final int userId;
+        private final String ipAddress;
+        private final int tongnap;
+        private final Timestamp time;
+
+        private LoginStamp(int userId, String ipAddress, int tongnap, Timestamp time) {
+            this.userId = userId;
+            this.ipAddress = ipAddress;
+            this.tongnap = tongnap;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Starts the stamp writer, called once at startup
+     */
+    public void init() {
+        JobScheduler.gI().register("Login stamps", FLUSH_INTERVAL, FLUSH_INTERVAL, this::flush);
+    }
+
+    /**
+     * Queues the player load of a session, the caller returns at once
+     */
+    public void submit(Session session) {
+        if (!session.beginLoad()) {
+            return;
+        }
+        long queued = System.nanoTime();
+        pool.execute(() -> load(session, queued));
+    }
+
+    private void load(Session session, long queued) {
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        try {
+            // phien da thoat trong luc xep hang thi khong can doc DB nua
+            if (!session.connected) {
+                abandoned.increment();
+                return;
+            }
+            Player player = GodGK.loadPlayer(session);
+            session.player = player;
+            if (session.dataLoadFailed) {
+                failed.increment();
+                Service.getInstance().sendThongBaoOK(session, "Lỗi tải dữ liệu vui lòng báo với admin.");
+            } else if (player == null) {
+                Service.getInstance().switchToCreateChar(session);
+            } else if (!session.connected) {
+                abandoned.increment();
+                saveAbandoned(player);
+            } else {
+                session.enter();
+                entered.increment();
+            }
+        } catch (Exception e) {
+            failed.increment();
+            Log.error(LoginPipeline.class, e, "Lỗi tải nhân vật user " + session.userId);
+        } finally {
+            session.endLoad();
+            inFlight.decrementAndGet();
+            long end = System.nanoTime();
+            long wait = start - queued;
+            long took = end - start;
+            finished.increment();
+            waitNanos.add(wait);
+            loadNanos.add(took);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+            maxLoadNanos.accumulateAndGet(took, Math::max);
+        }
+    }
+
+    /**
+     * The load already moved the topped-up ruby from the account onto the
+     * player and granted the daily login, the whole row is written back.
+     * The player never entered so loaded is still false and the regular save
+     * would skip every column, it is marked loaded first.
+     */
+    private void saveAbandoned(Player player) {
+        player.loaded = true;
+        PlayerSaveQueue.gI().submit(PlayerDAO.snapshot(player, true));
+    }
+
+    /**
+     * Queues the login time, ip and total top-up of a session for the next
+     * batch write
+     */
+    public void stamp(Session session, Timestamp time) {
+        pendingStamps.add(new LoginStamp(session.userId, session.ipAddress, session.tongnap, time));
+    }
+
+    /**
+     * Writes the queued stamps in one transaction, failed rows are queued
+     * again for the next run
+     */
+    public void flush() {
+        List<LoginStamp> batch = new ArrayList<>();
+        LoginStamp stamp;
+        while (batch.size() < MAX_BATCH && (stamp = pendingStamps.poll()) != null) {
+            batch.add(stamp);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DBService.gI().getConnectionForLogin()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement account = conn.prepareStatement(
+                    "update account set last_time_login = ?, ip_address = ? where id = ?");
+                 PreparedStatement player = conn.prepareStatement(
+                         "update player set lastimelogin = ?, tongnap = ? where account_id = ?")) {
+                for (LoginStamp s : batch) {
+                    account.setTimestamp(1, s.time);
+                    account.setString(2, s.ipAddress);
+                    account.setInt(3, s.userId);
+                    account.addBatch();
+                    player.setTimestamp(1, s.time);
+                    player.setInt(2, s.tongnap);
+                    player.setInt(3, s.userId);
+                    player.addBatch();
+                }
+                account.executeBatch();
+                player.executeBatch();
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (Exception e) {
+            pendingStamps.addAll(batch);
+            Log.error(LoginPipeline.class, e, "Lỗi ghi thời gian đăng nhập");
+        }
+    }
+
+    /**
+     * Writes every queued stamp, called on shutdown
+     */
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (!pendingStamps.isEmpty()) {
+            int before = pendingStamps.size();
+            flush();
+            if (pendingStamps.size() >= before) {
+                break;
+            }
+        }
+    }
+
+    public String report() {
+        long n = finished.sum();
+        return String.format("workers %d, loading %d, queued %d, stamps %d%n"
+                + "entered %d, abandoned %d, failed %d, wait avg %.3fms max %.3fms, load avg %.3fms max %.3fms%n",
+                pool.getMaximumPoolSize(), inFlight.get(), pool.getQueue().size(), pendingStamps.size(),
+                entered.sum(), abandoned.sum(), failed.sum(),
+                n > 0 ? waitNanos.sum() / (n * 1_000_000.0) : 0, maxWaitNanos.get() / 1_000_000.0,
+                n > 0 ? loadNanos.sum() / (n * 1_000_000.0) : 0, maxLoadNanos.get() / 1_000_000.0);
+    }
+}
@@ -75,6 +75,12 @@ public class Manager {
     public static byte SERVER = 1;
     public static byte SECOND_WAIT_LOGIN = 40;
     public static byte MAX_PER_IP = 5;
+    public static int CONNECT_PER_SECOND = 200;
+    public static int IP_CONNECT_BURST = 10;
+    public static int IP_CONNECT_PER_MINUTE = 30;
+    public static int IP_LOGIN_BURST = 5;
+    public static int IP_LOGIN_PER_MINUTE = 10;
+    public static int LOGIN_CONCURRENCY = 16;
     public static int MAX_PLAYER = 1000;
     public static byte RATE_EXP_SERVER = 1;
     public static int EVENT_SEVER = 0;
@@ -103,6 +109,8 @@ public class Manager {
     public static int apiPort = 8080;
     public static int bossGroup = 5;
     public static int workerGroup = 10;
+    public static int handlerGroup = 32;
+    public static boolean useNetty;
     public static String apiKey = "abcdef";
     public static String executeCommand;
     public static boolean debug;
@@ -152,6 +160,7 @@ public class Manager {
     public GameConfig gameConfig;
     
     public static GameLoop gameLoop;
+    public static int TICK_LANES = 1;
 
     public static Manager gI() {
         if (i == null) {
@@ -272,9 +281,9 @@ public class Manager {
                 MAPS.add(map);
                 map.initMob(mapTemp.mobTemp, mapTemp.mobLevel, mapTemp.mobHp, mapTemp.mobX, mapTemp.mobY);
                 map.initNpc(mapTemp.npcId, mapTemp.npcX, mapTemp.npcY, mapTemp.npcAvatar);
-                new Thread(map, "Update map " + map.mapName).start();
             }
         }
+        Registry.indexMaps(MAPS);
         Referee r = new Referee();
         r.initReferee();
 
@@ -418,6 +427,7 @@ public class Manager {
 
                     MAP_TEMPLATES[i++] = mapTemplate;
                 }
+                Registry.indexMapTemplates(MAP_TEMPLATES);
                 Log.success("Load map template thành công (" + MAP_TEMPLATES.length + ")");
             }
 
@@ -470,6 +480,7 @@ public class Manager {
             }
             rs.close();
             ps.close();
+            Registry.indexSkillTemplates(NCLASS);
             Log.success("Load skill thành công (" + NCLASS.size() + ")");
 
             // load head avatar
@@ -634,6 +645,7 @@ public class Manager {
             }
             rs.close();
             ps.close();
+            Registry.indexItemTemplates(ITEM_TEMPLATES);
             Log.success("Load map item template thành công (" + ITEM_TEMPLATES.size() + ")");
 
             // load item option template
@@ -648,6 +660,7 @@ public class Manager {
             }
             rs.close();
             ps.close();
+            Registry.indexItemOptionTemplates(ITEM_OPTION_TEMPLATES);
             Log.success("Load map item option template thành công (" + ITEM_OPTION_TEMPLATES.size() + ")");
 
             // load shop
@@ -749,6 +762,7 @@ public class Manager {
                     }
                 }
             }
+            Registry.indexMobRewards(MOB_REWARDS);
             Log.success("Load reward lucky round thành công (" + MOB_REWARDS.size() + ")");
             // load mob template
             ps = con.prepareStatement("select * from mob_template");
@@ -768,6 +782,7 @@ public class Manager {
             }
             rs.close();
             ps.close();
+            Registry.indexMobTemplates(MOB_TEMPLATES);
             Log.success("Load mob template thành công (" + MOB_TEMPLATES.size() + ")");
 
             // load npc template
@@ -888,12 +903,7 @@ public class Manager {
     }
 
     public static MapTemplate getMapTemplate(int mapID) {
-        for (MapTemplate map : MAP_TEMPLATES) {
-            if (map.id == mapID) {
-                return map;
-            }
-        }
-        return null;
+        return Registry.getMapTemplate(mapID);
     }
 
     public static void loadEventCount() {
@@ -1061,9 +1071,43 @@ public class Manager {
         if ((value = properties.get("server.maxperip")) != null) {
             MAX_PER_IP = Byte.parseByte(String.valueOf(value));
         }
+        if ((value = properties.get("server.admission.connectpersecond")) != null) {
+            CONNECT_PER_SECOND = Integer.parseInt(String.valueOf(value).trim());
+        }
+        if ((value = properties.get("server.admission.ipburst")) != null) {
+            IP_CONNECT_BURST = Integer.parseInt(String.valueOf(value).trim());
+        }
+        if ((value = properties.get("server.admission.ipperminute")) != null) {
+            IP_CONNECT_PER_MINUTE = Integer.parseInt(String.valueOf(value).trim());
+        }
+        if ((value = properties.get("server.admission.loginburst")) != null) {
+            IP_LOGIN_BURST = Integer.parseInt(String.valueOf(value).trim());
+        }
+        if ((value = properties.get("server.admission.loginperminute")) != null) {
+            IP_LOGIN_PER_MINUTE = Integer.parseInt(String.valueOf(value).trim());
+        }
+        if ((value = properties.get("server.login.concurrency")) != null) {
+            LOGIN_CONCURRENCY = Integer.parseInt(String.valueOf(value).trim());
+        }
+        MessageThrottle.configure(properties);
         if ((value = properties.get("server.maxplayer")) != null) {
             MAX_PLAYER = Integer.parseInt(String.valueOf(value));
         }
+        if (properties.containsKey("server.netty")) {
+            useNetty = Boolean.parseBoolean(properties.getProperty("server.netty").trim());
+        }
+        if ((value = properties.get("server.netty.boss")) != null) {
+            bossGroup = Integer.parseInt(String.valueOf(value).trim());
+        }
+        if ((value = properties.get("server.netty.worker")) != null) {
+            workerGroup = Integer.parseInt(String.valueOf(value).trim());
+        }
+        if ((value = properties.get("server.netty.handler")) != null) {
+            handlerGroup = Integer.parseInt(String.valueOf(value).trim());
+        }
+        if ((value = properties.get("server.tick.lanes")) != null) {
+            TICK_LANES = Integer.parseInt(String.valueOf(value).trim());
+        }
         if ((value = properties.get("server.expserver")) != null) {
             RATE_EXP_SERVER = Byte.parseByte(String.valueOf(value));
         }
@@ -1174,12 +1218,7 @@ public class Manager {
     }
 
     public static MobTemplate getMobTemplateByTemp(int mobTempId) {
-        for (MobTemplate mobTemp : MOB_TEMPLATES) {
-            if (mobTemp.id == mobTempId) {
-                return mobTemp;
-            }
-        }
-        return null;
+        return Registry.getMobTemplate(mobTempId);
     }
 
 }
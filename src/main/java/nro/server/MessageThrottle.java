@@ -0,0 +1,155 @@
+package nro.server;
+
+import nro.consts.Cmd;
+import nro.models.map.Zone;
+import nro.utils.Log;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * MessageThrottle - inbound rate limits of one session
+ *
+ * Commands are grouped in classes, each class has its own token bucket per
+ * session and every command costs a number of tokens of its class. A message
+ * that finds too few tokens is dropped before any service code runs. Moves
+ * are not limited but coalesced: only the latest position of a tick is
+ * applied, or earlier when another command of the session needs it.
+ * A move remembers its zone and is dropped if the player left that zone
+ * before it was applied.
+ *
+ * Rates and costs are read from server.properties:
+ * server.ratelimit.[class]=burst,perSecond and server.ratelimit.cost.[cmd]=n
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class MessageThrottle {
+
+    public enum CommandClass {
+        MOVE(0, 0),
+        SKILL(30, 15),
+        MENU(10, 5),
+        CHAT(5, 1),
+        ITEM(15, 8),
+        RESOURCE(1000, 300),
+        DEFAULT(60, 30);
+
+        private double burst;
+        private double perSecond;
+
+        CommandClass(double burst, double perSecond) {
+            this.burst = burst;
+            this.perSecond = perSecond;
+        }
+    }
+
+    private static final CommandClass[] CLASS_OF = new CommandClass[256];
+    private static final double[] COST = new double[256];
+
+    static {
+        Arrays.fill(CLASS_OF, CommandClass.DEFAULT);
+        Arrays.fill(COST, 1);
+        classify(CommandClass.MOVE, -7);
+        classify(CommandClass.SKILL, 54, -60, 34, -45, -113);
+        classify(CommandClass.MENU, 32, 33, -34, 112, -79, -125, -127, 29, 21);
+        classify(CommandClass.CHAT, 44, -71, -72);
+        classify(CommandClass.ITEM, 6, 7, -40, -43, -20, -86, Cmd.KIGUI);
+        classify(CommandClass.RESOURCE, Cmd.GET_IMAGE_SOURCE, Cmd.REQUEST_ICON, Cmd.GET_IMG_BY_NAME,
+                Cmd.BACKGROUND_TEMPLATE, -66, 11, -87, -111, -28, -62, -63);
+    }
+
+    private static void classify(CommandClass type, int... commands) {
+        for (int cmd : commands) {
+            CLASS_OF[cmd & 0xFF] = type;
+        }
+    }
+
+    /**
+     * Reads the rates and costs from the server config, called before the
+     * first session is created
+     */
+    public static void configure(Properties properties) {
+        for (CommandClass type : CommandClass.values()) {
+            String value = properties.getProperty("server.ratelimit." + type.name().toLowerCase());
+            if (value != null) {
+                try {
+                    String[] parts = value.split(",");
+                    type.burst = Double.parseDouble(parts[0].trim());
+                    type.perSecond = Double.parseDouble(parts[1].trim());
+                } catch (Exception e) {
+                    Log.error(MessageThrottle.class, e, "Sai cấu hình server.ratelimit." + type.name().toLowerCase());
+                }
+            }
+        }
+        String prefix = "server.ratelimit.cost.";
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(prefix)) {
+                try {
+                    int cmd = Integer.parseInt(key.substring(prefix.length()).trim());
+                    COST[cmd & 0xFF] = Double.parseDouble(properties.getProperty(key).trim());
+                } catch (Exception e) {
+                    Log.error(MessageThrottle.class, e, "Sai cấu hình " + key);
+                }
+            }
+        }
+    }
+
+    public static CommandClass classOf(byte cmd) {
+        return CLASS_OF[cmd & 0xFF];
+    }
+
+    private final TokenBucket[] buckets = new TokenBucket[CommandClass.values().length];
+    private final AtomicReference<Move> pendingMove = new AtomicReference<>();
+
+    /**
+     * Position sent by the client and the zone the player was in then
+     */
+    public static final class Move {
+
+        public final int x;
+        public final int y;
+        public final Zone zone;
+
+        private Move(int x, int y, Zone zone) {
+            this.x = x;
+            this.y = y;
+            this.zone = zone;
+        }
+    }
+
+    public MessageThrottle() {
+        for (CommandClass type : CommandClass.values()) {
+            buckets[type.ordinal()] = new TokenBucket(type.burst, type.perSecond);
+        }
+    }
+
+    /**
+     * True when the session still has tokens for this command, moves always
+     * pass
+     */
+    public boolean tryAccept(byte cmd) {
+        CommandClass type = classOf(cmd);
+        if (type == CommandClass.MOVE) {
+            return true;
+        }
+        return buckets[type.ordinal()].tryAcquire(COST[cmd & 0xFF]);
+    }
+
+    /**
+     * Stores the latest position. True when no move was waiting, the caller
+     * then schedules {@link #pollMove()} for the end of the tick; false means
+     * the waiting move was replaced.
+     */
+    public boolean offerMove(int x, int y, Zone zone) {
+        return pendingMove.getAndSet(new Move(x, y, zone)) == null;
+    }
+
+    /**
+     * Takes the waiting move, null when there is none or it was already
+     * applied
+     */
+    public Move pollMove() {
+        return pendingMove.getAndSet(null);
+    }
+}
@@ -0,0 +1,127 @@
+package nro.server;
+
+import nro.models.item.ItemOptionTemplate;
+import nro.models.item.ItemTemplate;
+import nro.models.map.Map;
+import nro.models.map.MapTemplate;
+import nro.models.mob.MobReward;
+import nro.models.mob.MobRewardTable;
+import nro.models.mob.MobTemplate;
+import nro.models.skill.NClass;
+import nro.models.skill.SkillTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Registry - id-indexed lookup tables for maps and templates
+ *
+ * Every table is a dense array where slot i holds the entry with id i. The
+ * tables are built by Manager.loadDatabase() right after their section is
+ * loaded and never change afterwards. Services look entries up through the
+ * getters here instead of scanning the Manager lists.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class Registry {
+
+    private static MapTemplate[] mapTemplates = new MapTemplate[0];
+    private static Map[] maps = new Map[0];
+    private static ItemTemplate[] itemTemplates = new ItemTemplate[0];
+    private static ItemOptionTemplate[] itemOptionTemplates = new ItemOptionTemplate[0];
+    private static MobTemplate[] mobTemplates = new MobTemplate[0];
+    private static SkillTemplate[] skillTemplates = new SkillTemplate[0];
+    private static MobRewardTable[] mobRewards = new MobRewardTable[0];
+
+    private Registry() {
+    }
+
+    // ==================== BUILD ====================
+
+    static void indexMapTemplates(MapTemplate[] templates) {
+        mapTemplates = index(List.of(templates), t -> t.id, MapTemplate[]::new);
+    }
+
+    static void indexMaps(List<Map> list) {
+        maps = index(list, m -> m.mapId, Map[]::new);
+    }
+
+    static void indexItemTemplates(List<ItemTemplate> list) {
+        itemTemplates = index(list, t -> t.id, ItemTemplate[]::new);
+    }
+
+    static void indexItemOptionTemplates(List<ItemOptionTemplate> list) {
+        itemOptionTemplates = index(list, t -> t.id, ItemOptionTemplate[]::new);
+    }
+
+    static void indexMobTemplates(List<MobTemplate> list) {
+        mobTemplates = index(list, t -> t.id, MobTemplate[]::new);
+    }
+
+    static void indexSkillTemplates(List<NClass> classes) {
+        List<SkillTemplate> list = new ArrayList<>();
+        for (NClass nClass : classes) {
+            list.addAll(nClass.skillTemplatess);
+        }
+        skillTemplates = index(list, t -> t.id, SkillTemplate[]::new);
+    }
+
+    static void indexMobRewards(List<MobReward> rewards) {
+        List<MobRewardTable> list = new ArrayList<>();
+        for (MobReward reward : rewards) {
+            list.add(new MobRewardTable(reward));
+        }
+        mobRewards = index(list, t -> t.tempId, MobRewardTable[]::new);
+    }
+
+    private static <T> T[] index(List<T> list, ToIntFunction<T> id, IntFunction<T[]> newArray) {
+        int max = -1;
+        for (T entry : list) {
+            max = Math.max(max, id.applyAsInt(entry));
+        }
+        T[] table = newArray.apply(max + 1);
+        for (T entry : list) {
+            int i = id.applyAsInt(entry);
+            if (i >= 0 && table[i] == null) {
+                table[i] = entry;
+            }
+        }
+        return table;
+    }
+
+    private static <T> T get(T[] table, int id) {
+        return id >= 0 && id < table.length ? table[id] : null;
+    }
+
+    // ==================== LOOKUP ====================
+
+    public static MapTemplate getMapTemplate(int id) {
+        return get(mapTemplates, id);
+    }
+
+    public static Map getMap(int id) {
+        return get(maps, id);
+    }
+
+    public static ItemTemplate getItemTemplate(int id) {
+        return get(itemTemplates, id);
+    }
+
+    public static ItemOptionTemplate getItemOptionTemplate(int id) {
+        return get(itemOptionTemplates, id);
+    }
+
+    public static MobTemplate getMobTemplate(int id) {
+        return get(mobTemplates, id);
+    }
+
+    public static SkillTemplate getSkillTemplate(int id) {
+        return get(skillTemplates, id);
+    }
+
+    public static MobRewardTable getMobReward(int mobTempId) {
+        return get(mobRewards, mobTempId);
+    }
+}
@@ -3,6 +3,7 @@ package nro.server;
 import java.io.IOException;
 import nro.attr.AttributeManager;
 import nro.jdbc.DBService;
+import nro.jdbc.PlayerSaveQueue;
 import nro.jdbc.daos.AccountDAO;
 import nro.jdbc.daos.HistoryTransactionDAO;
 import nro.jdbc.daos.PlayerDAO;
@@ -16,7 +17,9 @@ import nro.models.map.phoban.BanDoKhoBau;
 import nro.models.map.phoban.DoanhTrai;
 import nro.models.player.Player;
 import nro.server.io.Session;
+import nro.server.io.netty.NettyServer;
 import nro.services.ClanService;
+import nro.services.DropQuotaService;
 import nro.utils.Log;
 import nro.utils.TimeUtil;
 import nro.utils.Util;
@@ -28,13 +31,8 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import nro.manager.TopManager;
 import nro.models.map.DaiHoiVoThuat.DaiHoiVoThuatService;
 import nro.models.map.VoDaiSinhTu.VoDaiSinhTuManager;
@@ -45,8 +43,6 @@ public class ServerManager {
 
     public static String timeStart;
 
-    public static final Map CLIENTS = new HashMap();
-
     public static String NAME = "";
     public static int PORT = 14445;
 
@@ -96,11 +92,12 @@ public class ServerManager {
             isRunning = true;
             activeCommandLine();
             activeGame();
+            TopManager.getInstance().init();
+            DropQuotaService.gI().init();
+            LoginPipeline.gI().init();
             activeLogin();
             autoTask();
 
-            new Thread(AutoMaintenance.gI(), "Thread Bảo Trì Định Kỳ").start();
-
             activeServerSocket();
         } catch (Exception e) {
             e.printStackTrace();
@@ -115,6 +112,16 @@ public class ServerManager {
     }
 
     private void activeServerSocket() {
+        if (Manager.useNetty) {
+            try {
+                Log.log("Thread: " + Thread.activeCount());
+                new NettyServer(controller).start(PORT);
+            } catch (Exception e) {
+                Log.error(ServerManager.class, e, "Lỗi mở port");
+                System.exit(0);
+            }
+            return;
+        }
         try {
             Log.log("Thread: " + Thread.activeCount());
             listenSocket = new ServerSocket(PORT);
@@ -123,10 +130,12 @@ public class ServerManager {
                     Socket sc = listenSocket.accept();
                     String ip = (((InetSocketAddress) sc.getRemoteSocketAddress()).getAddress()).toString().replace("/",
                             "");
-                    if (canConnectWithIp(ip)) {
+                    if (ConnectionAdmission.gI().tryAdmit(ip)) {
                         Session session = new Session(sc, controller, ip);
                         session.ipAddress = ip;
                     } else {
+                        // dong ngay, chua tao Session nen khong ton luong nao
+                        sc.setSoLinger(true, 0);
                         sc.close();
                     }
                 } catch (Exception e) {
@@ -140,32 +149,9 @@ public class ServerManager {
         }
     }
 
-    private boolean canConnectWithIp(String ipAddress) {
-        Object o = CLIENTS.get(ipAddress);
-        if (o == null) {
-            CLIENTS.put(ipAddress, 1);
-            return true;
-        } else {
-            int n = Integer.parseInt(String.valueOf(o));
-            if (n < Manager.MAX_PER_IP) {
-                n++;
-                CLIENTS.put(ipAddress, n);
-                return true;
-            } else {
-                return false;
-            }
-        }
-    }
-
     public void disconnect(Session session) {
-        Object o = CLIENTS.get(session.ipAddress);
-        if (o != null) {
-            int n = Integer.parseInt(String.valueOf(o));
-            n--;
-            if (n < 0) {
-                n = 0;
-            }
-            CLIENTS.put(session.ipAddress, n);
+        if (session.releaseAdmission()) {
+            ConnectionAdmission.gI().release(session.ipAddress);
         }
     }
 
@@ -178,94 +164,54 @@ public class ServerManager {
                     new Thread(() -> {
                         Maintenance.gI().start(5);
                     }).start();
+                } else if (line.equals("cmdstats")) {
+                    Log.log(CommandStats.gI().report());
+                } else if (line.equals("jobs")) {
+                    Log.log(JobScheduler.gI().report());
+                } else if (line.equals("tasks")) {
+                    Log.log(GameTasks.gI().report());
+                } else if (line.equals("logins")) {
+                    Log.log(LoginPipeline.gI().report());
                 }
             }
         }, "Active line").start();
     }
 
     private void activeGame() {
-        long delay = 100;
-        new Thread(() -> {
-            while (isRunning) {
-                long l1 = System.currentTimeMillis();
-                BossManager.gI().updateAllBoss();
-                long l2 = System.currentTimeMillis() - l1;
-                if (l2 < delay) {
-                    try {
-                        Thread.sleep(delay - l2);
-                    } catch (InterruptedException e) {
-                    }
-                }
+        JobScheduler jobs = JobScheduler.gI();
+        jobs.register("Update boss", 0, 100, () -> BossManager.gI().updateAllBoss());
+        jobs.register("Update pho ban", 0, 500, () -> {
+            for (DoanhTrai dt : DoanhTrai.DOANH_TRAIS) {
+                dt.update();
             }
-        }, "Update boss").start();
-
-        new Thread(() -> {
-            while (isRunning) {
-                long start = System.currentTimeMillis();
-                for (DoanhTrai dt : DoanhTrai.DOANH_TRAIS) {
-                    dt.update();
-                }
-                for (BanDoKhoBau bdkb : BanDoKhoBau.BAN_DO_KHO_BAUS) {
-                    bdkb.update();
-                }
-                for (KhiGas khiGas : KhiGas.KHI_GAS) {
-                    khiGas.update();
-                }
-                long timeUpdate = System.currentTimeMillis() - start;
-
-                if (timeUpdate < 500) {
-                    try {
-                        Thread.sleep(500 - timeUpdate);
-                    } catch (InterruptedException e) {
-                    }
-                }
+            for (BanDoKhoBau bdkb : BanDoKhoBau.BAN_DO_KHO_BAUS) {
+                bdkb.update();
             }
-        }, "Update pho ban").start();
-        new Thread(() -> {
-            while (isRunning) {
-                try {
-                    long start = System.currentTimeMillis();
-                    if (attributeManager != null) {
-                        attributeManager.update();
-                        if (Util.canDoWithTime(lastUpdateAttribute, 600000)) {
-                            Manager.gI().updateAttributeServer();
-                        }
-                    }
-                    long timeUpdate = System.currentTimeMillis() - start;
-                    if (timeUpdate < delay) {
-                        Thread.sleep(delay - timeUpdate);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
+            for (KhiGas khiGas : KhiGas.KHI_GAS) {
+                khiGas.update();
+            }
+        });
+        jobs.register("Update Attribute Server", 0, 100, () -> {
+            if (attributeManager != null) {
+                attributeManager.update();
+                if (Util.canDoWithTime(lastUpdateAttribute, 600000)) {
+                    Manager.gI().updateAttributeServer();
                 }
             }
-        }, "Update Attribute Server").start();
+        });
 
         dungeonManager = new DungeonManager();
-        dungeonManager.start();
-
-        new Thread(dungeonManager, "Con Đường Rắn Độc").start();
+        jobs.register("Con Đường Rắn Độc", 0, 1000, dungeonManager::update);
 
-        new Thread(() -> {
-            while (isRunning) {
-                try {
-                    long start = System.currentTimeMillis();
-                    DHVT23Manager.gI().update();
-                    VoDaiSinhTuManager.gI().update();
-                    long timeUpdate = System.currentTimeMillis() - start;
-                    if (timeUpdate < delay) {
-                        Thread.sleep(delay - timeUpdate);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-        }, "Update dai hoi vo thuat").start();
+        jobs.register("Update dai hoi vo thuat", 0, 100, () -> {
+            DHVT23Manager.gI().update();
+            VoDaiSinhTuManager.gI().update();
+        });
     }
 
     public void close(long delay) {
         try {
-            dungeonManager.shutdown();
+            JobScheduler.gI().shutdown();
         } catch (Exception e) {
             Log.error(ServerManager.class, e);
         }
@@ -294,7 +240,22 @@ public class ServerManager {
         } catch (Exception e) {
             Log.error(ServerManager.class, e);
         }
+        try {
+            DropQuotaService.gI().close();
+        } catch (Exception e) {
+            Log.error(ServerManager.class, e);
+        }
+        try {
+            LoginPipeline.gI().close();
+        } catch (Exception e) {
+            Log.error(ServerManager.class, e);
+        }
         Client.gI().close();
+        try {
+            PlayerSaveQueue.gI().shutdown();
+        } catch (Exception e) {
+            Log.error(ServerManager.class, e);
+        }
         Log.success("SUCCESSFULLY MAINTENANCE!...................................");
         /// AUTO RUN - Cross-platform support
         try {
@@ -319,46 +280,26 @@ public class ServerManager {
     }
 
     public void saveAll(boolean updateTimeLogout) {
-        try (Connection conn = DBService.gI().getConnectionForAutoSave()) {
-            List<Player> list = Client.gI().getPlayers();
-            for (Player player : list) {
-                try {
-                    PlayerDAO.updateTimeLogout = updateTimeLogout;
-                    PlayerDAO.updatePlayer(player, conn);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+        List<Player> list = Client.gI().getPlayers();
+        for (Player player : list) {
+            try {
+                PlayerSaveQueue.gI().submit(PlayerDAO.snapshot(player, updateTimeLogout));
+            } catch (Exception e) {
+                e.printStackTrace();
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
         }
     }
 
     public void autoTask() {
-        ScheduledExecutorService autoSave = Executors.newScheduledThreadPool(1);
-        autoSave.scheduleWithFixedDelay(() -> {
+        JobScheduler jobs = JobScheduler.gI();
+        jobs.register("Auto save", 300000, 300000, () -> {
             saveAll(false);
-        }, 300000, 300000, TimeUnit.MILLISECONDS);
-
-        ScheduledExecutorService autoDHVTM = Executors.newScheduledThreadPool(1);
-        autoDHVTM.scheduleWithFixedDelay(() -> {
-            DaiHoiVoThuatService.gI().initDaiHoiVoThuat();
-        }, 0, 1, TimeUnit.MINUTES);
-
-        ScheduledExecutorService autoTopPower = Executors.newScheduledThreadPool(1);
-        autoTopPower.scheduleWithFixedDelay(() -> {
-            TopManager.getInstance().loadTopNangDong();
-        }, 0, 600000, TimeUnit.MILLISECONDS);
-
+            KiGuiManager.getInstance().save();
+        });
+        jobs.register("Dai hoi vo thuat", 0, 60000, () -> DaiHoiVoThuatService.gI().initDaiHoiVoThuat());
         // Update Địa Cung mỗi 5 giây
-        ScheduledExecutorService autoDungeonManage = Executors.newScheduledThreadPool(1);
-        autoDungeonManage.scheduleWithFixedDelay(() -> {
-            try {
-                nro.ahwuocdz.DungeonManage.gI().globalUpdate();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }, 5000, 5000, TimeUnit.MILLISECONDS);
-
+        jobs.register("Dia cung", 5000, 5000, () -> nro.ahwuocdz.DungeonManage.gI().globalUpdate());
+        // lich bao tri kiem tra theo phut, lo mot lan thi chay bu de khong bo qua phut bao tri
+        jobs.register("Bao tri dinh ky", 30000, 30000, JobScheduler.MissedRuns.CATCH_UP, AutoMaintenance.gI());
     }
 }
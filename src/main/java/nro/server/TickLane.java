@@ -0,0 +1,82 @@
+package nro.server;
+
+import nro.models.map.Zone;
+import nro.utils.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TickLane - one execution lane of the GameLoop
+ *
+ * Every zone is owned by exactly one lane for its whole lifetime, and a lane
+ * updates each of its zones at most once per tick.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public class TickLane {
+
+    private static final ThreadLocal<TickLane> CURRENT = new ThreadLocal<>();
+
+    private final int id;
+    private final List<Zone> zones = new ArrayList<>();
+    private long lastRunDuration;
+
+    public TickLane(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the lane being run by the calling thread, null outside of a lane pass
+     */
+    public static TickLane current() {
+        return CURRENT.get();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Clears the zones collected for the previous tick
+     */
+    void reset() {
+        zones.clear();
+    }
+
+    /**
+     * Queues a zone for the current tick
+     */
+    void add(Zone zone) {
+        zones.add(zone);
+    }
+
+    public int size() {
+        return zones.size();
+    }
+
+    public long getLastRunDuration() {
+        return lastRunDuration;
+    }
+
+    /**
+     * Updates every zone queued on this lane once
+     */
+    void run(long tick) {
+        long start = System.currentTimeMillis();
+        CURRENT.set(this);
+        try {
+            for (int i = 0; i < zones.size(); i++) {
+                Zone zone = zones.get(i);
+                try {
+                    zone.update();
+                } catch (Exception e) {
+                    Log.error(TickLane.class, e, "Error updating zone " + zone.zoneId + " in map: " + zone.map.mapName);
+                }
+            }
+        } finally {
+            CURRENT.remove();
+        }
+        lastRunDuration = System.currentTimeMillis() - start;
+    }
+}
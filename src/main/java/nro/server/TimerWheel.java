@@ -0,0 +1,179 @@
+package nro.server;
+
+import nro.utils.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * TimerWheel - hierarchical timing wheel driven by the TickManager clock
+ *
+ * Entities register a callback for a future tick instead of polling a
+ * timestamp every tick. Level 0 has one slot per tick, every higher level
+ * covers 256 times the span of the one below and hands its timers down when
+ * the clock reaches their slot, so a tick only touches timers that fire.
+ *
+ * Timers can be scheduled from any thread. The GameLoop advances the wheel
+ * on its own thread once every lane finished the tick, callbacks therefore
+ * never run concurrently with zone updates.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class TimerWheel {
+
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private static final TimerWheel instance = new TimerWheel();
+
+    public static TimerWheel gI() {
+        return instance;
+    }
+
+    // slot s of level l is wheel.get(l * SLOTS + s)
+    private final List<List<Timer>> wheel = new ArrayList<>(LEVELS * SLOTS);
+    private final Queue<Timer> incoming = new ConcurrentLinkedQueue<>();
+    private final List<Timer> due = new ArrayList<>();
+    private long now = -1;
+
+    private TimerWheel() {
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Handle of a scheduled callback
+     */
+    public static final class Timer {
+
+        private final Runnable task;
+        private final long period;
+        private long expiry;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        private Timer(long expiry, long period, Runnable task) {
+            this.expiry = expiry;
+            this.period = period;
+            this.task = task;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            done = true;
+        }
+
+        /**
+         * True once a one-shot timer fired or any timer was cancelled
+         */
+        public boolean isDone() {
+            return done;
+        }
+    }
+
+    /**
+     * Runs the task once after delayTicks ticks
+     */
+    public Timer schedule(long delayTicks, Runnable task) {
+        return add(new Timer(TickManager.gI().getCurrentTick() + Math.max(0, delayTicks), 0, task));
+    }
+
+    /**
+     * Runs the task after delayTicks ticks, then every periodTicks ticks
+     * until cancelled
+     */
+    public Timer scheduleAtFixedRate(long delayTicks, long periodTicks, Runnable task) {
+        return add(new Timer(TickManager.gI().getCurrentTick() + Math.max(0, delayTicks), Math.max(1, periodTicks), task));
+    }
+
+    /**
+     * Ticks needed for a duration in milliseconds, rounded up
+     */
+    public static long millisToTicks(long millis) {
+        return (Math.max(0, millis) + TickManager.TICK_DURATION_MS - 1) / TickManager.TICK_DURATION_MS;
+    }
+
+    private Timer add(Timer timer) {
+        incoming.add(timer);
+        return timer;
+    }
+
+    /**
+     * Moves the wheel up to the given tick and runs every timer that is due,
+     * called by the GameLoop only
+     */
+    void advance(long tick) {
+        if (now < 0) {
+            now = tick - 1;
+        }
+        Timer timer;
+        while ((timer = incoming.poll()) != null) {
+            place(timer);
+        }
+        while (now < tick) {
+            now++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((now & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((now >>> (BITS * level)) & MASK));
+                }
+            }
+            List<Timer> slot = wheel.get((int) (now & MASK));
+            due.addAll(slot);
+            slot.clear();
+            fire();
+        }
+    }
+
+    private void cascade(int level, int index) {
+        List<Timer> slot = wheel.get(level * SLOTS + index);
+        if (slot.isEmpty()) {
+            return;
+        }
+        wheel.set(level * SLOTS + index, new ArrayList<>());
+        for (Timer timer : slot) {
+            place(timer);
+        }
+    }
+
+    private void place(Timer timer) {
+        if (timer.cancelled) {
+            return;
+        }
+        long delta = timer.expiry - now;
+        if (delta <= 0) {
+            due.add(timer);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        wheel.get(level * SLOTS + (int) ((timer.expiry >>> (BITS * level)) & MASK)).add(timer);
+    }
+
+    private void fire() {
+        for (int i = 0; i < due.size(); i++) {
+            Timer timer = due.get(i);
+            if (timer.cancelled) {
+                continue;
+            }
+            try {
+                timer.task.run();
+            } catch (Exception e) {
+                Log.error(TimerWheel.class, e, "Error in timer callback");
+            }
+            if (timer.period > 0 && !timer.cancelled) {
+                timer.expiry = now + timer.period;
+                place(timer);
+            } else {
+                timer.done = true;
+            }
+        }
+        due.clear();
+    }
+}
@@ -0,0 +1,46 @@
+package nro.server;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TokenBucket - holds up to capacity tokens, refilled continuously at a fixed
+ * rate
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double perNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double capacity, double perSecond) {
+        this.capacity = Math.max(1, capacity);
+        this.perNano = Math.max(0, perSecond) / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    synchronized boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * Takes cost tokens if the bucket holds that many
+     */
+    synchronized boolean tryAcquire(double cost) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * perNano);
+        lastRefill = now;
+        if (tokens < cost) {
+            return false;
+        }
+        tokens -= cost;
+        return true;
+    }
+
+    synchronized boolean isFull() {
+        return tokens + (System.nanoTime() - lastRefill) * perNano >= capacity;
+    }
+}
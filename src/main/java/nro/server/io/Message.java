@@ -1,28 +1,51 @@
 package nro.server.io;
 
+import nro.server.io.pool.MessageBuffer;
+import nro.server.io.pool.MessageBufferPool;
+import nro.server.io.pool.MessageReader;
+
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
-
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Outbound payloads live in a pooled MessageBuffer that is reference counted:
+ * the creator owns one reference, released by cleanup(), and every queued send
+ * holds another until the sender has written it. The buffer goes back to the
+ * pool once the last reference is gone. Only the creator calls cleanup(), the
+ * send and broadcast helpers never give up its reference.
+ */
 public class Message {
 
+    private static final AtomicIntegerFieldUpdater<Message> REF_CNT
+            = AtomicIntegerFieldUpdater.newUpdater(Message.class, "refCnt");
+    private static final AtomicIntegerFieldUpdater<Message> OWNER_RELEASED
+            = AtomicIntegerFieldUpdater.newUpdater(Message.class, "ownerReleased");
+
     public byte command;
 
     public boolean isBigMsg;
 
-    private ByteArrayOutputStream os;
+    private MessageBuffer os;
 
     private DataOutputStream dos;
 
     private ByteArrayInputStream is;
 
     private DataInputStream dis;
-    
+
     private byte[] rawData;
 
+    private int rawLength;
+
+    private volatile int refCnt = 1;
+
+    private volatile int ownerReleased;
+
     public Message() {
-        this.os = new ByteArrayOutputStream();
+        this.os = MessageBufferPool.gI().acquire(command);
         this.dos = new DataOutputStream(os);
     }
 
@@ -32,17 +55,37 @@ public class Message {
 
     public Message(byte command) {
         this.command = command;
-        this.os = new ByteArrayOutputStream();
+        this.os = MessageBufferPool.gI().acquire(command);
         this.dos = new DataOutputStream(os);
     }
 
     public Message(byte command, byte[] data) {
         this.command = command;
         this.rawData = data;
+        this.rawLength = data.length;
         this.is = new ByteArrayInputStream(data);
         this.dis = new DataInputStream(is);
     }
 
+    /**
+     * Reusable inbound message reading in place from a receive buffer,
+     * see {@link #wrap(byte, int)}
+     */
+    public Message(byte[] receiveBuffer) {
+        this.rawData = receiveBuffer;
+        this.is = new MessageReader(receiveBuffer);
+        this.dis = new DataInputStream(is);
+    }
+
+    /**
+     * Points a reusable inbound message at the next frame of its receive buffer
+     */
+    public void wrap(byte command, int length) {
+        this.command = command;
+        this.rawLength = length;
+        ((MessageReader) this.is).reset(length);
+    }
+
     public DataOutputStream writer() {
         return dos;
     }
@@ -55,22 +98,82 @@ public class Message {
         if (this.os != null) {
             return this.os.toByteArray();
         }
+        if (this.rawData != null && this.rawLength != this.rawData.length) {
+            return Arrays.copyOf(this.rawData, this.rawLength);
+        }
+        return this.rawData;
+    }
+
+    /**
+     * Payload array for senders, valid for {@link #length()} bytes and only
+     * while a reference is held. Must not be modified: a broadcast shares it
+     * between every recipient.
+     */
+    public byte[] buffer() {
+        if (this.os != null) {
+            return this.os.array();
+        }
         return this.rawData;
     }
 
+    public int length() {
+        if (this.os != null) {
+            return this.os.size();
+        }
+        return this.rawLength;
+    }
+
+    /**
+     * Kept for the broadcast helpers; recipients already share the pooled
+     * payload by reference, so there is nothing to serialize up front.
+     */
     public void transformData() {
     }
 
+    /**
+     * Takes a reference for a pending send. Fails once the last reference is
+     * gone: the buffer may already carry another message.
+     */
+    public void retain() {
+        while (true) {
+            int cnt = refCnt;
+            if (cnt <= 0) {
+                throw new IllegalStateException("Message " + command + " sent after cleanup");
+            }
+            if (REF_CNT.compareAndSet(this, cnt, cnt + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops a reference taken by {@link #retain()}
+     */
+    public void release() {
+        if (REF_CNT.decrementAndGet(this) == 0) {
+            recycle();
+        }
+    }
+
+    private void recycle() {
+        MessageBuffer buffer = this.os;
+        if (buffer != null) {
+            this.os = null;
+            this.dos = null;
+            MessageBufferPool.gI().release(command, buffer);
+        }
+    }
+
     public void cleanup() {
         try {
             if (dis != null) {
                 dis.close();
             }
-            if (dos != null) {
-                dos.close();
-            }
         } catch (Exception e) {
         }
+        if (OWNER_RELEASED.compareAndSet(this, 0, 1)) {
+            release();
+        }
     }
 
     public void dispose() {
@@ -3,6 +3,7 @@ package nro.server.io;
 import nro.consts.Cmd;
 import nro.server.Client;
 
+import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.net.Socket;
@@ -15,13 +16,19 @@ import java.net.Socket;
  */
 public class MessageCollector implements Runnable {
 
+    private static final int MAX_SIZE = 1024;
+
     private DataInputStream dis;
     private Session session;
+    // every frame is decoded into the same buffer and read through the same message,
+    // Controller.onMessage never keeps a message past its call
+    private final byte[] receiveBuffer = new byte[MAX_SIZE];
+    private final Message inbound = new Message(receiveBuffer);
 
     public MessageCollector(Session session, Socket socket) {
         try {
             this.session = session;
-            this.dis = new DataInputStream(socket.getInputStream());
+            this.dis = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 4096));
         } catch (Exception e) {
         }
     }
@@ -62,10 +69,10 @@ public class MessageCollector implements Runnable {
         } else {
             size = dis.readUnsignedShort();
         }
-        if (size > 1024) {
+        if (size > MAX_SIZE) {
             throw new IOException("Data too big");
         }
-        byte data[] = new byte[size];
+        byte data[] = receiveBuffer;
         int len = 0;
         int byteRead = 0;
         while (len != -1 && byteRead < size) {
@@ -75,22 +82,19 @@ public class MessageCollector implements Runnable {
             }
         }
         if (session.connected) {
-            for (int i = 0; i < data.length; i++) {
+            for (int i = 0; i < size; i++) {
                 data[i] = readKey(data[i]);
             }
         }
         if (session.logCheck) {
             System.out.println("Time read message: " + (System.currentTimeMillis() - st) + " ms");
         }
-        return new Message(cmd, data);
+        inbound.wrap(cmd, size);
+        return inbound;
     }
 
     private byte readKey(byte b) {
-        byte i = (byte) ((Session.KEYS[session.curR++] & 255) ^ (b & 255));
-        if (session.curR >= Session.KEYS.length) {
-            session.curR %= Session.KEYS.length;
-        }
-        return i;
+        return session.readKey(b);
     }
 
     void close() throws IOException {
@@ -3,113 +3,161 @@ package nro.server.io;
 import static nro.server.io.Session.KEYS;
 import nro.utils.Log;
 
+import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.Socket;
-import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  *
  * @author 💖 ahwuocdz 💖
  * 
+ * Outbound messages are queued lock-free by any thread; the send thread parks
+ * while the queue is empty, is unparked on enqueue and drains a whole batch
+ * into the socket buffer before a single flush.
  *
  */
 public class MessageSender implements Runnable {
 
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_BATCH = 256;
+
     private Session session;
-    private ArrayList<Message> sendingMessage;
+    private Queue<Message> sendingMessage;
+    private final AtomicInteger numMessage = new AtomicInteger();
+    private final Object writeLock = new Object();
+    private volatile Thread sendThread;
+    private volatile boolean waiting;
+    // keyed copy of the payload, data from getData() may be shared with other sessions
+    private final byte[] keyBuffer = new byte[BUFFER_SIZE];
     DataOutputStream dos;
 
     public int getNumMessage() {
-        return this.sendingMessage.size();
+        return this.numMessage.get();
     }
 
     public MessageSender(Session session, Socket socket) {
-        sendingMessage = new ArrayList<>();
+        sendingMessage = new ConcurrentLinkedQueue<>();
         try {
             this.session = session;
-            this.dos = new DataOutputStream(socket.getOutputStream());
+            this.dos = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
         } catch (Exception e) {
             Log.error(MessageSender.class, e);
         }
     }
 
     public void addMessage(Message message) {
-        try {
-            sendingMessage.add(message);
-        } catch (Exception e) {
+        Queue<Message> queue = sendingMessage;
+        if (queue == null || message == null) {
+            return;
+        }
+        message.retain();
+        queue.offer(message);
+        numMessage.incrementAndGet();
+        if (waiting) {
+            LockSupport.unpark(sendThread);
         }
     }
 
     @Override
     public void run() {
-        Message message;
+        sendThread = Thread.currentThread();
         while (session != null && session.connected) {
-            try {
-                while ((message = sendingMessage.remove(0)) != null) {
-                    doSendMessage(message);
+            Queue<Message> queue = sendingMessage;
+            if (queue == null) {
+                break;
+            }
+            Message message = queue.poll();
+            if (message == null) {
+                waiting = true;
+                if (queue.isEmpty() && session != null && session.connected) {
+                    LockSupport.park(this);
                 }
-            } catch (Exception e) {
+                waiting = false;
+                continue;
             }
             try {
-                Thread.sleep(10);
+                synchronized (writeLock) {
+                    int count = 0;
+                    do {
+                        numMessage.decrementAndGet();
+                        try {
+                            writeMessage(message);
+                        } finally {
+                            message.release();
+                        }
+                    } while (++count < MAX_BATCH && (message = queue.poll()) != null);
+                    dos.flush();
+                }
             } catch (Exception e) {
             }
         }
     }
 
+    /**
+     * Writes one message and flushes right away, used before the send thread runs
+     */
     public void doSendMessage(Message msg) {
         try {
-            byte[] data = msg.getData();
-            if (session.connected) {
-                byte b = writeKey(msg.command);
-                dos.writeByte(b);
+            synchronized (writeLock) {
+                writeMessage(msg);
+                dos.flush();
+            }
+        } catch (Exception e) {
+            // Client.gI().kickSession(session);
+        }
+    }
+
+    private void writeMessage(Message msg) throws IOException {
+        byte[] data = msg.buffer();
+        if (session.connected) {
+            byte b = writeKey(msg.command);
+            dos.writeByte(b);
+        } else {
+            dos.writeByte(msg.command);
+        }
+        if (data != null) {
+            int size = msg.length();
+            if (Session.isBigMessage(msg.command)) {
+                byte b = writeKey((byte) (size));
+                dos.writeByte(b - 128);
+                byte b2 = writeKey((byte) (size >> 8));
+                dos.writeByte(b2 - 128);
+                byte b3 = writeKey((byte) (size >> 16));
+                dos.writeByte(b3 - 128);
+            } else if (session.connected) {
+                int byte1 = writeKey((byte) (size >> 8));
+                dos.writeByte(byte1);
+                int byte2 = writeKey((byte) (size & 255));
+                dos.writeByte(byte2);
             } else {
-                dos.writeByte(msg.command);
+                dos.writeShort(size);
             }
-            if (data != null) {
-                int size = data.length;
-                if (msg.command == -32 || msg.command == -66 || msg.command == -74 || msg.command == 11
-                        || msg.command == -67 || msg.command == -87 || msg.command == 66) {
-                    byte b = writeKey((byte) (size));
-                    dos.writeByte(b - 128);
-                    byte b2 = writeKey((byte) (size >> 8));
-                    dos.writeByte(b2 - 128);
-                    byte b3 = writeKey((byte) (size >> 16));
-                    dos.writeByte(b3 - 128);
-                } else if (session.connected) {
-                    int byte1 = writeKey((byte) (size >> 8));
-                    dos.writeByte(byte1);
-                    int byte2 = writeKey((byte) (size & 255));
-                    dos.writeByte(byte2);
-                } else {
-                    dos.writeShort(size);
-                }
-                if (session.connected) {
-                    for (int i = 0; i < data.length; i++) {
-                        data[i] = writeKey(data[i]);
+            if (session.connected) {
+                for (int off = 0; off < size; off += keyBuffer.length) {
+                    int len = Math.min(keyBuffer.length, size - off);
+                    for (int i = 0; i < len; i++) {
+                        keyBuffer[i] = writeKey(data[off + i]);
                     }
+                    dos.write(keyBuffer, 0, len);
                 }
-                dos.write(data);
             } else {
-                dos.writeShort(0);
+                dos.write(data, 0, size);
             }
-            dos.flush();
-            msg.cleanup();
-        } catch (Exception e) {
-            // Client.gI().kickSession(session);
+        } else {
+            dos.writeShort(0);
         }
     }
 
     private byte writeKey(byte b) {
-        byte i = (byte) ((Session.KEYS[session.curW++] & 255) ^ (b & 255));
-        if (session.curW >= Session.KEYS.length) {
-            session.curW %= Session.KEYS.length;
-        }
-        return i;
+        return session.writeKey(b);
     }
 
-    public void sendSessionKey() {
+    static Message createSessionKeyMessage() {
         Message msg = new Message(-27);
         try {
             msg.writer().writeByte(KEYS.length);
@@ -120,6 +168,14 @@ public class MessageSender implements Runnable {
             msg.writer().writeUTF("localhost");
             msg.writer().writeInt(14445);
             msg.writer().writeBoolean(false);
+        } catch (Exception e) {
+        }
+        return msg;
+    }
+
+    public void sendSessionKey() {
+        Message msg = createSessionKeyMessage();
+        try {
             doSendMessage(msg);
             msg.cleanup();
             session.connected = true;
@@ -134,9 +190,17 @@ public class MessageSender implements Runnable {
         }
         this.dos = null;
         this.session = null;
-        if (this.sendingMessage != null) {
-            this.sendingMessage.clear();
-        }
+        Queue<Message> queue = this.sendingMessage;
         this.sendingMessage = null;
+        if (queue != null) {
+            Message message;
+            while ((message = queue.poll()) != null) {
+                message.release();
+            }
+        }
+        this.numMessage.set(0);
+        if (this.sendThread != null) {
+            LockSupport.unpark(this.sendThread);
+        }
     }
 }
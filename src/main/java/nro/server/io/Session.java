@@ -1,34 +1,31 @@
 package nro.server.io;
 
 import nro.data.DataGame;
-import nro.jdbc.daos.GodGK;
 import nro.models.item.Item;
 import nro.models.item.ItemOption;
 import nro.models.player.Player;
 import nro.resources.Resources;
 import nro.server.*;
 import nro.server.*;
-import nro.server.model.AntiLogin;
 import nro.services.*;
 import nro.utils.Log;
 import nro.utils.Util;
+import io.netty.channel.Channel;
 import lombok.Setter;
 import nro.services.ItemService;
 import nro.services.ItemTimeService;
 import nro.services.Service;
 import nro.services.TaskService;
 
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import static nro.server.Manager.KEY_SERVER;
 
 public class Session {
 
-    private static final Map<String, AntiLogin> ANTILOGIN = new HashMap<>();
-
     private static final int TIME_WAIT_READ_MESSAGE = 180000;
 
     public boolean logCheck;
@@ -41,11 +38,12 @@ public class Session {
 
     public byte timeWait = 50;
 
-    public boolean connected;
+    public volatile boolean connected;
 
     static final byte[] KEYS = { 0 };
     byte curR, curW;
     private Socket socket;
+    private Channel channel;
     Thread sendThread;
     Thread receiveThread;
     Thread doControllerThread;
@@ -55,6 +53,9 @@ public class Session {
     Controller controller;
 
     public String ipAddress;
+    private final AtomicBoolean admissionReleased = new AtomicBoolean();
+    private final AtomicBoolean loadingPlayer = new AtomicBoolean();
+    public final MessageThrottle throttle = new MessageThrottle();
     public boolean isAdmin;
     public int userId;
     public String uu;
@@ -137,6 +138,10 @@ public class Session {
     }
 
     public int getNumOfMessages() {
+        if (this.channel != null) {
+            return this.channel.unsafe().outboundBuffer() != null
+                    ? this.channel.unsafe().outboundBuffer().size() : 0;
+        }
         return this.sender.getNumMessage();
     }
 
@@ -155,18 +160,73 @@ public class Session {
         }
     }
 
+    /**
+     * Session served by the Netty transport, no per-session threads
+     */
+    public Session(Channel channel, Controller controller, String ip) {
+        this.id = baseId++;
+        this.channel = channel;
+        this.controller = controller;
+        this.ipAddress = ip;
+        Client.gI().put(this);
+    }
+
+    public Controller getController() {
+        return controller;
+    }
+
     public void sendMessage(Message msg) {
-        if (this.sender != null) {
+        if (this.channel != null) {
+            msg.retain();
+            channel.writeAndFlush(msg);
+        } else if (this.sender != null) {
             sender.addMessage(msg);
         }
     }
 
     public void doSendMessage(Message msg) {
-        if (this.sender != null) {
+        if (this.channel != null) {
+            msg.retain();
+            channel.writeAndFlush(msg);
+        } else if (this.sender != null) {
             sender.doSendMessage(msg);
         }
     }
 
+    /**
+     * XOR key stream shared by both transports
+     */
+    public byte readKey(byte b) {
+        byte i = (byte) ((KEYS[curR++] & 255) ^ (b & 255));
+        if (curR >= KEYS.length) {
+            curR %= KEYS.length;
+        }
+        return i;
+    }
+
+    /**
+     * Decodes a byte that is offset positions ahead without advancing the read key
+     */
+    public byte peekReadKey(int offset, byte b) {
+        return (byte) ((KEYS[(curR + offset) % KEYS.length] & 255) ^ (b & 255));
+    }
+
+    public byte writeKey(byte b) {
+        byte i = (byte) ((KEYS[curW++] & 255) ^ (b & 255));
+        if (curW >= KEYS.length) {
+            curW %= KEYS.length;
+        }
+        return i;
+    }
+
+    /**
+     * Commands whose size is written on 3 bytes
+     */
+    public static boolean isBigMessage(byte command) {
+        return command == -32 || command == -66 || command == -74 || command == 11
+                || command == -67 || command == -87 || command == 66;
+    }
+
     public void disconnect() {
         if (connected) {
             connected = false;
@@ -183,6 +243,9 @@ public class Session {
                 if (socket != null) {
                     socket.close();
                 }
+                if (channel != null) {
+                    channel.close();
+                }
                 this.socket = null;
                 this.sender = null;
                 this.collector = null;
@@ -243,30 +306,33 @@ public class Session {
     public String getName() {
         if (this.player != null) {
             return this.player.name;
+        } else if (this.channel != null) {
+            return String.valueOf(((InetSocketAddress) this.channel.remoteAddress()).getPort());
         } else {
             return String.valueOf(this.socket.getPort());
         }
     }
 
     public void sendSessionKey() {
+        if (this.channel != null) {
+            // the key message goes out in clear; switching to keyed framing on the
+            // event loop orders the switch with every other encode and decode
+            Message msg = MessageSender.createSessionKeyMessage();
+            channel.eventLoop().execute(() -> {
+                channel.writeAndFlush(msg);
+                connected = true;
+            });
+            return;
+        }
         this.sender.sendSessionKey();
     }
 
-    public boolean canConnectWithIp() {
-        Object o = ServerManager.CLIENTS.get(ipAddress);
-        if (o == null) {
-            ServerManager.CLIENTS.put(ipAddress, 1);
-            return true;
-        } else {
-            int n = Integer.parseInt(String.valueOf(o));
-            if (n < Manager.MAX_PER_IP) {
-                n++;
-                ServerManager.CLIENTS.put(ipAddress, n);
-                return true;
-            } else {
-                return false;
-            }
-        }
+    /**
+     * True only for the first call, the connection slot of this session is
+     * given back exactly once however often it is kicked
+     */
+    public boolean releaseAdmission() {
+        return admissionReleased.compareAndSet(false, true);
     }
 
     public void login(String username, String password) {
@@ -277,16 +343,11 @@ public class Session {
         if (!isSetClientType || logging || loginSuccess) {
             return;
         }
-        logging = true;
-        AntiLogin al = ANTILOGIN.get(this.ipAddress);
-        if (al == null) {
-            al = new AntiLogin();
-            ANTILOGIN.put(this.ipAddress, al);
-        }
-        if (!al.canLogin()) {
-            Service.getInstance().sendThongBaoOK(this, al.getNotifyCannotLogin());
+        if (!ConnectionAdmission.gI().tryLogin(this.ipAddress)) {
+            Service.getInstance().sendThongBaoOK(this, "Bạn đăng nhập quá nhanh, vui lòng thử lại sau ít phút");
             return;
         }
+        logging = true;
         if (!this.isAdmin && Client.gI().getPlayers().size() >= Manager.MAX_PLAYER) {
             Service.getInstance().sendThongBaoOK(this, "Máy chủ hiện đang quá tải, "
                     + "cư dân vui lòng di chuyển sang máy chủ khác.");
@@ -312,19 +373,21 @@ public class Session {
 
     public void finishUpdate() {
         if (loginSuccess && !joinedGame) {
-            player = GodGK.loadPlayer(this);
-            if (!dataLoadFailed) {
-                if (player != null) {
-                    enter();
-                } else {
-                    Service.getInstance().switchToCreateChar(this);
-                }
-            } else {
-                Service.getInstance().sendThongBaoOK(this, "Lỗi tải dữ liệu vui lòng báo với admin.");
-            }
+            LoginPipeline.gI().submit(this);
         }
     }
 
+    /**
+     * True when no load of this session's player is queued or running yet
+     */
+    public boolean beginLoad() {
+        return loadingPlayer.compareAndSet(false, true);
+    }
+
+    public void endLoad() {
+        loadingPlayer.set(false);
+    }
+
     public void enter() {
         if (!joinedGame) {
             joinedGame = true;
@@ -362,6 +425,8 @@ public class Session {
             player.playerSkill.sendSkillShortCut();
             // item time
             ItemTimeService.gI().sendAllItemTime(player);
+            player.itemTime.scheduleExpiry();
+            player.effectSkill.scheduleExpiry();
 
             // send current task
             TaskService.gI().sendInfoCurrentTask(player);
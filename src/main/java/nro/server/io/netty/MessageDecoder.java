@@ -0,0 +1,60 @@
+package nro.server.io.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import nro.server.io.Message;
+import nro.server.io.Session;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Splits the inbound stream into messages and undoes the session XOR key.
+ *
+ * The key cursor only advances once a whole frame is available, so a partial
+ * frame can be retried on the next read.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public class MessageDecoder extends ByteToMessageDecoder {
+
+    private static final int MAX_SIZE = 1024;
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        Session session = ctx.channel().attr(NettyServer.SESSION).get();
+        if (in.readableBytes() < 3) {
+            return;
+        }
+        int index = in.readerIndex();
+        boolean connected = session.connected;
+        int size;
+        if (connected) {
+            size = (session.peekReadKey(1, in.getByte(index + 1)) & 255) << 8
+                    | session.peekReadKey(2, in.getByte(index + 2)) & 255;
+        } else {
+            size = in.getUnsignedShort(index + 1);
+        }
+        if (size > MAX_SIZE) {
+            throw new IOException("Data too big");
+        }
+        if (in.readableBytes() < 3 + size) {
+            return;
+        }
+        byte cmd = in.readByte();
+        byte[] data = new byte[size];
+        if (connected) {
+            cmd = session.readKey(cmd);
+            session.readKey(in.readByte());
+            session.readKey(in.readByte());
+            for (int i = 0; i < size; i++) {
+                data[i] = session.readKey(in.readByte());
+            }
+        } else {
+            in.skipBytes(2);
+            in.readBytes(data);
+        }
+        out.add(new Message(cmd, data));
+    }
+}
@@ -0,0 +1,55 @@
+package nro.server.io.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import nro.server.io.Message;
+import nro.server.io.Session;
+
+/**
+ * Writes outbound messages with the same framing as MessageSender and applies
+ * the session XOR key while copying, leaving the message payload untouched.
+ * Releases the reference taken by Session when the message was queued.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public class MessageEncoder extends MessageToByteEncoder<Message> {
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Message msg, ByteBuf out) {
+        try {
+            encode(ctx.channel().attr(NettyServer.SESSION).get(), msg, out);
+        } finally {
+            msg.release();
+        }
+    }
+
+    private void encode(Session session, Message msg, ByteBuf out) {
+        boolean connected = session.connected;
+        byte[] data = msg.buffer();
+        out.writeByte(connected ? session.writeKey(msg.command) : msg.command);
+        if (data == null) {
+            out.writeShort(0);
+            return;
+        }
+        int size = msg.length();
+        out.ensureWritable(size + 3);
+        if (Session.isBigMessage(msg.command)) {
+            out.writeByte(session.writeKey((byte) size) - 128);
+            out.writeByte(session.writeKey((byte) (size >> 8)) - 128);
+            out.writeByte(session.writeKey((byte) (size >> 16)) - 128);
+        } else if (connected) {
+            out.writeByte(session.writeKey((byte) (size >> 8)));
+            out.writeByte(session.writeKey((byte) (size & 255)));
+        } else {
+            out.writeShort(size);
+        }
+        if (connected) {
+            for (int i = 0; i < size; i++) {
+                out.writeByte(session.writeKey(data[i]));
+            }
+        } else {
+            out.writeBytes(data, 0, size);
+        }
+    }
+}
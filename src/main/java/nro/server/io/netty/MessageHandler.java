@@ -0,0 +1,46 @@
+package nro.server.io.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import nro.consts.Cmd;
+import nro.server.Client;
+import nro.server.io.Message;
+import nro.server.io.Session;
+
+/**
+ * Hands decoded messages to the session controller, the Netty counterpart of
+ * MessageCollector.run().
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public class MessageHandler extends SimpleChannelInboundHandler<Message> {
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Message msg) {
+        Session session = ctx.channel().attr(NettyServer.SESSION).get();
+        session.lastTimeReadMessage = System.currentTimeMillis();
+        if (!session.connected && msg.command != Cmd.GET_SESSION_ID) {
+            ctx.close();
+            return;
+        }
+        try {
+            session.getController().onMessage(session, msg);
+        } catch (Exception e) {
+            /// VMN
+        }
+        msg.cleanup();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        Session session = ctx.channel().attr(NettyServer.SESSION).get();
+        if (session != null) {
+            Client.gI().kickSession(session);
+        }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        ctx.close();
+    }
+}
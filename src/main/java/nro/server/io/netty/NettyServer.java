@@ -0,0 +1,101 @@
+package nro.server.io.netty;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+import nro.server.ConnectionAdmission;
+import nro.server.Controller;
+import nro.server.Manager;
+import nro.server.io.Session;
+import nro.utils.Log;
+
+/**
+ * Netty transport for game clients.
+ *
+ * Replaces the blocking accept loop and the two threads per session: sockets
+ * are served by a small pool of event loops, while Controller.onMessage runs on
+ * a separate handler group because it may block on the database.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public class NettyServer {
+
+    public static final AttributeKey<Session> SESSION = AttributeKey.valueOf("session");
+    private static final int MAX_FLUSH_BATCH = 256;
+
+    private final Controller controller;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private EventExecutorGroup handlerGroup;
+    private Channel serverChannel;
+
+    public NettyServer(Controller controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Binds the port and blocks until the server channel is closed
+     */
+    public void start(int port) throws InterruptedException {
+        bossGroup = new NioEventLoopGroup(Manager.bossGroup);
+        workerGroup = new NioEventLoopGroup(Manager.workerGroup);
+        handlerGroup = new DefaultEventExecutorGroup(Manager.handlerGroup);
+        try {
+            ServerBootstrap bootstrap = new ServerBootstrap()
+                    .group(bossGroup, workerGroup)
+                    .channel(NioServerSocketChannel.class)
+                    .childOption(ChannelOption.TCP_NODELAY, true)
+                    .childOption(ChannelOption.SO_KEEPALIVE, true)
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            String ip = ch.remoteAddress().getAddress().getHostAddress();
+                            if (!ConnectionAdmission.gI().tryAdmit(ip)) {
+                                // RST thay vi FIN, khong de lai TIME_WAIT khi bi flood
+                                ch.config().setOption(ChannelOption.SO_LINGER, 0);
+                                ch.close();
+                                return;
+                            }
+                            Session session = new Session(ch, controller, ip);
+                            ch.attr(SESSION).set(session);
+                            ChannelPipeline pipeline = ch.pipeline();
+                            // merge the per-message flushes of a burst into one write syscall
+                            pipeline.addLast("flush", new FlushConsolidationHandler(MAX_FLUSH_BATCH, true));
+                            pipeline.addLast("decoder", new MessageDecoder());
+                            pipeline.addLast("encoder", new MessageEncoder());
+                            pipeline.addLast(handlerGroup, "handler", new MessageHandler());
+                        }
+                    });
+            serverChannel = bootstrap.bind(port).sync().channel();
+            Log.success("Netty server listening on port " + port);
+            serverChannel.closeFuture().sync();
+        } finally {
+            shutdown();
+        }
+    }
+
+    public void shutdown() {
+        if (serverChannel != null) {
+            serverChannel.close();
+        }
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully();
+        }
+        if (workerGroup != null) {
+            workerGroup.shutdownGracefully();
+        }
+        if (handlerGroup != null) {
+            handlerGroup.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package nro.server.io.pool;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ *
+ * @author 💖 ahwuocdz 💖
+ * 
+ * Growable message payload that exposes its backing array so senders can
+ * write it without copying. Instances are recycled through MessageBufferPool.
+ *
+ */
+public class MessageBuffer extends ByteArrayOutputStream {
+
+    public MessageBuffer(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Backing array, only the first size() bytes are valid
+     */
+    public byte[] array() {
+        return buf;
+    }
+
+    public int capacity() {
+        return buf.length;
+    }
+}
@@ -0,0 +1,80 @@
+package nro.server.io.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author 💖 ahwuocdz 💖
+ * 
+ * Tiered pool of outbound message buffers. The tier handed out for a command
+ * follows the size its previous message reached, so most messages are
+ * written without growing their buffer.
+ *
+ */
+public class MessageBufferPool {
+
+    private static final int[] TIER_SIZES = {256, 1024, 4096, 16384, 65536};
+    private static final int[] TIER_LIMITS = {4096, 2048, 512, 128, 32};
+
+    private static final MessageBufferPool i = new MessageBufferPool();
+
+    private final List<Queue<MessageBuffer>> tiers;
+    private final AtomicInteger[] tierCounts;
+    // last payload size seen per command, racy updates are harmless
+    private final int[] sizeHints = new int[256];
+
+    private MessageBufferPool() {
+        tiers = new ArrayList<>(TIER_SIZES.length);
+        tierCounts = new AtomicInteger[TIER_SIZES.length];
+        for (int t = 0; t < TIER_SIZES.length; t++) {
+            tiers.add(new ConcurrentLinkedQueue<>());
+            tierCounts[t] = new AtomicInteger();
+        }
+    }
+
+    public static MessageBufferPool gI() {
+        return i;
+    }
+
+    public MessageBuffer acquire(byte command) {
+        int tier = tierFor(sizeHints[command & 255]);
+        MessageBuffer buffer = tiers.get(tier).poll();
+        if (buffer != null) {
+            tierCounts[tier].decrementAndGet();
+            return buffer;
+        }
+        return new MessageBuffer(TIER_SIZES[tier]);
+    }
+
+    public void release(byte command, MessageBuffer buffer) {
+        sizeHints[command & 255] = buffer.size();
+        int capacity = buffer.capacity();
+        if (capacity > TIER_SIZES[TIER_SIZES.length - 1]) {
+            return;
+        }
+        // file under the largest tier the buffer can fully serve
+        int tier = TIER_SIZES.length - 1;
+        while (tier > 0 && TIER_SIZES[tier] > capacity) {
+            tier--;
+        }
+        if (tierCounts[tier].incrementAndGet() > TIER_LIMITS[tier]) {
+            tierCounts[tier].decrementAndGet();
+            return;
+        }
+        buffer.reset();
+        tiers.get(tier).offer(buffer);
+    }
+
+    private static int tierFor(int size) {
+        for (int t = 0; t < TIER_SIZES.length; t++) {
+            if (size <= TIER_SIZES[t]) {
+                return t;
+            }
+        }
+        return TIER_SIZES.length - 1;
+    }
+}
@@ -0,0 +1,24 @@
+package nro.server.io.pool;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ *
+ * @author 💖 ahwuocdz 💖
+ * 
+ * Input stream over a receive buffer that can be re-pointed at the next
+ * frame, so inbound messages are decoded in place.
+ *
+ */
+public class MessageReader extends ByteArrayInputStream {
+
+    public MessageReader(byte[] buf) {
+        super(buf, 0, 0);
+    }
+
+    public void reset(int length) {
+        this.pos = 0;
+        this.mark = 0;
+        this.count = length;
+    }
+}
@@ -0,0 +1,225 @@
+package nro.services;
+
+import nro.jdbc.DBService;
+import nro.server.GameTasks;
+import nro.server.JobScheduler;
+import nro.utils.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * DropQuotaService - server wide caps on rare drops, counted in memory
+ *
+ * A mob kill only touches an in-memory counter. The Do Than counter is
+ * seeded from do_than_drop_log at startup and again when the day rolls over,
+ * the log rows are written later in batches by a scheduled job.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public class DropQuotaService {
+
+    private static final ZoneId VN = ZoneId.of("Asia/Ho_Chi_Minh");
+    private static final DateTimeFormatter SQL_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+    private static final long FLUSH_INTERVAL = 5000;
+    private static final int MAX_BATCH = 500;
+
+    public static final int MAX_SKH_DROP_PER_HOUR = 10;
+    public static final int MAX_DO_THAN_DROP_PER_DAY = 10;
+
+    private static final DropQuotaService i = new DropQuotaService();
+
+    public static DropQuotaService gI() {
+        return i;
+    }
+
+    private final Quota skh = new Quota(MAX_SKH_DROP_PER_HOUR, false);
+    private final Quota doThan = new Quota(MAX_DO_THAN_DROP_PER_DAY, true);
+    private final Queue<DropLog> pendingLogs = new ConcurrentLinkedQueue<>();
+
+    private DropQuotaService() {
+    }
+
+    /**
+     * Counter of one cap, reset when its hour or its day (Vietnam time) ends
+     */
+    private static final class Quota {
+
+        private final int limit;
+        private final boolean daily;
+        private long window = -1;
+        private int count;
+
+        private Quota(int limit, boolean daily) {
+            this.limit = limit;
+            this.daily = daily;
+        }
+
+        private long currentWindow() {
+            return daily ? LocalDate.now(VN).toEpochDay() : System.currentTimeMillis() / 3600000;
+        }
+
+        /**
+         * Takes one drop: 1 taken, 0 cap reached; 2 and -1 say the same when
+         * this call started a new window
+         */
+        private synchronized int tryTake() {
+            boolean rolled = rollIfNeeded();
+            if (count >= limit) {
+                return rolled ? -1 : 0;
+            }
+            count++;
+            return rolled ? 2 : 1;
+        }
+
+        private boolean rollIfNeeded() {
+            long now = currentWindow();
+            if (now != window) {
+                window = now;
+                count = 0;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Raises the counter to what the database holds for the window, drops
+         * taken meanwhile are already in count or still in the log queue
+         */
+        private synchronized void seed(long forWindow, int stored) {
+            rollIfNeeded();
+            if (forWindow == window && stored > count) {
+                count = stored;
+            }
+        }
+    }
+
+    private static final class DropLog {
+
+        private final long playerId;
+        private final String playerName;
+        private final short itemId;
+        private final String itemName;
+        private final Instant time;
+
+        private DropLog(long playerId, String playerName, short itemId, String itemName) {
+            this.playerId = playerId;
+            this.playerName = playerName;
+            this.itemName = itemName;
+            this.itemId = itemId;
+            this.time = Instant.now();
+        }
+    }
+
+    /**
+     * Seeds the daily counter and starts the log writer, called once at startup
+     */
+    public void init() {
+        long day = LocalDate.now(VN).toEpochDay();
+        doThan.seed(day, countDoThan(day));
+        JobScheduler.gI().register("Drop log", FLUSH_INTERVAL, FLUSH_INTERVAL, this::flush);
+    }
+
+    public boolean tryDropSKH() {
+        return skh.tryTake() > 0;
+    }
+
+    public boolean tryDropDoThan() {
+        int r = doThan.tryTake();
+        if (r == 2 || r == -1) {
+            // sang ngay moi: doc lai so da roi trong ngay tu DB, khong chan luong danh quai
+            long day = LocalDate.now(VN).toEpochDay();
+            GameTasks.gI().execute("drop quota seed", () -> doThan.seed(day, countDoThan(day)));
+        }
+        return r > 0;
+    }
+
+    public void logDoThanDrop(String playerName, long playerId, short itemId, String itemName) {
+        pendingLogs.add(new DropLog(playerId, playerName, itemId, itemName));
+    }
+
+    /**
+     * Writes every queued log, called on shutdown
+     */
+    public void close() {
+        while (!pendingLogs.isEmpty()) {
+            int before = pendingLogs.size();
+            flush();
+            if (pendingLogs.size() >= before) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Drops logged for a Vietnam day, drop_time is stored in UTC
+     */
+    private int countDoThan(long epochDay) {
+        Instant from = LocalDate.ofEpochDay(epochDay).atStartOfDay(VN).toInstant();
+        Instant to = LocalDate.ofEpochDay(epochDay + 1).atStartOfDay(VN).toInstant();
+        try (Connection conn = DBService.gI().getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM do_than_drop_log WHERE drop_time >= ? AND drop_time < ?")) {
+            ps.setString(1, SQL_TIME.format(from));
+            ps.setString(2, SQL_TIME.format(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (Exception e) {
+            Log.error(DropQuotaService.class, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the queued drop logs in one transaction, failed rows are queued
+     * again for the next run
+     */
+    public void flush() {
+        List<DropLog> batch = new ArrayList<>();
+        DropLog log;
+        while (batch.size() < MAX_BATCH && (log = pendingLogs.poll()) != null) {
+            batch.add(log);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DBService.gI().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO do_than_drop_log (player_id, player_name, item_id, item_name, drop_time) VALUES (?, ?, ?, ?, ?)")) {
+                for (DropLog l : batch) {
+                    ps.setLong(1, l.playerId);
+                    ps.setString(2, l.playerName);
+                    ps.setShort(3, l.itemId);
+                    ps.setString(4, l.itemName);
+                    ps.setString(5, SQL_TIME.format(l.time));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (Exception e) {
+            pendingLogs.addAll(batch);
+            Log.error(DropQuotaService.class, e, "Lỗi ghi log drop đồ thần");
+        }
+    }
+}
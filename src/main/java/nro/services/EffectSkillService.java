@@ -107,6 +107,7 @@ public class EffectSkillService {
         player.effectSkill.levelBienHinh = Math.min(skillLevel, player.effectSkill.levelBienHinh + 1);
         player.effectSkill.timeBienHinh = SkillUtil.getTimeBienHinh(lastLevel, template.coolDown);
         player.effectSkill.lastTimeBienHinh = System.currentTimeMillis();
+        player.effectSkill.scheduleExpiry();
 
         if (!lastLevel && template.coolDown > 0) {
             player.playerSkill.skillSelect.coolDown = template.coolDown * 5 / 100;
@@ -202,6 +203,7 @@ public class EffectSkillService {
         player.effectSkill.useTroi = true;
         player.effectSkill.lastTimeTroi = lastTimeTroi;
         player.effectSkill.timeTroi = timeTroi;
+        player.effectSkill.scheduleExpiry();
     }
     // **************************************************************************
 
@@ -211,6 +213,7 @@ public class EffectSkillService {
         player.effectSkill.isThoiMien = true;
         player.effectSkill.lastTimeThoiMien = lastTimeThoiMien;
         player.effectSkill.timeThoiMien = timeThoiMien;
+        player.effectSkill.scheduleExpiry();
     }
 
     // hết hiệu ứng thôi miên
@@ -226,6 +229,7 @@ public class EffectSkillService {
         player.effectSkill.lastTimeStartStun = lastTimeStartBlind;
         player.effectSkill.timeStun = timeBlind;
         player.effectSkill.isStun = true;
+        player.effectSkill.scheduleExpiry();
         sendEffectPlayer(player, player, TURN_ON_EFFECT, BLIND_EFFECT);
     }
 
@@ -243,6 +247,7 @@ public class EffectSkillService {
         player.effectSkill.timeSocola = timeSocola;
         player.effectSkill.isSocola = true;
         player.effectSkill.countPem1hp = 0;
+        player.effectSkill.scheduleExpiry();
     }
 
     public void setMaPhongBa(Player player, long lastTimeMaPhongBa, int timeMaPhongBa, int dameMaFuBa) {
@@ -250,6 +255,7 @@ public class EffectSkillService {
         player.effectSkill.timeMaPhongBa = timeMaPhongBa;
         player.dameMaFuBa = dameMaFuBa;
         player.effectSkill.isMaPhongBa = true;
+        player.effectSkill.scheduleExpiry();
     }
 
     // player trở lại thành người
@@ -304,6 +310,7 @@ public class EffectSkillService {
         player.effectSkill.isBlindDCTT = true;
         player.effectSkill.lastTimeBlindDCTT = lastTimeDCTT;
         player.effectSkill.timeBlindDCTT = timeBlindDCTT;
+        player.effectSkill.scheduleExpiry();
     }
 
     public void removeBlindDCTT(Player player) {
@@ -317,6 +324,7 @@ public class EffectSkillService {
     public void setStartHuytSao(Player player, int tiLeHP) {
         player.effectSkill.tiLeHPHuytSao = tiLeHP;
         player.effectSkill.lastTimeHuytSao = System.currentTimeMillis();
+        player.effectSkill.scheduleExpiry();
     }
 
     // Hết hiệu ứng huýt sáo
@@ -340,6 +348,7 @@ public class EffectSkillService {
             player.effectSkill.timeMonkey = timeMonkey;
             player.effectSkill.lastTimeUpMonkey = System.currentTimeMillis();
             player.effectSkill.levelMonkey = (byte) player.playerSkill.skillSelect.point;
+            player.effectSkill.scheduleExpiry();
             Service.getInstance().sendSpeedPlayer(player, 6);
             Service.getInstance().Send_Caitrang(player);
             Service.getInstance().point(player);
@@ -384,6 +393,7 @@ public class EffectSkillService {
         player.effectSkill.isShielding = true;
         player.effectSkill.lastTimeShieldUp = System.currentTimeMillis();
         player.effectSkill.timeShield = SkillUtil.getTimeShield(player.playerSkill.skillSelect.point);
+        player.effectSkill.scheduleExpiry();
     }
 
     public void removeShield(Player player) {
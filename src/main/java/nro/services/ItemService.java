@@ -7,7 +7,7 @@ import nro.models.item.Item;
 import nro.models.item.ItemOption;
 import nro.models.map.ItemMap;
 import nro.models.shop.ItemShop;
-import nro.server.Manager;
+import nro.server.Registry;
 import nro.utils.TimeUtil;
 
 import java.util.ArrayList;
@@ -164,11 +164,11 @@ public class ItemService {
     }
 
     public ItemOptionTemplate getItemOptionTemplate(int id) {
-        return Manager.ITEM_OPTION_TEMPLATES.get(id);
+        return Registry.getItemOptionTemplate(id);
     }
 
     public ItemTemplate getTemplate(int id) {
-        return Manager.ITEM_TEMPLATES.get(id);
+        return Registry.getItemTemplate(id);
     }
 
     public boolean isItemActivation(Item item) {
@@ -17,7 +17,7 @@ import nro.server.io.Message;
 import nro.utils.Log;
 
 import static nro.models.item.ItemTime.*;
-import static nro.server.Manager.ITEM_TEMPLATES;
+import nro.server.Registry;
 
 import nro.models.map.phoban.BanDoKhoBau;
 import nro.models.map.phoban.KhiGas;
@@ -146,22 +146,22 @@ public class ItemTimeService {
         }
         // Lucky
         if (player.itemTime.isUseLucky) {
-            ItemTemplate item_lucky = ITEM_TEMPLATES.get(ConstItem.LUCKY_ITEM);
+            ItemTemplate item_lucky = Registry.getItemTemplate(ConstItem.LUCKY_ITEM);
             sendItemTime(player, item_lucky.iconID, (int) (player.itemTime.luckyTimeRemaining / 1000));
         }
         // Buff x5 TNSM
         if (player.itemTime.isUseBuffX5TNSM) {
-            ItemTemplate item = ITEM_TEMPLATES.get(ConstItem.BUFF_X5_TNSM);
+            ItemTemplate item = Registry.getItemTemplate(ConstItem.BUFF_X5_TNSM);
             sendItemTime(player, item.iconID, (int) (player.itemTime.buffX5TNSMTimeRemaining / 1000));
         }
         // Buff x10 TNSM
         if (player.itemTime.isUseBuffX10TNSM) {
-            ItemTemplate item = ITEM_TEMPLATES.get(ConstItem.BUFF_X10_TNSM);
+            ItemTemplate item = Registry.getItemTemplate(ConstItem.BUFF_X10_TNSM);
             sendItemTime(player,  item.iconID, (int) (player.itemTime.buffX10TNSMTimeRemaining / 1000));
         }
         // Buff x15 TNSM
         if (player.itemTime.isUseBuffX15TNSM) {
-            ItemTemplate item = ITEM_TEMPLATES.get(ConstItem.BUFF_X15_TNSM);
+            ItemTemplate item = Registry.getItemTemplate(ConstItem.BUFF_X15_TNSM);
             sendItemTime(player,  item.iconID, (int) (player.itemTime.buffX15TNSMTimeRemaining / 1000));
         }
     }
@@ -177,6 +177,7 @@ public class ItemTimeService {
         player.itemTime.isUseTDLT = true;
         player.itemTime.timeTDLT = min * 60 * 1000;
         player.itemTime.lastTimeUseTDLT = System.currentTimeMillis();
+        player.itemTime.scheduleExpiry();
         sendCanAutoPlay(player);
         sendItemTime(player, 4387, player.itemTime.timeTDLT / 1000);
         InventoryService.gI().sendItemBags(player);
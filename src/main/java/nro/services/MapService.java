@@ -6,7 +6,8 @@ import nro.models.map.Zone;
 import nro.models.map.war.BlackBallWar;
 import nro.models.player.NPoint;
 import nro.models.player.Player;
-import nro.server.Manager;
+import nro.server.GameLoop;
+import nro.server.Registry;
 import nro.server.io.Message;
 import nro.utils.Log;
 import nro.utils.Util;
@@ -248,7 +249,7 @@ public class MapService {
     }
 
     public Map getMapById(int mapId) {
-        return Manager.MAPS.stream().filter(map -> map.mapId == mapId).findAny().orElse(null);
+        return Registry.getMap(mapId);
     }
 
     public Map getMapForCalich() {
@@ -364,6 +365,18 @@ public class MapService {
     }
 
     public void goToMap(Player player, Zone zoneJoin) {
+        goToMap(player, zoneJoin, null);
+    }
+
+    /**
+     * Moves the player into zoneJoin. Called from a tick lane the move is
+     * deferred to the loop thread (GameLoop.deferCrossZone), so code that
+     * needs the new zone goes in then, which runs right after the move.
+     */
+    public void goToMap(Player player, Zone zoneJoin, Runnable then) {
+        if (GameLoop.deferCrossZone(() -> goToMap(player, zoneJoin, then))) {
+            return;
+        }
         Zone oldZone = player.zone;
         if (oldZone != null) {
             exitMap(player);
@@ -373,53 +386,59 @@ public class MapService {
         }
         player.zone = zoneJoin;
         player.zone.addPlayer(player);
+        if (then != null) {
+            then.run();
+        }
     }
 
+    /**
+     * Removes the player from its zone, deferred to the loop thread like
+     * goToMap when called from a tick lane
+     */
     public void exitMap(Player player) {
-        if (player.zone != null) {
-            BlackBallWar.gI().dropBlackBall(player);
-            if (player.effectSkill.useTroi) {
-                EffectSkillService.gI().removeUseTroi(player);
-            }
-            NPoint n = player.nPoint;
-            if (n != null) {
-                n.buffDefenseSatellite = false;
-                n.buffExpSatellite = false;
-            }
-            player.zone.removePlayer(player);
-            if (!player.zone.map.isMapOffline) {
-                Message msg;
-                try {
-                    msg = new Message(-6);
-                    msg.writer().writeInt((int) player.id);
-                    Service.getInstance().sendMessAnotherNotMeInMap(player, msg);
-                    msg.cleanup();
-                    player.zone = null;
-                } catch (Exception e) {
-                    Log.error(MapService.class, e);
-                }
-            } else if (player.isBoss) {
-                Message msg;
-                try {
-                    msg = new Message(-6);
-                    msg.writer().writeInt((int) player.id);
-                    Service.getInstance().sendMessAnotherNotMeInMap(player, msg);
-                    msg.cleanup();
+        Zone zone = player.zone;
+        if (zone == null || GameLoop.deferCrossZone(() -> exitMap(player, zone))) {
+            return;
+        }
+        exitMap(player, zone);
+    }
+
+    /**
+     * Works on the zone the player was in when exitMap was called: when the
+     * exit was deferred the caller may already have pointed player.zone at
+     * the next zone, that one is left alone
+     */
+    private void exitMap(Player player, Zone zone) {
+        BlackBallWar.gI().dropBlackBall(player);
+        if (player.effectSkill.useTroi) {
+            EffectSkillService.gI().removeUseTroi(player);
+        }
+        NPoint n = player.nPoint;
+        if (n != null) {
+            n.buffDefenseSatellite = false;
+            n.buffExpSatellite = false;
+        }
+        zone.removePlayer(player);
+        if (!zone.map.isMapOffline || player.isBoss) {
+            Message msg;
+            try {
+                msg = new Message(-6);
+                msg.writer().writeInt((int) player.id);
+                // da roi zone nen gui cho ca zone cung khong toi chinh minh
+                Service.getInstance().sendMessAllPlayerInMap(zone, msg);
+                msg.cleanup();
+                if (player.zone == zone) {
                     player.zone = null;
-                } catch (Exception e) {
-                    Log.error(MapService.class, e);
                 }
+            } catch (Exception e) {
+                Log.error(MapService.class, e);
             }
         }
     }
 
     public boolean isMapOffline(int mapId) {
-        for (Map map : Manager.MAPS) {
-            if (map.mapId == mapId) {
-                return map.isMapOffline;
-            }
-        }
-        return false;
+        Map map = Registry.getMap(mapId);
+        return map != null && map.isMapOffline;
     }
 
     public boolean isMapOfflineNe(int mapId) {
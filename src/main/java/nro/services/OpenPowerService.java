@@ -33,6 +33,7 @@ public class OpenPowerService {
             if (!player.itemTime.isOpenPower && player.nPoint.canOpenPower()) {
                 player.itemTime.isOpenPower = true;
                 player.itemTime.lastTimeOpenPower = System.currentTimeMillis();
+                player.itemTime.scheduleExpiry();
                 ItemTimeService.gI().sendAllItemTime(player);
                 return true;
             } else {
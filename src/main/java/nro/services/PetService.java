@@ -40,20 +40,15 @@ public class PetService {
      * @param limitPower Giới hạn sức mạnh (optional)
      */
     public void createPetWithGender(Player player, Pet.PetType petType, Byte gender, byte... limitPower) {
-        new Thread(() -> {
-            try {
-                createNewPetByType(player, petType, gender);
-                if (limitPower != null && limitPower.length == 1) {
-                    player.pet.nPoint.limitPower = limitPower[0];
-                    player.pet.nPoint.initPowerLimit();
-                }
-                Thread.sleep(1000);
-                String message = petType == Pet.PetType.MABU ? "Oa oa oa..." : "Xin hãy thu nhận làm đệ tử";
-                Service.getInstance().chatJustForMe(player, player.pet, message);
-            } catch (Exception e) {
-                e.printStackTrace();
+        Util.runThread(() -> {
+            createNewPetByType(player, petType, gender);
+            if (limitPower != null && limitPower.length == 1) {
+                player.pet.nPoint.limitPower = limitPower[0];
+                player.pet.nPoint.initPowerLimit();
             }
-        }).start();
+            String message = petType == Pet.PetType.MABU ? "Oa oa oa..." : "Xin hãy thu nhận làm đệ tử";
+            Util.setTimeout(() -> Service.getInstance().chatJustForMe(player, player.pet, message), 1000, "pet chat");
+        }, "create pet");
     }
 
     /**
@@ -126,13 +121,8 @@ public class PetService {
         MapService.gI().exitMap(player.pet);
         player.pet.name = "$" + name.toLowerCase().trim();
         InventoryService.gI().subQuantityItemsBag(player, InventoryService.gI().findItemBagByTemp(player, 400), 1);
-        new Thread(() -> {
-            try {
-                Thread.sleep(1000);
-                Service.getInstance().chatJustForMe(player, player.pet, "Cảm ơn sư phụ đã đặt cho con tên " + name);
-            } catch (Exception e) {
-            }
-        }).start();
+        Util.setTimeout(() -> Service.getInstance().chatJustForMe(player, player.pet,
+                "Cảm ơn sư phụ đã đặt cho con tên " + name), 1000, "pet chat");
     }
 
 
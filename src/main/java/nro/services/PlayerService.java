@@ -3,8 +3,11 @@ package nro.services;
 import nro.consts.Cmd;
 import nro.consts.ConstAchive;
 import nro.jdbc.DBService;
+import nro.jdbc.PlayerSaveQueue;
 import nro.jdbc.daos.AccountDAO;
 import nro.jdbc.daos.PlayerDAO;
+import nro.jdbc.daos.PlayerSnapshot;
+import nro.manager.TopManager;
 import nro.models.player.PetFollow;
 import nro.models.player.Player;
 import nro.server.Client;
@@ -81,8 +84,6 @@ public class PlayerService {
                 pl.sendMessage(msg);
             }
         }
-        msg.cleanup();
-
     }
 
     public void sendMessageIgnore(Player plIgnore, Message msg) {
@@ -91,8 +92,6 @@ public class PlayerService {
                 pl.sendMessage(msg);
             }
         }
-        msg.cleanup();
-
     }
 
     public void sendInfoHp(Player player) {
@@ -257,15 +256,17 @@ public class PlayerService {
         return true;
     }
 
+    /**
+     * Snapshots the player now and leaves the write to PlayerSaveQueue
+     */
     public boolean savePlayer(Player player) {
-        try (Connection conn = DBService.gI().getConnectionForLogout()) {
-            PlayerDAO.updateTimeLogout = true;
-            PlayerDAO.updatePlayer(player, conn);
-            return true;
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        PlayerSnapshot snapshot = PlayerDAO.snapshot(player, true);
+        if (snapshot == null) {
+            return false;
         }
-        return false;
+        TopManager.getInstance().update(player);
+        PlayerSaveQueue.gI().submit(snapshot);
+        return true;
     }
 
     public void setPos(Player player, int x, int y, int effID) {
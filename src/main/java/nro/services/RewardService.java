@@ -8,17 +8,18 @@ import nro.consts.ConstItem;
 import nro.consts.ConstMob;
 import nro.consts.ItemClothesData;
 import nro.event.Event;
-import nro.lib.RandomCollection;
+import nro.lib.AliasTable;
 import nro.models.item.ItemLuckyRound;
 import nro.models.item.ItemOptionLuckyRound;
 import nro.models.item.ItemReward;
-import nro.models.mob.MobReward;
+import nro.models.mob.MobRewardTable;
 import nro.models.item.Item;
 import nro.models.item.ItemOption;
 import nro.models.map.ItemMap;
 import nro.models.mob.Mob;
 import nro.models.player.Player;
 import nro.server.Manager;
+import nro.server.Registry;
 import nro.server.ServerLog;
 import nro.server.ServerManager;
 import nro.server.ServerNotify;
@@ -43,64 +44,9 @@ public class RewardService {
 
     private static RewardService i;
 
-    private static final int MAX_SKH_DROP_PER_HOUR = 10;
-    private static int skhDropCount = 0;
-    private static long lastResetSkhDropTime = System.currentTimeMillis();
-    private static final int MAX_DO_THAN_DROP_PER_DAY = 10;
-
     private RewardService() {
     }
 
-    // Reset counter nếu đã qua 1 giờ
-    private static void checkResetSkhDropCount() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastResetSkhDropTime >= 3600000) { // 1 giờ = 3600000ms
-            skhDropCount = 0;
-            lastResetSkhDropTime = currentTime;
-        }
-    }
-
-    private static boolean canDropSKH() {
-        checkResetSkhDropCount();
-        return skhDropCount < MAX_SKH_DROP_PER_HOUR;
-    }
-
-    private static int getDoThanDropCountToday() {
-        String today = TimeUtil.getTimeNow("yyyy-MM-dd"); // Lấy ngày hôm nay theo giờ VN
-        try (java.sql.Connection conn = nro.jdbc.DBService.gI().getConnection();
-             java.sql.PreparedStatement ps = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM do_than_drop_log WHERE DATE(CONVERT_TZ(drop_time, '+00:00', '+07:00')) = ?")) {
-            ps.setString(1, today);
-            java.sql.ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    // Kiểm tra có thể drop đồ thần không
-    private static boolean canDropDoThan() {
-        return getDoThanDropCountToday() < MAX_DO_THAN_DROP_PER_DAY;
-    }
-
-    // Lưu log drop đồ thần vào DB
-    private static void logDoThanDrop(String playerName, long playerId, short itemId, String itemName) {
-        try (java.sql.Connection conn = nro.jdbc.DBService.gI().getConnection();
-             java.sql.PreparedStatement ps = conn.prepareStatement(
-                     "INSERT INTO do_than_drop_log (player_id, player_name, item_id, item_name, drop_time) VALUES (?, ?, ?, ?, NOW())")) {
-            ps.setLong(1, playerId);
-            ps.setString(2, playerName);
-            ps.setShort(3, itemId);
-            ps.setString(4, itemName);
-            ps.executeUpdate();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
     public static RewardService gI() {
         if (i == null) {
             i = new RewardService();
@@ -108,14 +54,30 @@ public class RewardService {
         return i;
     }
 
-    private MobReward getMobReward(Mob mob) {
-        for (MobReward mobReward : Manager.MOB_REWARDS) {
-            if (mobReward.tempId == mob.tempId) {
-                return mobReward;
-            }
-        }
-        return null;
-    }
+    // sao pha le cua do roi tu quai
+    private static final RatioStar[] MOB_STARS = { new RatioStar((byte) 1, 20, 100),
+            new RatioStar((byte) 2, 10, 100), new RatioStar((byte) 3, 5, 100),
+            new RatioStar((byte) 4, 3, 200), new RatioStar((byte) 5, 2, 200),
+            new RatioStar((byte) 6, 1, 200), new RatioStar((byte) 7, 1, 300), };
+
+    // sao pha le cua do than
+    private static final RatioStar[] DO_THAN_STARS = {
+            new RatioStar((byte) 1, 1, 2),
+            new RatioStar((byte) 2, 1, 3),
+            new RatioStar((byte) 3, 1, 4),
+            new RatioStar((byte) 4, 1, 5),
+            new RatioStar((byte) 5, 1, 6),
+            new RatioStar((byte) 6, 1, 7),
+            new RatioStar((byte) 7, 1, 8)
+    };
+
+    // vat pham roi them cua Hirudegarn
+    private static final AliasTable<Integer> HIRUDEGARN_ITEMS = AliasTable.<Integer>builder()
+            .add(1, 1066)
+            .add(20, 861)
+            .add(5, 15)
+            .add(10, 17)
+            .build();
 
     // Danh sách map được phép drop Set Kích Hoạt
     private static final int[] MAP_DROP_SKH = { 1, 2, 3, 8, 9, 11, 15, 16, 17 };
@@ -133,32 +95,16 @@ public class RewardService {
     public List<ItemMap> getRewardItems(Player player, Mob mob, int x, int yEnd) {
         int mapid = player.zone.map.mapId;
         List<ItemMap> list = new ArrayList<>();
-        MobReward mobReward = getMobReward(mob);
+        MobRewardTable mobReward = Registry.getMobReward(mob.tempId);
         if (mobReward != null) {
-            int itemSize = mobReward.itemRewards.size();
-            int goldSize = mobReward.goldRewards.size();
-            int cskbSize = mobReward.capsuleKyBi.size();
-            int foodSize = mobReward.foods.size();
-            int biKiepSize = mobReward.biKieps.size();
-            if (itemSize > 0) {
-                ItemReward ir = mobReward.itemRewards.get(Util.nextInt(0, itemSize - 1));
-                boolean inMap = false;
-                if (ir.mapId[0] == -1) {
-                    inMap = true;
-                } else {
-                    for (int i = 0; i < ir.mapId.length; i++) {
-                        if (mob.zone.map.mapId == ir.mapId[i]) {
-                            inMap = true;
-                            break;
-                        }
-                    }
-                }
-                if (inMap) {
-                    if (ir.forAllGender || ItemService.gI().getTemplate(ir.tempId).gender == player.gender
-                            || ItemService.gI().getTemplate(ir.tempId).gender > 2) {
+            if (mobReward.hasItems()) {
+                MobRewardTable.Drop drop = mobReward.nextItem(mob.zone.map.mapId);
+                if (drop != null) {
+                    ItemReward ir = drop.reward;
+                    if (drop.isForGender(player.gender)) {
 
                         // up SKH - chỉ drop ở map 1, 2, 3 - giới hạn 10 món/giờ
-                        if (isMapDropSKH(mapid) && Util.isTrueDrop(1, 50, player) || (player.getSession() != null && player.isAdmin() ) ) {
+                        if (isMapDropSKH(mapid) && Util.isTrueDrop(1, 50, player) && DropQuotaService.gI().tryDropSKH() || (player.getSession() != null && player.isAdmin() ) ) {
                             ItemClothesData.ClothesSet clothes = ItemClothesData.getClothes(player.gender, 1);
                             if (clothes != null) {
                                 int[] clothesItems = {clothes.getAo(), clothes.getQuan(), clothes.getGang(), clothes.getGiay(), clothes.getRada()};
@@ -184,10 +130,7 @@ public class RewardService {
                                 case 4:
                                     initBaseOptionClothes(itemMap.itemTemplate.id, itemMap.itemTemplate.type,
                                             itemMap.options);
-                                    initStarOption(itemMap, new RatioStar[] { new RatioStar((byte) 1, 20, 100),
-                                            new RatioStar((byte) 2, 10, 100), new RatioStar((byte) 3, 5, 100),
-                                            new RatioStar((byte) 4, 3, 200), new RatioStar((byte) 5, 2, 200),
-                                            new RatioStar((byte) 6, 1, 200), new RatioStar((byte) 7, 1, 300), });
+                                    initStarOption(itemMap, MOB_STARS);
                                     initDepositOption(itemMap);
                                     break;
                                 case 30:
@@ -210,35 +153,36 @@ public class RewardService {
 
                     }
                 }
-                if (cskbSize > 0) {
+                if (mobReward.hasCapsuleKyBi()) {
                     if (player.itemTime.isUseMayDo) {
-                        ItemReward cskb = mobReward.capsuleKyBi.get(Util.nextInt(0, cskbSize - 1));
+                        ItemReward cskb = mobReward.nextCapsuleKyBi();
                         if (Util.isTrueDrop(cskb.ratio, cskb.typeRatio, player)) {
                             ItemMap itemMap = new ItemMap(mob.zone, cskb.tempId, 1, x, yEnd, player.id);
                             list.add(itemMap);
                         }
                     }
                 }
-                if (foodSize > 0) {
+                if (mobReward.hasFood()) {
                     if (player.setClothes.godClothes) {
-                        ItemReward food = mobReward.foods.get(Util.nextInt(0, foodSize - 1));
+                        ItemReward food = mobReward.nextFood();
                         if (Util.isTrueDrop(food.ratio, food.typeRatio, player)) {
                             ItemMap itemMap = new ItemMap(mob.zone, food.tempId, 1, x, yEnd, player.id);
                             list.add(itemMap);
                         }
                     }
                 }
-                if (biKiepSize > 0) {
+                if (mobReward.hasBiKiep()) {
                     if (player.cFlag > 0) {
-                        ItemReward biKiep = mobReward.biKieps.get(Util.nextInt(0, biKiepSize - 1));
+                        ItemReward biKiep = mobReward.nextBiKiep();
                         if (Util.isTrueDrop(biKiep.ratio, biKiep.typeRatio, player)) {
                             ItemMap itemMap = new ItemMap(mob.zone, biKiep.tempId, 1, x, yEnd, player.id);
                             list.add(itemMap);
                         }
                     }
                 }
-                if (goldSize > 0 && biKiepSize <= 0 && foodSize <= 0 && cskbSize <= 0) {
-                    ItemReward gr = mobReward.goldRewards.get(Util.nextInt(0, goldSize - 1));
+                if (mobReward.hasGold() && !mobReward.hasBiKiep() && !mobReward.hasFood()
+                        && !mobReward.hasCapsuleKyBi()) {
+                    ItemReward gr = mobReward.nextGold();
                     if (Util.isTrueDrop(gr.ratio, gr.typeRatio, player)) {
                         ItemMap itemMap = new ItemMap(mob.zone, gr.tempId, 1, x, yEnd, player.id);
                         initQuantityGold(itemMap);
@@ -246,23 +190,18 @@ public class RewardService {
                     }
                 }
                 if (mob.tempId == ConstMob.HIRUDEGARN) {
-                    RandomCollection<Integer> rd = new RandomCollection<>();
-                    rd.add(1, 1066);
-                    rd.add(20, 861);
-                    rd.add(5, 15);
-                    rd.add(10, 17);
                     if (Util.isTrueDrop(10, 100, player)) {
                         ItemMap trungMabu = new ItemMap(mob.zone, (short) 568, 1, x, yEnd, player.id);
                         list.add(trungMabu);
                     }
 
                     for (int i = 0; i < 3; i++) {
-                        int itemID = rd.next();
+                        int itemID = HIRUDEGARN_ITEMS.next();
                         ItemMap itemMap = new ItemMap(mob.zone, itemID, 1, x + Util.nextInt(-50, 50), yEnd, player.id);
                         list.add(itemMap);
                     }
-                    for (int i = 0; i < 10; i++) {
-                        ItemReward gr = mobReward.goldRewards.get(Util.nextInt(0, goldSize - 1));
+                    for (int i = 0; i < 10 && mobReward.hasGold(); i++) {
+                        ItemReward gr = mobReward.nextGold();
                         if (Util.isTrueDrop(gr.ratio, gr.typeRatio, player)) {
                             ItemMap itemMap = new ItemMap(mob.zone, gr.tempId, 1, x + Util.nextInt(-50, 50), yEnd,
                                     player.id);
@@ -284,23 +223,15 @@ public class RewardService {
                         InventoryService.gI().sendItemBags(player);
                     }
                 }
-                if (MapService.gI().isMapCold(mapid) && Util.isTrueDrop(1, 1000, player) && canDropDoThan()) {
+                if (MapService.gI().isMapCold(mapid) && Util.isTrueDrop(1, 1000, player) && DropQuotaService.gI().tryDropDoThan()) {
                     int randomIndex = Util.nextInt(0, ConstItem.SET_DO_THAN.length - 1);
                     ItemMap itemMapCold = new ItemMap(mob.zone, ConstItem.SET_DO_THAN[randomIndex], 1, x, yEnd,
                             player.id);
                     initBaseOptionClothes(itemMapCold.itemTemplate.id, itemMapCold.itemTemplate.type,
                             itemMapCold.options);
-                    initStarOption(itemMapCold, new RatioStar[] {
-                            new RatioStar((byte) 1, 1, 2),
-                            new RatioStar((byte) 2, 1, 3),
-                            new RatioStar((byte) 3, 1, 4),
-                            new RatioStar((byte) 4, 1, 5),
-                            new RatioStar((byte) 5, 1, 6),
-                            new RatioStar((byte) 6, 1, 7),
-                            new RatioStar((byte) 7, 1, 8)
-                    });
+                    initStarOption(itemMapCold, DO_THAN_STARS);
                     list.add(itemMapCold);
-                    logDoThanDrop(player.name, player.id, itemMapCold.itemTemplate.id, itemMapCold.itemTemplate.name);
+                    DropQuotaService.gI().logDoThanDrop(player.name, player.id, itemMapCold.itemTemplate.id, itemMapCold.itemTemplate.name);
                     ServerNotify.gI().notify(player.name + " vừa nhặt được " + itemMapCold.itemTemplate.name
                             + " Đồ Thần");
                 }
@@ -101,7 +101,6 @@ public class Service {
                     }
                 }
             }
-            msg.cleanup();
         }
     }
 
@@ -477,6 +476,7 @@ public class Service {
         if (player == null || player.zone == null) {
             return; // Tránh lỗi NullPointerException
         }
+        msg.transformData();
         if (player.zone.map.isMapOffline) {
             if (player.isPet) {
                 ((Pet) player).master.sendMessage(msg);
@@ -489,7 +489,6 @@ public class Service {
                         }
                     }
                 }
-                msg.cleanup();
             }
         } else {
             List<Player> players = player.zone.getPlayers();
@@ -500,11 +499,11 @@ public class Service {
                     }
                 }
             }
-            msg.cleanup();
         }
     }
 
     public void sendMessAnotherNotMeInMap(Player player, Message msg) {
+        msg.transformData();
         if (player.zone != null) {
             List<Player> players = player.zone.getPlayers();
             synchronized (players) {
@@ -514,8 +513,6 @@ public class Service {
                     }
                 }
             }
-
-            msg.cleanup();
         }
     }
 
@@ -1047,11 +1044,12 @@ public class Service {
                     if (zone != null) {
                         player.location.x = 500;
                         player.location.y = zone.map.yPhysicInTop(500, 100);
-                        MapService.gI().goToMap(player, zone);
-                        Service.getInstance().clearMap(player);
-                        zone.mapInfo(player);
-                        player.zone.loadAnotherToMe(player);
-                        player.zone.load_Me_To_Another(player);
+                        MapService.gI().goToMap(player, zone, () -> {
+                            Service.getInstance().clearMap(player);
+                            zone.mapInfo(player);
+                            player.zone.loadAnotherToMe(player);
+                            player.zone.load_Me_To_Another(player);
+                        });
                     }
                     return;
                 } catch (Exception e) {
@@ -2591,7 +2589,6 @@ public class Service {
     }
 
     public void showTopPower(Player player) {
-        TopPowerManager.getInstance().load();
         List<Player> list = TopPowerManager.getInstance().getList();
         Message msg = new Message(Cmd.TOP);
         try {
@@ -2631,7 +2628,6 @@ public class Service {
     }
 
     public void showToplevelWhis(Player player) {
-        TopKillWhisManager.getInstance().load();
         List<Player> list = TopKillWhisManager.getInstance().getList();
         Message msg = new Message(Cmd.TOP);
         try {
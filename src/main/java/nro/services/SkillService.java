@@ -19,7 +19,6 @@ import nro.utils.Util;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import nro.models.boss.Boss;
 import nro.services.func.RadaService;
@@ -185,23 +184,14 @@ public class SkillService {
                 List<Mob> mobs = new ArrayList<>();
                 if (plTarget != null) {
                     playerAttackPlayer(player, plTarget, false, -1);
-                    for (Mob mob : player.zone.mobs) {
-                        if (!mob.isDie()
-                                && Util.getDistance(plTarget, mob) <= SkillUtil
-                                        .getRangeQCKK(player.playerSkill.skillSelect.point)) {
-                            mobs.add(mob);
-                        }
-                    }
+                    mobs.addAll(player.zone.getMobsInRange(plTarget.location.x, plTarget.location.y,
+                            SkillUtil.getRangeQCKK(player.playerSkill.skillSelect.point), mob -> !mob.isDie()));
                 }
                 if (mobTarget != null) {
                     playerAttackMob(player, mobTarget, false, true);
-                    for (Mob mob : player.zone.mobs) {
-                        if (!mob.equals(mobTarget) && !mob.isDie()
-                                && Util.getDistance(mob, mobTarget) <= SkillUtil
-                                        .getRangeQCKK(player.playerSkill.skillSelect.point)) {
-                            mobs.add(mob);
-                        }
-                    }
+                    mobs.addAll(player.zone.getMobsInRange(mobTarget.location.x, mobTarget.location.y,
+                            SkillUtil.getRangeQCKK(player.playerSkill.skillSelect.point),
+                            mob -> !mob.equals(mobTarget) && !mob.isDie()));
                 }
                 for (Mob mob : mobs) {
                     mob.injured(player, player.nPoint.getDameAttack(true), true);
@@ -319,12 +309,12 @@ public class SkillService {
         if (!player.zone.map.isMapOffline) {
             ReentrantLock lock = new ReentrantLock();
             lock.lock();
-            List<Player> playersMap = player.zone.getHumanoids();
+            int rangeStun = SkillUtil.getRangeStun(player.playerSkill.skillSelect.point);
+            List<Player> playersMap = player.zone.getHumanoidsInRange(player.location.x, player.location.y,
+                    rangeStun, pl -> !player.equals(pl));
             for (Player pl : playersMap) {
-                if (pl != null && !player.equals(pl)) {
-                    int distance = Util.getDistance(player, pl);
-                    int rangeStun = SkillUtil.getRangeStun(player.playerSkill.skillSelect.point);
-                    if (distance <= rangeStun && canAttackPlayer(player, pl)) {// && (!pl.playerSkill.prepareQCKK &&
+                if (pl != null) {
+                    if (canAttackPlayer(player, pl)) {// && (!pl.playerSkill.prepareQCKK &&
                                                                                // !pl.playerSkill.prepareLaze &&
                                                                                // !pl.playerSkill.prepareTuSat)
                         if (player.isPet && ((Pet) player).master.equals(pl)) {
@@ -341,11 +331,10 @@ public class SkillService {
                 }
             }
         }
-        for (Mob mob : player.zone.mobs) {
-            if (Util.getDistance(player, mob) <= SkillUtil.getRangeStun(player.playerSkill.skillSelect.point)) {
-                mob.effectSkill.startStun(System.currentTimeMillis(), timeStun);
-                mobs.add(mob);
-            }
+        for (Mob mob : player.zone.getMobsInRange(player.location.x, player.location.y,
+                SkillUtil.getRangeStun(player.playerSkill.skillSelect.point), mob -> true)) {
+            mob.effectSkill.startStun(System.currentTimeMillis(), timeStun);
+            mobs.add(mob);
         }
         EffectSkillService.gI().sendEffectBlindThaiDuongHaSan(player, players, mobs, timeStun);
         affterUseSkill(player, player.playerSkill.skillSelect.template.id);
@@ -388,10 +377,8 @@ public class SkillService {
         } else {
             dame /= 2;
         }
-        for (Mob mob : player.zone.mobs) {
-            if (Util.getDistance(player, mob) <= rangeBom) {
-                mob.injured(player, dame, true);
-            }
+        for (Mob mob : player.zone.getMobsInRange(player.location.x, player.location.y, rangeBom, mob -> true)) {
+            mob.injured(player, dame, true);
         }
         for (int j = 0; j < player.zone.getHumanoids().size(); j++) {
             Player pl = player.zone.getHumanoids().get(j);
@@ -490,14 +477,8 @@ public class SkillService {
                 int percentTriThuong = SkillUtil.getPercentTriThuong(player.playerSkill.skillSelect.point);
                 if (canHsPlayer(player, plTarget)) {
                     players.add(plTarget);
-                    List<Player> playersMap = player.zone.getNotBosses();
-                    for (Player pl : playersMap) {
-                        if (!pl.equals(plTarget)) {
-                            if (canHsPlayer(player, plTarget) && Util.getDistance(player, pl) <= 300) {
-                                players.add(pl);
-                            }
-                        }
-                    }
+                    players.addAll(player.zone.getHumanoidsInRange(player.location.x, player.location.y, 300,
+                            pl -> !pl.isBoss && !pl.equals(plTarget)));
                     // playerAttackPlayer(player, plTarget, false);
                     for (Player pl : players) {
                         boolean isDie = pl.isDie();
@@ -920,89 +901,41 @@ public class SkillService {
                     Util.setTimeout(() -> {
                         long currentTime = System.currentTimeMillis();
                         skill.setTime(currentTime + skill.getTimeDame());
-                        int period = skill.getTimeDame() / 15;
-                        int count = 1;
                         sendEffEndUseSkillNotFocus(player, skillID, range, skill.getTimeDame(), 50, null);
-                        while (!player.isDie() && currentTime < skill.getTime()) {
-                            currentTime = System.currentTimeMillis();
-                            int dameAttack = player.nPoint.getDameAttackSkillNotFocus() * (count == 15 ? 2 : 1);
-                            count++;
-                            for (Mob mob : player.zone.mobs) {
-                                if (Math.abs(player.location.y - mob.location.y) <= 100) {
-                                    if (dir == 1) {// phải
-                                        if (mob.location.x >= xPlayer
-                                                && Math.abs(player.location.x - mob.location.x) <= skillRange) {
-                                            mob.injured(player, dameAttack, false);
-                                        }
-                                    } else {// trái
-                                        if (mob.location.x <= xPlayer
-                                                && Math.abs(player.location.x - mob.location.x) <= skillRange) {
-                                            mob.injured(player, dameAttack, false);
-                                        }
-                                    }
-                                }
-                            }
-
-                            for (Player p : player.zone.getHumanoids()) {
-                                if (canAttackPlayer(player, p) && !p.equals(player)) {
-                                    if (Math.abs(player.location.y - p.location.y) <= 100) {
-                                        if (dir == 1) {// phải
-                                            if (p.location.x >= xPlayer
-                                                    && Math.abs(player.location.x - p.location.x) <= skillRange) {
-                                                playerAttackPlayer(player, p, false, dameAttack);
-                                                havePlayerAttack(p, false, dameAttack, 0);
-                                            }
-                                        } else {// trái
-                                            if (p.location.x <= xPlayer
-                                                    && Math.abs(player.location.x - p.location.x) <= skillRange) {
-                                                playerAttackPlayer(player, p, false, dameAttack);
-                                                havePlayerAttack(p, false, dameAttack, 0);
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                            affterUseSkill(player, skillID);
-                            try {
-                                TimeUnit.MILLISECONDS.sleep(period);
-                            } catch (InterruptedException e) {
-                            }
-                        }
+                        hitSkillNotFocus(player, skill, skillID, dir, xPlayer, skillRange, 1, currentTime);
                     }, skill.getTimePre(), "Special Skill");
                 } else {
-                    Util.runThread(() -> {
-                        try {
-                            List<Object> list = new ArrayList<>();
-                            TimeUnit.MILLISECONDS.sleep(skill.getTimePre());
-                            int point = skill.point;
-                            int distanceX = player.location.x + 50 * dir;
-                            List<Mob> mobs = player.zone.mobs
-                                    .stream()
-                                    .filter(m -> !m.isDie() && Util.getDistance(distanceX, player.location.y,
-                                            m.location.x, m.location.y) <= 100 + 15 * point)
-                                    .sorted(Comparator.comparingInt(m -> Math.abs(distanceX - m.location.x)))
-                                    .toList();
-                            for (Mob mob : mobs) {
-                                if (list.stream().filter(obj -> obj instanceof Mob).count() < skill.point) {
-                                    list.add(mob);
-                                }
+                    Util.setTimeout(() -> {
+                        List<Object> list = new ArrayList<>();
+                        int point = skill.point;
+                        int distanceX = player.location.x + 50 * dir;
+                        List<Mob> mobs = player.zone.mobs
+                                .stream()
+                                .filter(m -> !m.isDie() && Util.getDistance(distanceX, player.location.y,
+                                        m.location.x, m.location.y) <= 100 + 15 * point)
+                                .sorted(Comparator.comparingInt(m -> Math.abs(distanceX - m.location.x)))
+                                .toList();
+                        for (Mob mob : mobs) {
+                            if (list.stream().filter(obj -> obj instanceof Mob).count() < skill.point) {
+                                list.add(mob);
                             }
-                            List<Player> pls = player.zone.getHumanoids()
-                                    .stream()
-                                    .filter(m -> !m.equals(player) && !m.isDie()
-                                            && Util.getDistance(distanceX, player.location.y, m.location.x,
-                                                    m.location.y) <= 100 + 15 * point)
-                                    .sorted(Comparator.comparingInt(m -> Math.abs(distanceX - m.location.x)))
-                                    .toList();
-                            for (Player pl : pls) {
-                                if (list.stream().filter(obj -> obj instanceof Player).count() < skill.point) {
-                                    list.add(pl);
-                                }
+                        }
+                        List<Player> pls = player.zone.getHumanoids()
+                                .stream()
+                                .filter(m -> !m.equals(player) && !m.isDie()
+                                        && Util.getDistance(distanceX, player.location.y, m.location.x,
+                                                m.location.y) <= 100 + 15 * point)
+                                .sorted(Comparator.comparingInt(m -> Math.abs(distanceX - m.location.x)))
+                                .toList();
+                        for (Player pl : pls) {
+                            if (list.stream().filter(obj -> obj instanceof Player).count() < skill.point) {
+                                list.add(pl);
                             }
-                            sendEffEndUseSkillNotFocus(player, skillID, distanceX, skill.getTimeDame(),
-                                    100 + 15 * skill.point, list);
-                            affterUseSkill(player, skillID);
-                            TimeUnit.MILLISECONDS.sleep(skill.getTimeDame());
+                        }
+                        sendEffEndUseSkillNotFocus(player, skillID, distanceX, skill.getTimeDame(),
+                                100 + 15 * skill.point, list);
+                        affterUseSkill(player, skillID);
+                        Util.setTimeout(() -> {
                             for (Object obj : list) {
                                 if (obj instanceof Mob mob) {
                                     mob.effectSkill.setMafuba(System.currentTimeMillis(), SkillUtil.getTimeMafuba(),
@@ -1021,9 +954,8 @@ public class SkillService {
                                             SkillUtil.getTimeMafuba() / 1000);
                                 }
                             }
-                        } catch (InterruptedException e) {
-                        }
-                    }, "Thread mafuba");
+                        }, skill.getTimeDame(), "mafuba");
+                    }, skill.getTimePre(), "mafuba");
                 }
             }
         } catch (Exception e) {
@@ -1031,6 +963,57 @@ public class SkillService {
         }
     }
 
+    /**
+     * One hit of a channelled skill, the next hit is scheduled period later
+     * until the skill time ran out or the player died
+     */
+    private void hitSkillNotFocus(Player player, SkillNotFocus skill, short skillID, byte dir, short xPlayer,
+            int skillRange, int count, long lastTime) {
+        if (player.isDie() || lastTime >= skill.getTime() || player.zone == null) {
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        int dameAttack = player.nPoint.getDameAttackSkillNotFocus() * (count == 15 ? 2 : 1);
+        for (Mob mob : player.zone.mobs) {
+            if (Math.abs(player.location.y - mob.location.y) <= 100) {
+                if (dir == 1) {// phải
+                    if (mob.location.x >= xPlayer
+                            && Math.abs(player.location.x - mob.location.x) <= skillRange) {
+                        mob.injured(player, dameAttack, false);
+                    }
+                } else {// trái
+                    if (mob.location.x <= xPlayer
+                            && Math.abs(player.location.x - mob.location.x) <= skillRange) {
+                        mob.injured(player, dameAttack, false);
+                    }
+                }
+            }
+        }
+
+        for (Player p : player.zone.getHumanoids()) {
+            if (canAttackPlayer(player, p) && !p.equals(player)) {
+                if (Math.abs(player.location.y - p.location.y) <= 100) {
+                    if (dir == 1) {// phải
+                        if (p.location.x >= xPlayer
+                                && Math.abs(player.location.x - p.location.x) <= skillRange) {
+                            playerAttackPlayer(player, p, false, dameAttack);
+                            havePlayerAttack(p, false, dameAttack, 0);
+                        }
+                    } else {// trái
+                        if (p.location.x <= xPlayer
+                                && Math.abs(player.location.x - p.location.x) <= skillRange) {
+                            playerAttackPlayer(player, p, false, dameAttack);
+                            havePlayerAttack(p, false, dameAttack, 0);
+                        }
+                    }
+                }
+            }
+        }
+        affterUseSkill(player, skillID);
+        Util.setTimeout(() -> hitSkillNotFocus(player, skill, skillID, dir, xPlayer, skillRange, count + 1, currentTime),
+                skill.getTimeDame() / 15, "Special Skill");
+    }
+
     private void sendEffStartSkillNotFocus(Player player, short skillID, byte dir, int timePre, byte isFly) {
         byte gender = player.gender;
         try {
@@ -23,10 +23,12 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.List;
 import nro.jdbc.DBService;
 import nro.jdbc.daos.PlayerDAO;
+import nro.manager.TopManager;
 import static nro.models.item.ItemTime.TEXT_NHIEM_VU_HANG_NGAY;
 
 /**
@@ -3101,9 +3103,18 @@ public class TaskService {
                 try (
                         Connection con = DBService.gI().getConnectionForSaveData();
                         PreparedStatement ps = con
-                                .prepareStatement("UPDATE account SET NangDong = NangDong + 1 WHERE id = ?")) {
+                                .prepareStatement("UPDATE account SET NangDong = NangDong + 1 WHERE id = ?");
+                        PreparedStatement psGet = con
+                                .prepareStatement("SELECT NangDong FROM account WHERE id = ?")) {
                     ps.setInt(1, player.getSession().userId); // ID của người chơi
                     ps.executeUpdate();
+                    // doc lai tong moi de cap nhat bang xep hang, tra theo khoa chinh
+                    psGet.setInt(1, player.getSession().userId);
+                    try (ResultSet rs = psGet.executeQuery()) {
+                        if (rs.next()) {
+                            TopManager.getInstance().updateNangDong(player, rs.getInt(1));
+                        }
+                    }
                     Service.getInstance().sendThongBao(player, "Bạn nhận được 1 điểm năng động");
                 } catch (Exception e) {
                     Log.error(PlayerDAO.class, e, "Lỗi update top năng động cho người chơi " + player.name);
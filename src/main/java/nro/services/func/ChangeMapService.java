@@ -14,6 +14,7 @@ import nro.models.map.war.NamekBallWar;
 import nro.models.mob.Mob;
 import nro.models.player.Player;
 import nro.models.pvp.PVP;
+import nro.server.GameLoop;
 import nro.server.io.Message;
 import nro.services.*;
 import nro.utils.Log;
@@ -196,6 +197,10 @@ public class ChangeMapService {
     }
 
     public void changeMap(Player pl, Zone zoneJoin, int mapId, int zoneId, int x, int y, byte typeSpace) {
+        final Zone target = zoneJoin;
+        if (GameLoop.deferCrossZone(() -> changeMap(pl, target, mapId, zoneId, x, y, typeSpace))) {
+            return;
+        }
         TransactionService.gI().cancelTrade(pl);
         if (zoneJoin == null) {
             if (mapId != -1) {
@@ -297,6 +302,9 @@ public class ChangeMapService {
 
     // chỉ dùng cho boss
     public void changeMapBySpaceShip(Player pl, Zone zoneJoin, byte typeSpace) {
+        if (GameLoop.deferCrossZone(() -> changeMapBySpaceShip(pl, zoneJoin, typeSpace))) {
+            return;
+        }
         if (zoneJoin != null) {
             pl.setUseSpaceShip(typeSpace);
             pl.location.x = Util.nextInt(100, zoneJoin.map.mapWidth - 100);
@@ -1,11 +1,10 @@
 package nro.services.func;
 
-import nro.jdbc.DBService;
 import nro.jdbc.daos.HistoryTransactionDAO;
-import nro.jdbc.daos.PlayerDAO;
 import nro.models.item.Item;
 import nro.models.item.ItemOption;
 import nro.models.player.Player;
+import nro.server.GameTasks;
 import nro.server.io.Message;
 import nro.services.InventoryService;
 import nro.services.ItemService;
@@ -15,10 +14,6 @@ import nro.utils.Log;
 import nro.utils.Util;
 
 import java.io.DataOutputStream;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -360,23 +355,9 @@ public class Trade {
                     HistoryTransactionDAO.insert(player1, player2, goldTrade1, goldTrade2, itemsTrade1, itemsTrade2,
                             bag1Before, bag2Before, this.player1.inventory.itemsBag, this.player2.inventory.itemsBag,
                             gold1Before, gold2Before, this.player1.inventory.gold, this.player2.inventory.gold);
-                    PreparedStatement ps = null;
-                    ResultSet rs = null;
-                    try (Connection con = DBService.gI().getConnectionForSaveHistory();) {
-                        PlayerDAO.saveBag(con, player1);
-                        PlayerDAO.saveBag(con, player2);
-                    } catch (Exception e) {
-                    } finally {
-                        try {
-                            if (rs != null) {
-                                rs.close();
-                            }
-                            if (ps != null) {
-                                ps.close();
-                            }
-                        } catch (SQLException ex) {
-                        }
-                    }
+                    // luu qua PlayerSaveQueue: snapshot moi thay the snapshot cu dang cho, khong bi ghi de
+                    saveAfterTrade(player1);
+                    saveAfterTrade(player2);
                 }
                 sendNotifyTrade(tradeStatus);
             }
@@ -384,6 +365,16 @@ public class Trade {
 
     }
 
+    /**
+     * Queues a fresh snapshot after the trade. A snapshot being taken on
+     * another thread right now may predate the trade, so try again shortly.
+     */
+    private static void saveAfterTrade(Player player) {
+        if (!PlayerService.gI().savePlayer(player) && !player.isDisposed()) {
+            GameTasks.gI().schedule("Luu giao dich", 50, () -> PlayerService.gI().savePlayer(player));
+        }
+    }
+
     private static final byte SUCCESS = 0;
     private static final byte FAIL_MAX_GOLD_PLAYER1 = 1;
     private static final byte FAIL_MAX_GOLD_PLAYER2 = 2;
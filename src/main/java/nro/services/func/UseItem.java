@@ -1870,6 +1870,7 @@ public class UseItem {
                 pl.itemTime.isUseBanhTet = true;
                 updatePoint = true;
         }
+        pl.itemTime.scheduleExpiry();
         if (updatePoint) {
             Service.getInstance().point(pl);
         }
@@ -2116,23 +2117,13 @@ public class UseItem {
             vatpham.itemOptions.add(new ItemOption(103, Util.nextInt(5, 13)));
 
             InventoryService.gI().addItemBag(player, vatpham, 0);
-            new Thread(() -> {
-                try {
-                    Thread.sleep(5000);
-                    Service.getInstance().sendThongBao(player, "Bạn vừa nhận được " + vatpham.template.name);
-                    InventoryService.gI().sendItemBags(player);
-                } catch (InterruptedException e) {
-
-                }
-            }).start();
+            Util.setTimeout(() -> {
+                Service.getInstance().sendThongBao(player, "Bạn vừa nhận được " + vatpham.template.name);
+                InventoryService.gI().sendItemBags(player);
+            }, 5000, "open reward");
         } else {
-            new Thread(() -> {
-                try {
-                    Thread.sleep(5000);
-                    Service.getInstance().sendThongBao(player, "Chúc bạn may mắn lần sau ");
-                } catch (InterruptedException e) {
-                }
-            }).start();
+            Util.setTimeout(() -> Service.getInstance().sendThongBao(player, "Chúc bạn may mắn lần sau "),
+                    5000, "open reward");
         }
     }
 
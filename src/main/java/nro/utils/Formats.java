@@ -0,0 +1,194 @@
+package nro.utils;
+
+import java.text.NumberFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Formats - thread safe date and number formatting
+ *
+ * Dates go through immutable java.time formatters that every thread can
+ * share. The number helpers write the text themselves instead of going
+ * through NumberFormat or String.format: the append variants add to a
+ * builder of the caller, the String variants build in a per thread builder
+ * so the result string is the only allocation.
+ *
+ * Numbers follow the Vietnamese style used across the game: '.' groups
+ * thousands and ',' separates decimals.
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class Formats {
+
+    public static final Locale VI = new Locale("vi", "VN");
+    public static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter HOUR_MINUTE = DateTimeFormatter.ofPattern("H'giờ' m'phút'");
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+    private static final ThreadLocal<NumberFormat> NUMBER = ThreadLocal.withInitial(() -> NumberFormat.getInstance(VI));
+    private static final ThreadLocal<NumberFormat> ONE_DECIMAL = ThreadLocal.withInitial(() -> {
+        NumberFormat format = NumberFormat.getInstance(VI);
+        format.setMaximumFractionDigits(1);
+        return format;
+    });
+
+    private Formats() {
+    }
+
+    private static StringBuilder builder() {
+        StringBuilder sb = BUILDER.get();
+        sb.setLength(0);
+        return sb;
+    }
+
+    // ==================== DATE ====================
+
+    private static ZoneId zone() {
+        return ZoneId.systemDefault();
+    }
+
+    public static String dateTime(Date date) {
+        return DATE_TIME.format(date.toInstant().atZone(zone()));
+    }
+
+    public static Date parseDateTime(String text) {
+        return Date.from(LocalDateTime.parse(text, DATE_TIME).atZone(zone()).toInstant());
+    }
+
+    public static LocalDate localDate(Date date) {
+        return date.toInstant().atZone(zone()).toLocalDate();
+    }
+
+    /**
+     * Hour and minute of the day, e.g. 9giờ 5phút
+     */
+    public static String hourMinute(long millis) {
+        return HOUR_MINUTE.format(Instant.ofEpochMilli(millis).atZone(zone()));
+    }
+
+    // ==================== NUMBER ====================
+
+    /**
+     * Plain number with grouped thousands, up to three decimals
+     */
+    public static String number(double value) {
+        return NUMBER.get().format(value);
+    }
+
+    public static StringBuilder appendGrouped(StringBuilder sb, long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                // -MIN_VALUE tran so
+                return sb.append("-9.223.372.036.854.775.808");
+            }
+            sb.append('-');
+            value = -value;
+        }
+        if (value < 1000) {
+            return sb.append(value);
+        }
+        appendGrouped(sb, value / 1000);
+        sb.append('.');
+        return appendPadded(sb, value % 1000, 3);
+    }
+
+    /**
+     * 1234567 -> 1.234.567
+     */
+    public static String grouped(long value) {
+        return appendGrouped(builder(), value).toString();
+    }
+
+    /**
+     * Power, gold or hp in short form with one decimal: 1,5 Tỷ, 12 Tr, 3,2 k
+     */
+    public static StringBuilder appendPower(StringBuilder sb, long value) {
+        if (value >= 1_000_000_000) {
+            return appendTenths(sb, value, 1_000_000_000).append(" Tỷ");
+        } else if (value >= 1_000_000) {
+            return appendTenths(sb, value, 1_000_000).append(" Tr");
+        } else if (value >= 1_000) {
+            return appendTenths(sb, value, 1_000).append(" k");
+        }
+        return appendGrouped(sb, value);
+    }
+
+    public static String power(long value) {
+        return appendPower(builder(), value).toString();
+    }
+
+    /**
+     * Short form rounded to a whole number: 2 Tỉ, 15 Tr, 300 k
+     */
+    public static StringBuilder appendMoney(StringBuilder sb, long value) {
+        if (value >= 1_000_000_000) {
+            return sb.append(roundDiv(value, 1_000_000_000)).append(" Tỉ");
+        } else if (value >= 1_000_000) {
+            return sb.append(roundDiv(value, 1_000_000)).append(" Tr");
+        } else if (value >= 1_000) {
+            return sb.append(roundDiv(value, 1_000)).append(" k");
+        }
+        return sb.append(value);
+    }
+
+    public static String money(long value) {
+        return appendMoney(builder(), value).toString();
+    }
+
+    /**
+     * Milliseconds as seconds with two decimals: 1234 -> 1,23
+     */
+    public static String seconds(long millis) {
+        StringBuilder sb = builder();
+        if (millis < 0) {
+            sb.append('-');
+            millis = -millis;
+        }
+        long hundredths = (millis + 5) / 10;
+        sb.append(hundredths / 100).append(',');
+        return appendPadded(sb, hundredths % 100, 2).toString();
+    }
+
+    /**
+     * Zero padded to width digits, value must not be negative
+     */
+    public static StringBuilder appendPadded(StringBuilder sb, long value, int width) {
+        long limit = 10;
+        for (int i = 1; i < width; i++) {
+            if (value < limit) {
+                sb.append('0');
+            }
+            limit *= 10;
+        }
+        return sb.append(value);
+    }
+
+    /**
+     * value / unit with at most one decimal, rounded like NumberFormat does
+     * on the double quotient
+     */
+    private static StringBuilder appendTenths(StringBuilder sb, long value, long unit) {
+        long whole = value / unit;
+        long rest = (value % unit) * 10 % unit;
+        if (rest == unit / 2 || whole >= 100_000) {
+            // dung giua hai so hoac so qua lon: ket qua tuy vao sai so cua double, de NumberFormat quyet
+            return sb.append(ONE_DECIMAL.get().format((double) value / unit));
+        }
+        long tenth = ((value % unit) * 10 + unit / 2) / unit;
+        if (tenth == 10) {
+            whole++;
+            tenth = 0;
+        }
+        appendGrouped(sb, whole);
+        return tenth == 0 ? sb : sb.append(',').append(tenth);
+    }
+
+    private static long roundDiv(long value, long unit) {
+        return value / unit + (value % unit >= unit / 2 ? 1 : 0);
+    }
+}
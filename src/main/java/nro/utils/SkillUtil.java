@@ -2,10 +2,9 @@ package nro.utils;
 
 import nro.models.skill.SkillTemplate;
 import nro.models.player.Player;
-import nro.models.skill.NClass;
 import nro.models.skill.Skill;
 import nro.models.skill.SkillNotFocus;
-import nro.server.Manager;
+import nro.server.Registry;
 
 import java.util.List;
 
@@ -15,32 +14,13 @@ import java.util.List;
  */
 public class SkillUtil {
 
-    private final static NClass nClassTD;
-    private final static NClass nClassNM;
-    private final static NClass nClassXD;
-
-    static {
-        nClassTD = Manager.NCLASS.get(0);
-        nClassNM = Manager.NCLASS.get(1);
-        nClassXD = Manager.NCLASS.get(2);
-    }
-
     public static int getTimeBienHinh(boolean lastLevel, int coolDown) { 
         int per = lastLevel ? 500 : 500;
         return coolDown * per / 100;
     }
 
     public static Skill createSkill(int tempId, int level) {
-        Skill skill = null;
-        try {
-            skill = nClassTD.getSkillTemplate(tempId).skillss.get(level - 1);
-        } catch (Exception e) {
-            try {
-                skill = nClassNM.getSkillTemplate(tempId).skillss.get(level - 1);
-            } catch (Exception ex) {
-                skill = nClassXD.getSkillTemplate(tempId).skillss.get(level - 1);
-            }
-        }
+        Skill skill = Registry.getSkillTemplate(tempId).skillss.get(level - 1);
         if (skill.template.id >= 24) {
             return new SkillNotFocus(skill);
         }
@@ -193,17 +173,7 @@ public class SkillUtil {
         if (level > 7) {
             return false;
         }
-        Skill skill = null;
-        try {
-            skill = nClassTD.getSkillTemplate(tempId).skillss.get(level - 1);
-        } catch (Exception e) {
-            try {
-                skill = nClassNM.getSkillTemplate(tempId).skillss.get(level - 1);
-            } catch (Exception ex) {
-                skill = nClassXD.getSkillTemplate(tempId).skillss.get(level - 1);
-            }
-        }
-        skill = new Skill(skill);
+        Skill skill = new Skill(Registry.getSkillTemplate(tempId).skillss.get(level - 1));
         if (index == 1) {
             skill.coolDown = 500;
         }
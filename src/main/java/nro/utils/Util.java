@@ -1,31 +1,22 @@
 package nro.utils;
 
-import java.text.DecimalFormat;
 import nro.models.mob.Mob;
 import nro.models.npc.Npc;
 import nro.models.player.Player;
 
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
 import nro.models.boss.BossManager;
+import nro.server.GameTasks;
 
 public class Util {
 
     private static final Random rand;
-    private static final SimpleDateFormat dateFormat;
-    private static SimpleDateFormat dateFormatDay = new SimpleDateFormat("yyyy-MM-dd");
-
-    private static final Locale locale = new Locale("vi", "VN");
-    private static final NumberFormat num = NumberFormat.getInstance(locale);
 
     static {
         rand = new Random();
-        dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
     }
 
     public static int randomBossId() {
@@ -76,8 +67,11 @@ public class Util {
         return minutes + " m " + seconds + " s";
     }
 
+    /**
+     * Runs r on the GameTasks pool, r must not sleep
+     */
     public static void runThread(Runnable r, String name) {
-        new Thread(r, name).start();
+        GameTasks.gI().execute(name, r);
     }
 
     public static String convertToPercentage(float value) {
@@ -89,8 +83,7 @@ public class Util {
     }
 
     public static String convertMillisecondsToSeconds(long milliseconds) {
-        double seconds = (double) milliseconds / 1000;
-        return String.format("%.2f", seconds).replace('.', ',');
+        return Formats.seconds(milliseconds);
     }
 
     public static String convertSecondsToTime2(long totalSeconds) {
@@ -122,23 +115,11 @@ public class Util {
     }
 
     public static String mumberToLouis(long number) {
-        DecimalFormat decimalFormat = new DecimalFormat("#,###");
-        return decimalFormat.format(number).replace(',', '.');
+        return Formats.grouped(number);
     }
 
     public static String numberToMoney(long power) {
-        Locale locale = new Locale("vi", "VN");
-        NumberFormat num = NumberFormat.getInstance(locale);
-        num.setMaximumFractionDigits(1);
-        if (power >= 1000000000) {
-            return Math.round((double) power / 1000000000) + " Tỉ";
-        } else if (power >= 1000000) {
-            return Math.round((double) power / 1000000) + " Tr";
-        } else if (power >= 1000) {
-            return Math.round((double) power / 1000) + " k";
-        } else {
-            return String.valueOf(power);
-        }
+        return Formats.money(power);
     }
 
     public static int createIdDuongTank(int idPlayer) {
@@ -146,33 +127,20 @@ public class Util {
     }
 
     public static String powerToString(long power) {
-        Locale locale = new Locale("vi", "VN");
-        NumberFormat num = NumberFormat.getInstance(locale);
-        num.setMaximumFractionDigits(1);
-        if (power >= 1000000000) {
-            return num.format((double) power / 1000000000) + " Tỷ";
-        } else if (power >= 1000000) {
-            return num.format((double) power / 1000000) + " Tr";
-        } else if (power >= 1000) {
-            return num.format((double) power / 1000) + " k";
-        } else {
-            return num.format(power);
-        }
+        return Formats.power(power);
     }
 
+    /**
+     * Runs r on the GameTasks pool after delay milliseconds of the tick clock
+     */
     public static void setTimeout(Runnable r, int delay, String name) {
-        new Thread(() -> {
-            try {
-                TimeUnit.MILLISECONDS.sleep(delay);
-                r.run();
-            } catch (InterruptedException e) {
-                Log.error(Util.class, e);
-            }
-        }, "setTimeOut" + name).start();
+        GameTasks.gI().schedule(name, delay, r);
     }
 
     public static int getDistance(int x1, int y1, int x2, int y2) {
-        return (int) Math.sqrt(Math.pow(x1 - x2, 2) + Math.pow(y1 - y2, 2));
+        long dx = x1 - x2;
+        long dy = y1 - y2;
+        return (int) Math.sqrt(dx * dx + dy * dy);
     }
 
     public static int getDistance(Player pl1, Player pl2) {
@@ -257,9 +225,6 @@ public class Util {
     }
 
     public static void debug(String message) {
-        Date date = new Date(System.currentTimeMillis());
-        SimpleDateFormat formatter = new SimpleDateFormat("dd-MM-yyyy hh:mm:ss");
-        String strDate = formatter.format(date);
         try {
             System.err.println(message);
         } catch (Exception e) {
@@ -402,19 +367,20 @@ public class Util {
             minutes %= 60;
             if (hours >= 24) {
                 int days = hours / 24;
-                return String.format("%dd%02dh%02d'", days, hours % 24, minutes);
+                StringBuilder sb = new StringBuilder(12).append(days).append('d');
+                Formats.appendPadded(sb, hours % 24, 2).append('h');
+                return Formats.appendPadded(sb, minutes, 2).append('\'').toString();
             }
-            return String.format("%02dh%02d'", hours, minutes);
+            StringBuilder sb = new StringBuilder(8);
+            Formats.appendPadded(sb, hours, 2).append('h');
+            return Formats.appendPadded(sb, minutes, 2).append('\'').toString();
         }
-        return String.format("%02d'", minutes);
+        return Formats.appendPadded(new StringBuilder(4), minutes, 2).append('\'').toString();
     }
 
     public static String formatTime(long time) {
         try {
-            SimpleDateFormat sdm = new SimpleDateFormat("H%1 m%2");
-            String done = sdm.format(new java.util.Date(time));
-            done = done.replaceAll("%1", "giờ").replaceAll("%2", "phút");
-            return done;
+            return Formats.hourMinute(time);
         } catch (Exception e) {
             e.printStackTrace();
             return "";
@@ -436,11 +402,9 @@ public class Util {
         }
     }
 
-    public static synchronized boolean compareDay(Date now, Date when) {
+    public static boolean compareDay(Date now, Date when) {
         try {
-            Date date1 = Util.dateFormatDay.parse(Util.dateFormatDay.format(now));
-            Date date2 = Util.dateFormatDay.parse(Util.dateFormatDay.format(when));
-            return !date1.equals(date2) && !date1.before(date2);
+            return Formats.localDate(now).isAfter(Formats.localDate(when));
         } catch (Exception e) {
             e.printStackTrace();
             return false;
@@ -449,7 +413,7 @@ public class Util {
 
     public static Date getDate(String str) {
         try {
-            return dateFormat.parse(str);
+            return Formats.parseDateTime(str);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -458,11 +422,9 @@ public class Util {
 
     public static String toDateString(Date date) {
         try {
-            String a = Util.dateFormat.format(date);
-            return a;
+            return Formats.dateTime(date);
         } catch (Exception e) {
-            Date now = new Date();
-            return dateFormat.format(now);
+            return Formats.dateTime(new Date());
         }
     }
 
@@ -485,7 +447,7 @@ public class Util {
     }
 
     public static String format(double power) {
-        return num.format(power);
+        return Formats.number(power);
     }
 
 }
@@ -0,0 +1,67 @@
+package nro.jdbc;
+
+import nro.jdbc.daos.PlayerSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Snapshots submitted while the workers drain must not lose a changed column
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+class PlayerSaveQueueTest {
+
+    private static final int PLAYERS = 2000;
+    private static final int THREADS = 4;
+    private static final int COLUMNS = PlayerSnapshot.COLUMNS - 1;
+
+    @Test
+    void concurrentSubmitAndDrainKeepEveryColumn() throws Exception {
+        Map<Long, Long> written = new ConcurrentHashMap<>();
+        PlayerSaveQueue queue = new PlayerSaveQueue(2, 1, batch -> {
+            for (PlayerSnapshot snapshot : batch) {
+                written.merge(snapshot.getPlayerId(), snapshot.getChanged(), (a, b) -> a | b);
+            }
+        });
+        Map<Long, Long> expected = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            Thread submitter = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // moi cot cua moi player chi gui mot lan: mat la thay ngay
+                for (int column = thread; column < COLUMNS; column += THREADS) {
+                    for (long id = 0; id < PLAYERS; id++) {
+                        long bit = 1L << column;
+                        expected.merge(id, bit, (a, b) -> a | b);
+                        queue.submit(new PlayerSnapshot(id, (int) id, -1, new Object[PlayerSnapshot.COLUMNS], bit));
+                    }
+                }
+            });
+            threads.add(submitter);
+            submitter.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        queue.shutdown();
+        assertEquals(0, queue.size());
+        for (long id = 0; id < PLAYERS; id++) {
+            assertEquals(Long.toBinaryString(expected.get(id)), Long.toBinaryString(written.getOrDefault(id, 0L)),
+                    "player " + id);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package nro.jdbc.daos;
+
+import nro.models.item.Item;
+import nro.models.item.ItemOption;
+import nro.models.item.ItemOptionTemplate;
+import nro.server.RegistryFixture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trip of the legacy json-simple item lists through the binary form
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+class PlayerDataCodecTest {
+
+    @BeforeAll
+    static void templates() {
+        RegistryFixture.items(List.of(
+                RegistryFixture.item(14, "Ngọc rồng 1 sao"),
+                RegistryFixture.item(457, "Thỏi vàng"),
+                RegistryFixture.item(1066, "Mảnh thiên sứ")));
+        RegistryFixture.itemOptions(List.of(
+                new ItemOptionTemplate(30, "Không thể giao dịch", 0),
+                new ItemOptionTemplate(50, "Sức đánh+#%", 0),
+                new ItemOptionTemplate(73, "Giảm #% sát thương", 0),
+                new ItemOptionTemplate(93, "Hạn sử dụng # ngày", 0)));
+    }
+
+    private static void assertSameItems(List<Item> expected, List<Item> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Item e = expected.get(i);
+            Item a = actual.get(i);
+            assertEquals(e.isNotNullItem(), a.isNotNullItem(), "slot " + i);
+            if (!e.isNotNullItem()) {
+                continue;
+            }
+            assertEquals(e.template.id, a.template.id, "slot " + i);
+            assertEquals(e.quantity, a.quantity, "slot " + i);
+            assertEquals(e.createTime, a.createTime, "slot " + i);
+            assertEquals(e.itemOptions.size(), a.itemOptions.size(), "slot " + i);
+            for (int j = 0; j < e.itemOptions.size(); j++) {
+                ItemOption eo = e.itemOptions.get(j);
+                ItemOption ao = a.itemOptions.get(j);
+                assertEquals(eo.optionTemplate.id, ao.optionTemplate.id, "slot " + i + " option " + j);
+                assertEquals(eo.param, ao.param, "slot " + i + " option " + j);
+            }
+        }
+    }
+
+    private static List<Item> roundTrip(String legacy) {
+        List<Item> fromJson = PlayerDataCodec.decodeItems(legacy, false);
+        String binary = PlayerDataCodec.encodeItems(fromJson);
+        assertTrue(PlayerDataCodec.isBinary(binary));
+        List<Item> fromBinary = PlayerDataCodec.decodeItems(binary, false);
+        assertSameItems(fromJson, fromBinary);
+        return fromBinary;
+    }
+
+    @Test
+    void bagWithNullItemsAndNegativeParams() {
+        String legacy = "["
+                + "{\"temp_id\":457,\"quantity\":120,\"create_time\":1700000000000,\"option\":[[30,0],[93,-1]]},"
+                + "{\"temp_id\":-1,\"quantity\":0,\"create_time\":0,\"option\":[]},"
+                + "{\"temp_id\":1066,\"quantity\":99999,\"create_time\":1690000000123,"
+                + "\"option\":[[50,-25],[73,-2147483648],[50,2147483647]]},"
+                + "{\"temp_id\":-1,\"quantity\":0,\"create_time\":0,\"option\":[]}"
+                + "]";
+        List<Item> items = roundTrip(legacy);
+        assertEquals(4, items.size());
+        assertFalse(items.get(1).isNotNullItem());
+        assertFalse(items.get(3).isNotNullItem());
+        assertEquals(120, items.get(0).quantity);
+        assertEquals(1700000000000L, items.get(0).createTime);
+        assertEquals(-1, items.get(0).itemOptions.get(1).param);
+        assertEquals(-25, items.get(2).itemOptions.get(0).param);
+        assertEquals(Integer.MIN_VALUE, items.get(2).itemOptions.get(1).param);
+        assertEquals(Integer.MAX_VALUE, items.get(2).itemOptions.get(2).param);
+    }
+
+    @Test
+    void luckyRoundBox() {
+        // o moi tao tai khoan: 110 o trong quantity 1, xen vai ngoc rong quay duoc
+        StringBuilder legacy = new StringBuilder("[");
+        for (int i = 0; i < 110; i++) {
+            if (i > 0) {
+                legacy.append(',');
+            }
+            if (i % 37 == 5) {
+                legacy.append("{\"temp_id\":14,\"quantity\":1,\"create_time\":1700000000000,\"option\":[[30,0]]}");
+            } else {
+                legacy.append("{\"temp_id\":-1,\"option\":[],\"create_time\":0,\"quantity\":1}");
+            }
+        }
+        legacy.append(']');
+        List<Item> items = roundTrip(legacy.toString());
+        assertEquals(110, items.size());
+        int notNull = 0;
+        for (Item item : items) {
+            if (item.isNotNullItem()) {
+                notNull++;
+                assertEquals(14, item.template.id);
+            }
+        }
+        assertEquals(3, notNull);
+    }
+
+    @Test
+    void emptyList() {
+        assertTrue(roundTrip("[]").isEmpty());
+    }
+}
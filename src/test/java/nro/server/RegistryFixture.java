@@ -0,0 +1,33 @@
+package nro.server;
+
+import nro.models.item.ItemOptionTemplate;
+import nro.models.item.ItemTemplate;
+
+import java.util.List;
+
+/**
+ * RegistryFixture - fills the Registry tables tests need without a database
+ *
+ * @author 💖 ahwuocdz 💖
+ */
+public final class RegistryFixture {
+
+    private RegistryFixture() {
+    }
+
+    public static void items(List<ItemTemplate> templates) {
+        Registry.indexItemTemplates(templates);
+    }
+
+    public static void itemOptions(List<ItemOptionTemplate> templates) {
+        Registry.indexItemOptionTemplates(templates);
+    }
+
+    public static ItemTemplate item(int id, String name) {
+        ItemTemplate template = new ItemTemplate();
+        template.id = (short) id;
+        template.name = name;
+        template.gender = 3;
+        return template;
+    }
+}